@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.commons.health;
+
+import java.time.Duration;
+
+/**
+ * Settings of a Nacos health indicator, bound by each starter under its own prefix,
+ * for instance {@code spring.cloud.nacos.discovery.health}.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosServerHealthProperties {
+
+	/**
+	 * Check the status of the server in the background, health probes reading the last
+	 * result.
+	 */
+	private boolean async = false;
+
+	/**
+	 * Delay between two background checks.
+	 */
+	private Duration interval = Duration.ofSeconds(10);
+
+	/**
+	 * Age after which the last background check is reported as UNKNOWN.
+	 */
+	private Duration maxStaleness = Duration.ofSeconds(30);
+
+	public boolean isAsync() {
+		return async;
+	}
+
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	public Duration getInterval() {
+		return interval;
+	}
+
+	public void setInterval(Duration interval) {
+		this.interval = interval;
+	}
+
+	public Duration getMaxStaleness() {
+		return maxStaleness;
+	}
+
+	public void setMaxStaleness(Duration maxStaleness) {
+		this.maxStaleness = maxStaleness;
+	}
+
+}
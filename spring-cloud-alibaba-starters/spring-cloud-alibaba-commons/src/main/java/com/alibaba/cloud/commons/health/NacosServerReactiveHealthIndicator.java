@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.commons.health;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+
+/**
+ * The {@link ReactiveHealthIndicator} of a Nacos server, reading the last status
+ * checked by a {@link NacosServerStatusMonitor}, without blocking.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosServerReactiveHealthIndicator implements ReactiveHealthIndicator {
+
+	private final NacosServerStatusMonitor monitor;
+
+	public NacosServerReactiveHealthIndicator(NacosServerStatusMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	@Override
+	public Mono<Health> health() {
+		return Mono.fromSupplier(monitor::getHealth);
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.commons.health;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Checks the status of the Nacos server in the background, so that health probes read
+ * the last result instead of waiting for the server. A result older than the staleness
+ * bound, for instance because the check hangs on a slow server, is reported as
+ * {@link org.springframework.boot.actuate.health.Status#UNKNOWN UNKNOWN} rather than
+ * trusted.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosServerStatusMonitor implements SmartLifecycle {
+
+	/**
+	 * status up.
+	 */
+	private static final String STATUS_UP = "UP";
+
+	/**
+	 * status down.
+	 */
+	private static final String STATUS_DOWN = "DOWN";
+
+	private final Callable<String> statusSupplier;
+
+	private final Duration interval;
+
+	private final Duration maxStaleness;
+
+	private final ThreadPoolTaskScheduler taskScheduler;
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	private ScheduledFuture<?> checkFuture;
+
+	private volatile Check lastCheck;
+
+	/**
+	 * @param name name of the checking thread, for instance
+	 * {@code Nacos-Discovery-Health-Task-Scheduler}
+	 * @param statusSupplier returns the status of the server, {@code UP} or
+	 * {@code DOWN}
+	 * @param interval delay between two checks
+	 * @param maxStaleness age after which the last check is not trusted anymore
+	 */
+	public NacosServerStatusMonitor(String name, Callable<String> statusSupplier,
+			Duration interval, Duration maxStaleness) {
+		this.statusSupplier = statusSupplier;
+		this.interval = interval;
+		this.maxStaleness = maxStaleness;
+		this.taskScheduler = new ThreadPoolTaskScheduler();
+		this.taskScheduler.setBeanName(name);
+		this.taskScheduler.setDaemon(true);
+	}
+
+	/**
+	 * Check the status of the server now.
+	 */
+	void check() {
+		Check check;
+		try {
+			check = new Check(statusSupplier.call(), null);
+		}
+		catch (Exception e) {
+			check = new Check(null, e);
+		}
+		lastCheck = check;
+	}
+
+	/**
+	 * @return health from the last check, without calling the server
+	 */
+	public Health getHealth() {
+		Check check = lastCheck;
+		if (check == null) {
+			return Health.unknown()
+					.withDetail("reason", "Server status not checked yet").build();
+		}
+		Duration age = Duration.between(check.checkedAt, Instant.now());
+		if (age.compareTo(maxStaleness) > 0) {
+			return Health.unknown()
+					.withDetail("reason", "Server status not checked for " + age)
+					.withDetail("lastStatus", String.valueOf(check.status))
+					.withDetail("checkedAt", check.checkedAt).build();
+		}
+		Health.Builder builder;
+		if (check.error != null) {
+			builder = Health.down(check.error);
+		}
+		else if (STATUS_UP.equals(check.status)) {
+			builder = Health.up();
+		}
+		else if (STATUS_DOWN.equals(check.status)) {
+			builder = Health.down();
+		}
+		else {
+			builder = Health.unknown().withDetail("lastStatus",
+					String.valueOf(check.status));
+		}
+		return builder.withDetail("checkedAt", check.checkedAt).build();
+	}
+
+	@Override
+	public void start() {
+		if (this.running.compareAndSet(false, true)) {
+			this.taskScheduler.initialize();
+			this.checkFuture = this.taskScheduler.scheduleWithFixedDelay(this::check,
+					interval);
+		}
+	}
+
+	@Override
+	public void stop() {
+		if (this.running.compareAndSet(true, false)) {
+			if (this.checkFuture != null) {
+				this.checkFuture.cancel(false);
+			}
+			this.taskScheduler.shutdown();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running.get();
+	}
+
+	private static final class Check {
+
+		private final String status;
+
+		private final Exception error;
+
+		private final Instant checkedAt = Instant.now();
+
+		Check(String status, Exception error) {
+			this.status = status;
+			this.error = error;
+		}
+
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.commons.health;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NacosServerStatusMonitor}.
+ */
+public class NacosServerStatusMonitorTests {
+
+	@Test
+	public void testHealthFromLastCheck() {
+		AtomicReference<String> status = new AtomicReference<>("UP");
+		NacosServerStatusMonitor monitor = new NacosServerStatusMonitor("test",
+				status::get, Duration.ofSeconds(10), Duration.ofSeconds(30));
+
+		assertThat(monitor.getHealth().getStatus()).isEqualTo(Status.UNKNOWN);
+		monitor.check();
+		assertThat(monitor.getHealth().getStatus()).isEqualTo(Status.UP);
+		status.set("DOWN");
+		// Served from the last check until the next one.
+		assertThat(monitor.getHealth().getStatus()).isEqualTo(Status.UP);
+		monitor.check();
+		assertThat(monitor.getHealth().getStatus()).isEqualTo(Status.DOWN);
+	}
+
+	@Test
+	public void testFailedCheckIsDown() {
+		NacosServerStatusMonitor monitor = new NacosServerStatusMonitor("test", () -> {
+			throw new IllegalStateException("unavailable");
+		}, Duration.ofSeconds(10), Duration.ofSeconds(30));
+
+		monitor.check();
+
+		Health health = monitor.getHealth();
+		assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(health.getDetails()).containsKey("error");
+	}
+
+	@Test
+	public void testNullStatusIsUnknown() {
+		NacosServerStatusMonitor monitor = new NacosServerStatusMonitor("test",
+				() -> null, Duration.ofSeconds(10), Duration.ofSeconds(30));
+
+		monitor.check();
+
+		Health health = monitor.getHealth();
+		assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+		assertThat(health.getDetails()).containsEntry("lastStatus", "null");
+	}
+
+	@Test
+	public void testStaleCheckIsUnknown() throws Exception {
+		NacosServerStatusMonitor monitor = new NacosServerStatusMonitor("test",
+				() -> "UP", Duration.ofSeconds(10), Duration.ofMillis(20));
+
+		monitor.check();
+		Thread.sleep(50);
+
+		Health health = monitor.getHealth();
+		assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+		assertThat(health.getDetails()).containsEntry("lastStatus", "UP");
+	}
+
+	@Test
+	public void testChecksInBackground() throws Exception {
+		CountDownLatch checked = new CountDownLatch(2);
+		NacosServerStatusMonitor monitor = new NacosServerStatusMonitor("test", () -> {
+			checked.countDown();
+			return "UP";
+		}, Duration.ofMillis(10), Duration.ofSeconds(30));
+
+		monitor.start();
+		try {
+			assertThat(checked.await(5, TimeUnit.SECONDS)).isTrue();
+			StepVerifier
+					.create(new NacosServerReactiveHealthIndicator(monitor).health())
+					.assertNext(health -> assertThat(health.getStatus())
+							.isEqualTo(Status.UP))
+					.verifyComplete();
+		}
+		finally {
+			monitor.stop();
+		}
+		assertThat(monitor.isRunning()).isFalse();
+	}
+
+}
@@ -16,12 +16,17 @@
 
 package com.alibaba.cloud.nacos;
 
+import com.alibaba.cloud.nacos.client.NacosConfigLocateMeterBinder;
+import com.alibaba.cloud.nacos.client.NacosPropertySourceLocator;
 import com.alibaba.cloud.nacos.refresh.NacosContextRefresher;
 import com.alibaba.cloud.nacos.refresh.NacosRefreshHistory;
 import com.alibaba.cloud.nacos.refresh.SmartConfigurationPropertiesRebinder;
 import com.alibaba.cloud.nacos.refresh.condition.ConditionalOnNonDefaultBehavior;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.SearchStrategy;
@@ -82,4 +87,21 @@ public class NacosConfigAutoConfiguration {
 		return new SmartConfigurationPropertiesRebinder(beans);
 	}
 
+	/**
+	 * Startup fetch metrics of the bootstrap locator, from the parent context.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterRegistry.class)
+	@ConditionalOnBean(NacosPropertySourceLocator.class)
+	static class NacosConfigMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosConfigLocateMeterBinder nacosConfigLocateMeterBinder(
+				NacosPropertySourceLocator nacosPropertySourceLocator) {
+			return new NacosConfigLocateMeterBinder(nacosPropertySourceLocator);
+		}
+
+	}
+
 }
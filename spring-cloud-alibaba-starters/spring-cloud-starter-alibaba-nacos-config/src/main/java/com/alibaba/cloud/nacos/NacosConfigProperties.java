@@ -200,6 +200,16 @@ public class NacosConfigProperties {
 	 * the master switch for refresh configuration, it default opened(true).
 	 */
 	private boolean refreshEnabled = true;
+	/**
+	 * maximum number of configs fetched concurrently on startup, 1 to fetch them one
+	 * after the other.
+	 */
+	private int fetchParallelism = 4;
+	/**
+	 * apply a change of a config to its own property source and refresh the changed
+	 * keys only, instead of refreshing the whole environment.
+	 */
+	private boolean incrementalRefresh = false;
 
 	@PostConstruct
 	public void init() {
@@ -423,6 +433,22 @@ public class NacosConfigProperties {
 		this.refreshEnabled = refreshEnabled;
 	}
 
+	public int getFetchParallelism() {
+		return fetchParallelism;
+	}
+
+	public void setFetchParallelism(int fetchParallelism) {
+		this.fetchParallelism = fetchParallelism;
+	}
+
+	public boolean isIncrementalRefresh() {
+		return incrementalRefresh;
+	}
+
+	public void setIncrementalRefresh(boolean incrementalRefresh) {
+		this.incrementalRefresh = incrementalRefresh;
+	}
+
 	/**
 	 * recommend to use {@link NacosConfigProperties#sharedConfigs} .
 	 * @return string
@@ -626,7 +652,8 @@ public class NacosConfigProperties {
 				+ ", ramRoleName='" + ramRoleName + '\'' + ", contextPath='" + contextPath
 				+ '\'' + ", clusterName='" + clusterName + '\'' + ", name='" + name + '\''
 				+ '\'' + ", shares=" + sharedConfigs + ", extensions=" + extensionConfigs
-				+ ", refreshEnabled=" + refreshEnabled + '}';
+				+ ", refreshEnabled=" + refreshEnabled + ", fetchParallelism="
+				+ fetchParallelism + ", incrementalRefresh=" + incrementalRefresh + '}';
 	}
 
 	public static class Config {
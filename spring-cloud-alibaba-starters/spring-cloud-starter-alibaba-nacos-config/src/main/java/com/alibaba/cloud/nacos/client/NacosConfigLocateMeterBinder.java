@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the startup fetch of {@link NacosPropertySourceLocator} as the
+ * {@code nacos.config.locate.duration} time gauge and the
+ * {@code nacos.config.locate.configs} gauge.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosConfigLocateMeterBinder implements MeterBinder {
+
+	/**
+	 * Name of the fetch duration time gauge.
+	 */
+	public static final String DURATION_METRIC_NAME = "nacos.config.locate.duration";
+
+	/**
+	 * Name of the fetched configs gauge.
+	 */
+	public static final String CONFIGS_METRIC_NAME = "nacos.config.locate.configs";
+
+	private final NacosPropertySourceLocator locator;
+
+	public NacosConfigLocateMeterBinder(NacosPropertySourceLocator locator) {
+		this.locator = locator;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		TimeGauge.builder(DURATION_METRIC_NAME, locator, TimeUnit.MILLISECONDS,
+				NacosConfigLocateMeterBinder::durationMillis)
+				.description("Duration of the fetch of the nacos configs on startup")
+				.register(registry);
+		Gauge.builder(CONFIGS_METRIC_NAME, locator,
+				NacosPropertySourceLocator::getLastLocateConfigs)
+				.description("Nacos configs fetched on startup").register(registry);
+	}
+
+	private static double durationMillis(NacosPropertySourceLocator locator) {
+		Duration duration = locator.getLastLocateDuration();
+		return duration == null ? Double.NaN : duration.toMillis();
+	}
+
+}
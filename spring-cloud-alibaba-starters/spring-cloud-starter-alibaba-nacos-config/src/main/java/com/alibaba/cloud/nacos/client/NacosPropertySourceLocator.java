@@ -16,7 +16,13 @@
 
 package com.alibaba.cloud.nacos.client;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosConfigManager;
@@ -33,9 +39,15 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.PropertySource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.CollectionUtils;
 
 /**
+ * Locates the nacos configs of the application: the shared configs, the extension
+ * configs, then the configs of the application. The configs are fetched concurrently,
+ * at most {@link NacosConfigProperties#getFetchParallelism()} at a time, and added in
+ * that order, each config taking precedence over the previous ones.
+ *
  * @author xiaojing
  * @author pbting
  */
@@ -57,6 +69,10 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 
 	private NacosConfigManager nacosConfigManager;
 
+	private volatile Duration lastLocateDuration;
+
+	private volatile int lastLocateConfigs;
+
 	/**
 	 * recommend to use
 	 * {@link NacosPropertySourceLocator#NacosPropertySourceLocator(com.alibaba.cloud.nacos.NacosConfigManager)}.
@@ -98,64 +114,131 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		CompositePropertySource composite = new CompositePropertySource(
 				NACOS_PROPERTY_SOURCE_NAME);
 
-		loadSharedConfiguration(composite);
-		loadExtConfiguration(composite);
-		loadApplicationConfiguration(composite, dataIdPrefix, nacosConfigProperties, env);
+		List<ConfigRequest> requests = new ArrayList<>();
+		loadSharedConfiguration(requests);
+		loadExtConfiguration(requests);
+		loadApplicationConfiguration(requests, dataIdPrefix, nacosConfigProperties, env);
+
+		long start = System.nanoTime();
+		List<NacosPropertySource> propertySources = fetch(requests);
+		lastLocateDuration = Duration.ofNanos(System.nanoTime() - start);
+		lastLocateConfigs = requests.size();
+		log.info("Loaded {} nacos configs in {} ms", requests.size(),
+				lastLocateDuration.toMillis());
+		for (NacosPropertySource propertySource : propertySources) {
+			addFirstPropertySource(composite, propertySource, false);
+		}
 		return composite;
 	}
 
+	/**
+	 * @return duration of the fetch of the configs by the last {@link #locate}, null
+	 * before any
+	 */
+	public Duration getLastLocateDuration() {
+		return lastLocateDuration;
+	}
+
+	/**
+	 * @return number of configs fetched by the last {@link #locate}
+	 */
+	public int getLastLocateConfigs() {
+		return lastLocateConfigs;
+	}
+
+	/**
+	 * Fetch the configs, concurrently if allowed.
+	 * @return the property sources, in the order of the requests
+	 */
+	private List<NacosPropertySource> fetch(List<ConfigRequest> requests) {
+		List<NacosPropertySource> propertySources = new ArrayList<>(requests.size());
+		int parallelism = Math.min(nacosConfigProperties.getFetchParallelism(),
+				requests.size());
+		if (parallelism <= 1) {
+			for (ConfigRequest request : requests) {
+				propertySources.add(loadNacosPropertySource(request));
+			}
+			return propertySources;
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"nacos-config-fetch-");
+		threadFactory.setDaemon(true);
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+				threadFactory);
+		try {
+			List<Future<NacosPropertySource>> futures = new ArrayList<>(requests.size());
+			for (ConfigRequest request : requests) {
+				futures.add(executor.submit(() -> loadNacosPropertySource(request)));
+			}
+			for (Future<NacosPropertySource> future : futures) {
+				propertySources.add(future.get());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while loading nacos configs", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("load nacos configs fail", e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		return propertySources;
+	}
+
 	/**
 	 * load shared configuration.
 	 */
-	private void loadSharedConfiguration(
-			CompositePropertySource compositePropertySource) {
+	private void loadSharedConfiguration(List<ConfigRequest> requests) {
 		List<NacosConfigProperties.Config> sharedConfigs = nacosConfigProperties
 				.getSharedConfigs();
 		if (!CollectionUtils.isEmpty(sharedConfigs)) {
 			checkConfiguration(sharedConfigs, "shared-configs");
-			loadNacosConfiguration(compositePropertySource, sharedConfigs);
+			loadNacosConfiguration(requests, sharedConfigs);
 		}
 	}
 
 	/**
 	 * load extensional configuration.
 	 */
-	private void loadExtConfiguration(CompositePropertySource compositePropertySource) {
+	private void loadExtConfiguration(List<ConfigRequest> requests) {
 		List<NacosConfigProperties.Config> extConfigs = nacosConfigProperties
 				.getExtensionConfigs();
 		if (!CollectionUtils.isEmpty(extConfigs)) {
 			checkConfiguration(extConfigs, "extension-configs");
-			loadNacosConfiguration(compositePropertySource, extConfigs);
+			loadNacosConfiguration(requests, extConfigs);
 		}
 	}
 
 	/**
 	 * load configuration of application.
 	 */
-	private void loadApplicationConfiguration(
-			CompositePropertySource compositePropertySource, String dataIdPrefix,
+	private void loadApplicationConfiguration(List<ConfigRequest> requests,
+			String dataIdPrefix,
 			NacosConfigProperties properties, Environment environment) {
 		String fileExtension = properties.getFileExtension();
 		String nacosGroup = properties.getGroup();
 		// load directly once by default
-		loadNacosDataIfPresent(compositePropertySource, dataIdPrefix, nacosGroup,
-				fileExtension, true);
+		loadNacosDataIfPresent(requests, dataIdPrefix, nacosGroup, fileExtension, true);
 		// load with suffix, which have a higher priority than the default
-		loadNacosDataIfPresent(compositePropertySource,
-				dataIdPrefix + DOT + fileExtension, nacosGroup, fileExtension, true);
+		loadNacosDataIfPresent(requests, dataIdPrefix + DOT + fileExtension, nacosGroup,
+				fileExtension, true);
 		// Loaded with profile, which have a higher priority than the suffix
 		for (String profile : environment.getActiveProfiles()) {
 			String dataId = dataIdPrefix + SEP1 + profile + DOT + fileExtension;
-			loadNacosDataIfPresent(compositePropertySource, dataId, nacosGroup,
-					fileExtension, true);
+			loadNacosDataIfPresent(requests, dataId, nacosGroup, fileExtension, true);
 		}
 
 	}
 
-	private void loadNacosConfiguration(final CompositePropertySource composite,
+	private void loadNacosConfiguration(List<ConfigRequest> requests,
 			List<NacosConfigProperties.Config> configs) {
 		for (NacosConfigProperties.Config config : configs) {
-			loadNacosDataIfPresent(composite, config.getDataId(), config.getGroup(),
+			loadNacosDataIfPresent(requests, config.getDataId(), config.getGroup(),
 					NacosDataParserHandler.getInstance()
 							.getFileExtension(config.getDataId()),
 					config.isRefresh());
@@ -174,7 +257,7 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		}
 	}
 
-	private void loadNacosDataIfPresent(final CompositePropertySource composite,
+	private void loadNacosDataIfPresent(List<ConfigRequest> requests,
 			final String dataId, final String group, String fileExtension,
 			boolean isRefreshable) {
 		if (null == dataId || dataId.trim().length() < 1) {
@@ -183,21 +266,18 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		if (null == group || group.trim().length() < 1) {
 			return;
 		}
-		NacosPropertySource propertySource = this.loadNacosPropertySource(dataId, group,
-				fileExtension, isRefreshable);
-		this.addFirstPropertySource(composite, propertySource, false);
+		requests.add(new ConfigRequest(dataId, group, fileExtension, isRefreshable));
 	}
 
-	private NacosPropertySource loadNacosPropertySource(final String dataId,
-			final String group, String fileExtension, boolean isRefreshable) {
+	private NacosPropertySource loadNacosPropertySource(ConfigRequest request) {
 		if (NacosContextRefresher.getRefreshCount() != 0) {
-			if (!isRefreshable) {
-				return NacosPropertySourceRepository.getNacosPropertySource(dataId,
-						group);
+			if (!request.refreshable) {
+				return NacosPropertySourceRepository
+						.getNacosPropertySource(request.dataId, request.group);
 			}
 		}
-		return nacosPropertySourceBuilder.build(dataId, group, fileExtension,
-				isRefreshable);
+		return nacosPropertySourceBuilder.build(request.dataId, request.group,
+				request.fileExtension, request.refreshable);
 	}
 
 	/**
@@ -219,4 +299,27 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		this.nacosConfigManager = nacosConfigManager;
 	}
 
+	/**
+	 * A config to fetch.
+	 */
+	private static final class ConfigRequest {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final String fileExtension;
+
+		private final boolean refreshable;
+
+		ConfigRequest(String dataId, String group, String fileExtension,
+				boolean refreshable) {
+			this.dataId = dataId;
+			this.group = group;
+			this.fileExtension = fileExtension;
+			this.refreshable = refreshable;
+		}
+
+	}
+
 }
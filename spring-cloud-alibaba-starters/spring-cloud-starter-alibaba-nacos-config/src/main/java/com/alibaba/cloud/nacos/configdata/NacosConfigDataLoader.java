@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
@@ -80,8 +81,8 @@ public class NacosConfigDataLoader implements ConfigDataLoader<NacosConfigDataRe
 			NacosItemConfig config = resource.getConfig();
 			// pull config from nacos
 			List<PropertySource<?>> propertySources = pullConfig(configService,
-					config.getGroup(), config.getDataId(), config.getSuffix(),
-					properties.getTimeout());
+					getBean(context, NacosConfigDataPrefetcher.class), config.getGroup(),
+					config.getDataId(), config.getSuffix(), properties.getTimeout());
 
 			NacosPropertySource propertySource = new NacosPropertySource(propertySources,
 					config.getGroup(), config.getDataId(), new Date(),
@@ -135,10 +136,13 @@ public class NacosConfigDataLoader implements ConfigDataLoader<NacosConfigDataRe
 		return preference;
 	}
 
-	private List<PropertySource<?>> pullConfig(ConfigService configService, String group,
-			String dataId, String suffix, long timeout)
-			throws NacosException, IOException {
-		String config = configService.getConfig(dataId, group, timeout);
+	private List<PropertySource<?>> pullConfig(ConfigService configService,
+			NacosConfigDataPrefetcher prefetcher, String group, String dataId,
+			String suffix, long timeout) throws NacosException, IOException {
+		CompletableFuture<String> prefetched = prefetcher == null ? null
+				: prefetcher.take(group, dataId);
+		String config = prefetched != null ? NacosConfigDataPrefetcher.await(prefetched)
+				: configService.getConfig(dataId, group, timeout);
 		logLoadInfo(group, dataId, config);
 		// fixed issue: https://github.com/alibaba/spring-cloud-alibaba/issues/2906 .
 		String configName = group + "@" + dataId;
@@ -27,6 +27,7 @@ import java.util.Map;
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.nacos.api.config.ConfigService;
 import org.apache.commons.logging.Log;
 
 import org.springframework.boot.BootstrapRegistry.InstanceSupplier;
@@ -148,7 +149,54 @@ public class NacosConfigDataLocationResolver
 
 		registerConfigManager(properties, bootstrapContext);
 
-		return loadConfigDataResources(location, profiles, properties);
+		List<NacosConfigDataResource> resources = loadConfigDataResources(location,
+				profiles, properties);
+		prefetch(resources, properties, bootstrapContext);
+		return resources;
+	}
+
+	/**
+	 * Start fetching the configs of the resources while the other imports are resolved,
+	 * see {@link NacosConfigDataPrefetcher}.
+	 */
+	private void prefetch(List<NacosConfigDataResource> resources,
+			NacosConfigProperties properties,
+			ConfigurableBootstrapContext bootstrapContext) {
+		if (properties.getFetchParallelism() <= 1) {
+			return;
+		}
+		NacosConfigManager configManager = bootstrapContext
+				.getOrElse(NacosConfigManager.class, null);
+		if (configManager == null) {
+			return;
+		}
+		ConfigService configService;
+		try {
+			configService = configManager.getConfigService();
+		}
+		catch (RuntimeException e) {
+			// Reported by the loader, as without prefetch.
+			log.debug("Skipping the prefetch of nacos configs", e);
+			return;
+		}
+		if (configService == null) {
+			return;
+		}
+		NacosConfigDataPrefetcher prefetcher = bootstrapContext
+				.getOrElse(NacosConfigDataPrefetcher.class, null);
+		if (prefetcher == null) {
+			NacosConfigDataPrefetcher created = new NacosConfigDataPrefetcher(
+					properties.getFetchParallelism());
+			bootstrapContext.register(NacosConfigDataPrefetcher.class,
+					InstanceSupplier.of(created));
+			bootstrapContext.addCloseListener(event -> created.close());
+			prefetcher = created;
+		}
+		for (NacosConfigDataResource resource : resources) {
+			NacosItemConfig config = resource.getConfig();
+			prefetcher.prefetch(configService, config.getGroup(), config.getDataId(),
+					properties.getTimeout());
+		}
 	}
 
 	private List<NacosConfigDataResource> loadConfigDataResources(
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.configdata;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.exception.NacosException;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Fetches the configs of the resolved {@link NacosConfigDataResource}s concurrently,
+ * while Spring Boot goes on resolving the other imports, for
+ * {@link NacosConfigDataLoader} to take the result instead of fetching each config in
+ * turn. Shared through the bootstrap context, until it is closed.
+ * <p>
+ * Failures are only reported when the loader takes the result, so optional resources
+ * and fail-fast behave as without prefetch.
+ *
+ * @since 2023.0.1.3
+ */
+final class NacosConfigDataPrefetcher {
+
+	private final Map<String, CompletableFuture<String>> fetches = new ConcurrentHashMap<>();
+
+	/**
+	 * Configs already taken by the loader, not prefetched again when Spring Boot
+	 * resolves their location once more.
+	 */
+	private final Set<String> taken = ConcurrentHashMap.newKeySet();
+
+	private final ThreadPoolExecutor executor;
+
+	NacosConfigDataPrefetcher(int parallelism) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"nacos-config-prefetch-");
+		threadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(parallelism, parallelism, 10,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Start fetching a config, unless it is already fetched or taken.
+	 */
+	void prefetch(ConfigService configService, String group, String dataId,
+			long timeout) {
+		String key = key(group, dataId);
+		if (taken.contains(key)) {
+			return;
+		}
+		fetches.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+			try {
+				return configService.getConfig(dataId, group, timeout);
+			}
+			catch (NacosException e) {
+				throw new CompletionException(e);
+			}
+		}, executor));
+	}
+
+	/**
+	 * @return the prefetched config, null if it was not prefetched
+	 */
+	CompletableFuture<String> take(String group, String dataId) {
+		String key = key(group, dataId);
+		taken.add(key);
+		return fetches.remove(key);
+	}
+
+	/**
+	 * Wait for a prefetched config.
+	 * @throws NacosException if the fetch failed
+	 */
+	static String await(CompletableFuture<String> fetch) throws NacosException {
+		try {
+			return fetch.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while fetching nacos config",
+					e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof NacosException nacosException) {
+				throw nacosException;
+			}
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("fetch nacos config fail", cause);
+		}
+	}
+
+	void close() {
+		executor.shutdownNow();
+		fetches.clear();
+	}
+
+	private static String key(String group, String dataId) {
+		return dataId + "+" + group;
+	}
+
+}
@@ -16,27 +16,41 @@
 
 package com.alibaba.cloud.nacos.endpoint;
 
+import com.alibaba.cloud.commons.health.NacosServerHealthProperties;
+import com.alibaba.cloud.commons.health.NacosServerReactiveHealthIndicator;
+import com.alibaba.cloud.commons.health.NacosServerStatusMonitor;
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.refresh.NacosRefreshHistory;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
 /**
  * @author xiaojing
  */
+@Configuration(proxyBeanMethods = false)
 @ConditionalOnWebApplication
 @ConditionalOnClass(Endpoint.class)
 @ConditionalOnProperty(name = "spring.cloud.nacos.config.enabled", matchIfMissing = true)
 public class NacosConfigEndpointAutoConfiguration {
 
+	/**
+	 * Prefix of the health settings, see {@link NacosServerHealthProperties}.
+	 */
+	static final String HEALTH_PREFIX = "spring.cloud.nacos.config.health";
+
 	@Autowired
 	private NacosConfigManager nacosConfigManager;
 
@@ -52,10 +66,54 @@ public class NacosConfigEndpointAutoConfiguration {
 	}
 
 	@Bean
-	@ConditionalOnMissingBean
+	@ConditionalOnMissingBean(value = NacosConfigHealthIndicator.class,
+			name = "nacosConfigHealthIndicator")
+	@ConditionalOnEnabledHealthIndicator("nacos-config")
+	public NacosConfigHealthIndicator nacosConfigHealthIndicator(
+			@Qualifier("nacosConfigServerStatusMonitor")
+			ObjectProvider<NacosServerStatusMonitor> monitorProvider) {
+		NacosServerStatusMonitor monitor = monitorProvider.getIfAvailable();
+		return monitor != null ? new NacosConfigHealthIndicator(monitor)
+				: new NacosConfigHealthIndicator(nacosConfigManager.getConfigService());
+	}
+
+	/**
+	 * Health computed in the background, see {@link NacosServerStatusMonitor}.
+	 */
+	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnEnabledHealthIndicator("nacos-config")
-	public NacosConfigHealthIndicator nacosConfigHealthIndicator() {
-		return new NacosConfigHealthIndicator(nacosConfigManager.getConfigService());
+	@ConditionalOnProperty(value = HEALTH_PREFIX + ".async", havingValue = "true")
+	static class NacosConfigAsyncHealthConfiguration {
+
+		@Bean
+		@ConfigurationProperties(HEALTH_PREFIX)
+		public NacosServerHealthProperties nacosConfigHealthProperties() {
+			return new NacosServerHealthProperties();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean(name = "nacosConfigServerStatusMonitor")
+		public NacosServerStatusMonitor nacosConfigServerStatusMonitor(
+				NacosConfigManager nacosConfigManager,
+				@Qualifier("nacosConfigHealthProperties")
+				NacosServerHealthProperties properties) {
+			return new NacosServerStatusMonitor("Nacos-Config-Health-Task-Scheduler",
+					() -> nacosConfigManager.getConfigService().getServerStatus(),
+					properties.getInterval(), properties.getMaxStaleness());
+		}
+
+		/**
+		 * Takes the name of the blocking indicator, so the contributor keeps its name.
+		 */
+		@Bean(name = "nacosConfigHealthIndicator")
+		@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+		@ConditionalOnClass(name = "reactor.core.publisher.Mono")
+		public ReactiveHealthIndicator nacosConfigReactiveHealthIndicator(
+				@Qualifier("nacosConfigServerStatusMonitor")
+				NacosServerStatusMonitor monitor) {
+			return new NacosServerReactiveHealthIndicator(monitor);
+		}
+
 	}
 
 }
@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.nacos.endpoint;
 
+import com.alibaba.cloud.commons.health.NacosServerStatusMonitor;
 import com.alibaba.nacos.api.config.ConfigService;
 
 import org.springframework.boot.actuate.health.AbstractHealthIndicator;
@@ -32,6 +33,8 @@ public class NacosConfigHealthIndicator extends AbstractHealthIndicator {
 
 	private final ConfigService configService;
 
+	private final NacosServerStatusMonitor monitor;
+
 	/**
 	 * status up .
 	 */
@@ -44,10 +47,26 @@ public class NacosConfigHealthIndicator extends AbstractHealthIndicator {
 
 	public NacosConfigHealthIndicator(ConfigService configService) {
 		this.configService = configService;
+		this.monitor = null;
+	}
+
+	/**
+	 * Health from the last status checked by the monitor, without calling the server.
+	 * @param monitor monitor of the server status
+	 * @since 2023.0.1.3
+	 */
+	public NacosConfigHealthIndicator(NacosServerStatusMonitor monitor) {
+		this.configService = null;
+		this.monitor = monitor;
 	}
 
 	@Override
 	protected void doHealthCheck(Health.Builder builder) throws Exception {
+		if (monitor != null) {
+			Health health = monitor.getHealth();
+			builder.status(health.getStatus()).withDetails(health.getDetails());
+			return;
+		}
 		// Just return "UP" or "DOWN"
 		String status = configService.getServerStatus();
 		// Set the status to Builder
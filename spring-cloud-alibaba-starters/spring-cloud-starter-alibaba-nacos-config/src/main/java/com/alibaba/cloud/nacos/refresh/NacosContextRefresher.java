@@ -17,6 +17,7 @@
 package com.alibaba.cloud.nacos.refresh;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,6 +38,7 @@ import org.springframework.cloud.endpoint.event.RefreshEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * On application start up, NacosContextRefresher add nacos listeners to all application
@@ -67,6 +69,8 @@ public class NacosContextRefresher
 
 	private Map<String, Listener> listenerMap = new ConcurrentHashMap<>(16);
 
+	private volatile NacosIncrementalRefresher incrementalRefresher;
+
 	public NacosContextRefresher(NacosConfigManager nacosConfigManager,
 			NacosRefreshHistory refreshHistory) {
 		this.configManager = nacosConfigManager;
@@ -121,10 +125,12 @@ public class NacosContextRefresher
 							String configInfo) {
 						refreshCountIncrement();
 						nacosRefreshHistory.addRefreshRecord(dataId, group, configInfo);
-						NacosSnapshotConfigManager.putConfigSnapshot(dataId, group,
-								configInfo);
-						applicationContext.publishEvent(
-								new RefreshEvent(this, null, "Refresh Nacos config"));
+						if (!refreshIncrementally(dataId, group, configInfo)) {
+							NacosSnapshotConfigManager.putConfigSnapshot(dataId, group,
+									configInfo);
+							applicationContext.publishEvent(
+									new RefreshEvent(this, null, "Refresh Nacos config"));
+						}
 						if (log.isDebugEnabled()) {
 							log.debug(String.format(
 									"Refresh Nacos config group=%s,dataId=%s,configInfo=%s",
@@ -147,6 +153,29 @@ public class NacosContextRefresher
 		}
 	}
 
+	/**
+	 * Refresh the keys changed in the config only, if enabled, see
+	 * {@link NacosIncrementalRefresher}.
+	 * @return whether the change was applied
+	 */
+	private boolean refreshIncrementally(String dataId, String group,
+			String configInfo) {
+		if (nacosConfigProperties == null || !nacosConfigProperties.isIncrementalRefresh()
+				|| !(applicationContext instanceof ConfigurableApplicationContext context)) {
+			return false;
+		}
+		if (incrementalRefresher == null) {
+			incrementalRefresher = new NacosIncrementalRefresher(context);
+		}
+		Set<String> keys = incrementalRefresher.refresh(dataId, group, configInfo);
+		if (keys == null) {
+			return false;
+		}
+		log.info("[Nacos Config] Refreshed keys {} of dataId={}, group={}", keys, dataId,
+				group);
+		return true;
+	}
+
 	public NacosConfigProperties getNacosConfigProperties() {
 		return nacosConfigProperties;
 	}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Applies the change of a nacos config to the property source of that config only:
+ * the new content is parsed, diffed against the current property source key by key,
+ * the property source is replaced at the same position, and an
+ * {@link EnvironmentChangeEvent} carrying the changed keys is published, followed by a
+ * refresh of the {@link RefreshScope}. Nothing is fetched from the server and the other
+ * property sources are left untouched.
+ * <p>
+ * Applies to the property sources of the bootstrap locator and of
+ * {@code spring.config.import}. A change that cannot be mapped to a single property
+ * source, such as a config without file extension, whose format is then unknown, or a
+ * multi-document config imported with {@code spring.config.import}, is not applied,
+ * for the caller to refresh the whole environment.
+ *
+ * @since 2023.0.1.3
+ */
+final class NacosIncrementalRefresher {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosIncrementalRefresher.class);
+
+	private final ConfigurableApplicationContext applicationContext;
+
+	NacosIncrementalRefresher(ConfigurableApplicationContext applicationContext) {
+		this.applicationContext = applicationContext;
+	}
+
+	/**
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param configInfo new content of the config
+	 * @return the changed keys, null if the change was not applied
+	 */
+	Set<String> refresh(String dataId, String group, String configInfo) {
+		int dot = dataId.lastIndexOf('.');
+		if (dot <= 0 || dot == dataId.length() - 1) {
+			return null;
+		}
+		Set<String> keys;
+		try {
+			keys = apply(dataId, group, configInfo, dataId.substring(dot + 1));
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("[Nacos Config] Failed to apply the change of dataId={}, group={}",
+					dataId, group, e);
+			return null;
+		}
+		if (keys != null && !keys.isEmpty()) {
+			applicationContext
+					.publishEvent(new EnvironmentChangeEvent(applicationContext, keys));
+			applicationContext.getBeanProvider(RefreshScope.class)
+					.ifAvailable(RefreshScope::refreshAll);
+		}
+		return keys;
+	}
+
+	private synchronized Set<String> apply(String dataId, String group,
+			String configInfo, String fileExtension) throws IOException {
+		MutablePropertySources propertySources = applicationContext.getEnvironment()
+				.getPropertySources();
+		String configDataName = group + "@" + dataId;
+		List<PropertySource<?>> matches = new ArrayList<>(1);
+		for (PropertySource<?> propertySource : propertySources) {
+			if (isSourceOf(propertySource, dataId, group, configDataName)) {
+				matches.add(propertySource);
+			}
+		}
+		if (matches.size() != 1) {
+			return null;
+		}
+		PropertySource<?> current = matches.get(0);
+		PropertySource<?> updated;
+		if (current instanceof BootstrapPropertySource<?> bootstrapPropertySource) {
+			// Parsed like NacosPropertySourceBuilder does.
+			List<PropertySource<?>> parsed = NacosDataParserHandler.getInstance()
+					.parseNacosData(dataId, configInfo, fileExtension);
+			NacosPropertySource previous = (NacosPropertySource) bootstrapPropertySource
+					.getDelegate();
+			updated = new BootstrapPropertySource<>(new NacosPropertySource(parsed,
+					group, dataId, new Date(), previous.isRefreshable()));
+		}
+		else {
+			// Parsed like NacosConfigDataLoader does.
+			List<PropertySource<?>> parsed = NacosDataParserHandler.getInstance()
+					.parseNacosData(configDataName, configInfo, fileExtension);
+			if (parsed.size() != 1 || !configDataName.equals(parsed.get(0).getName())
+					|| !(parsed.get(0) instanceof EnumerablePropertySource)) {
+				return null;
+			}
+			updated = parsed.get(0);
+		}
+		Set<String> keys = getChangedKeys((EnumerablePropertySource<?>) current,
+				(EnumerablePropertySource<?>) updated);
+		propertySources.replace(current.getName(), updated);
+		return keys;
+	}
+
+	private static boolean isSourceOf(PropertySource<?> propertySource, String dataId,
+			String group, String configDataName) {
+		if (propertySource instanceof BootstrapPropertySource<?> bootstrapPropertySource) {
+			return bootstrapPropertySource
+					.getDelegate() instanceof NacosPropertySource nacosPropertySource
+					&& dataId.equals(nacosPropertySource.getDataId())
+					&& group.equals(nacosPropertySource.getGroup());
+		}
+		// Documents of a multi-document config are named "<name> (document #<n>)".
+		return propertySource instanceof EnumerablePropertySource
+				&& (configDataName.equals(propertySource.getName()) || propertySource
+						.getName().startsWith(configDataName + " (document #"));
+	}
+
+	static Set<String> getChangedKeys(EnumerablePropertySource<?> previous,
+			EnumerablePropertySource<?> current) {
+		Set<String> names = new LinkedHashSet<>();
+		Collections.addAll(names, previous.getPropertyNames());
+		Collections.addAll(names, current.getPropertyNames());
+		Set<String> keys = new LinkedHashSet<>();
+		for (String name : names) {
+			if (!Objects.equals(previous.getProperty(name), current.getProperty(name))) {
+				keys.add(name);
+			}
+		}
+		return keys;
+	}
+
+}
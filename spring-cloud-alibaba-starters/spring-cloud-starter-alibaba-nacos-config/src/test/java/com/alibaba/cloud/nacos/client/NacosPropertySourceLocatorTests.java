@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.nacos.api.config.ConfigService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosPropertySourceLocator}.
+ */
+public class NacosPropertySourceLocatorTests {
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	/**
+	 * Each fetch counts down then waits for the others, up to a timeout, so that fetches
+	 * running together are all in flight at the same time.
+	 */
+	private volatile CountDownLatch fetchesStarted = new CountDownLatch(0);
+
+	private final ConfigService configService = mock(ConfigService.class);
+
+	private final NacosConfigProperties properties = new NacosConfigProperties();
+
+	private final MockEnvironment environment = new MockEnvironment()
+			.withProperty("spring.application.name", "app");
+
+	private NacosPropertySourceLocator locator;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		List<NacosConfigProperties.Config> sharedConfigs = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			sharedConfigs.add(new NacosConfigProperties.Config("shared-" + i));
+		}
+		properties.setSharedConfigs(sharedConfigs);
+		properties.setExtensionConfigs(
+				List.of(new NacosConfigProperties.Config("ext.properties")));
+		environment.setActiveProfiles("dev");
+
+		when(configService.getConfig(anyString(), eq("DEFAULT_GROUP"), anyLong()))
+				.thenAnswer(invocation -> {
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					try {
+						CountDownLatch started = fetchesStarted;
+						started.countDown();
+						started.await(5, TimeUnit.SECONDS);
+						return "key=" + invocation.getArgument(0);
+					}
+					finally {
+						inFlight.decrementAndGet();
+					}
+				});
+		NacosConfigManager nacosConfigManager = mock(NacosConfigManager.class);
+		when(nacosConfigManager.getConfigService()).thenReturn(configService);
+		when(nacosConfigManager.getNacosConfigProperties()).thenReturn(properties);
+		locator = new NacosPropertySourceLocator(nacosConfigManager);
+	}
+
+	@Test
+	public void testConfigsAreFetchedConcurrentlyInPrecedenceOrder() {
+		properties.setFetchParallelism(8);
+		fetchesStarted = new CountDownLatch(8);
+
+		CompositePropertySource composite = (CompositePropertySource) locator
+				.locate(environment);
+
+		assertThat(composite.getPropertySources()).extracting(PropertySource::getName)
+				.containsExactly("app-dev.properties,DEFAULT_GROUP",
+						"app.properties,DEFAULT_GROUP", "app,DEFAULT_GROUP",
+						"ext.properties,DEFAULT_GROUP", "shared-3,DEFAULT_GROUP",
+						"shared-2,DEFAULT_GROUP", "shared-1,DEFAULT_GROUP",
+						"shared-0,DEFAULT_GROUP");
+		assertThat(composite.getProperty("key")).isEqualTo("app-dev.properties");
+		assertThat(locator.getLastLocateConfigs()).isEqualTo(8);
+		// Every fetch waited for the others, so all of them were in flight at once.
+		assertThat(fetchesStarted.getCount()).isZero();
+		assertThat(maxInFlight.get()).isEqualTo(8);
+	}
+
+	@Test
+	public void testSequentialFetch() {
+		properties.setFetchParallelism(1);
+
+		CompositePropertySource composite = (CompositePropertySource) locator
+				.locate(environment);
+
+		assertThat(composite.getPropertySources()).hasSize(8);
+		assertThat(composite.getProperty("key")).isEqualTo("app-dev.properties");
+		assertThat(maxInFlight.get()).isEqualTo(1);
+	}
+
+}
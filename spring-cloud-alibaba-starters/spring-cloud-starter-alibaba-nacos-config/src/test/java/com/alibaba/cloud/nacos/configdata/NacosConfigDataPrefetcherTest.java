@@ -0,0 +1,202 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.configdata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.exception.NacosException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.BootstrapRegistry.InstanceSupplier;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.config.ConfigDataLoaderContext;
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+import org.springframework.boot.context.config.ConfigDataResourceNotFoundException;
+import org.springframework.boot.context.config.Profiles;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * NacosConfigDataPrefetcher Tester.
+ */
+public class NacosConfigDataPrefetcherTest {
+
+	private final ConfigService configService = mock(ConfigService.class);
+
+	private final NacosConfigDataPrefetcher prefetcher = new NacosConfigDataPrefetcher(
+			4);
+
+	@AfterEach
+	void tearDown() {
+		prefetcher.close();
+	}
+
+	@Test
+	void testConfigsAreFetchedConcurrently() throws Exception {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		// Each fetch waits for the others, so fetches running together overlap.
+		CountDownLatch fetchesStarted = new CountDownLatch(4);
+		when(configService.getConfig(anyString(), eq("DEFAULT_GROUP"), anyLong()))
+				.thenAnswer(invocation -> {
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					try {
+						fetchesStarted.countDown();
+						fetchesStarted.await(5, TimeUnit.SECONDS);
+						return "key=" + invocation.getArgument(0);
+					}
+					finally {
+						inFlight.decrementAndGet();
+					}
+				});
+
+		for (int i = 0; i < 4; i++) {
+			prefetcher.prefetch(configService, "DEFAULT_GROUP", "app-" + i, 3000);
+		}
+		List<String> configs = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			configs.add(NacosConfigDataPrefetcher
+					.await(prefetcher.take("DEFAULT_GROUP", "app-" + i)));
+		}
+
+		assertThat(configs).containsExactly("key=app-0", "key=app-1", "key=app-2",
+				"key=app-3");
+		assertThat(maxInFlight.get()).isEqualTo(4);
+	}
+
+	@Test
+	void testFailureIsReportedWhenTaken() throws Exception {
+		when(configService.getConfig("app", "DEFAULT_GROUP", 3000))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "unavailable"));
+
+		prefetcher.prefetch(configService, "DEFAULT_GROUP", "app", 3000);
+		CompletableFuture<String> fetch = prefetcher.take("DEFAULT_GROUP", "app");
+
+		assertThatThrownBy(() -> NacosConfigDataPrefetcher.await(fetch))
+				.isInstanceOf(NacosException.class).hasMessageContaining("unavailable");
+	}
+
+	@Test
+	void testTakenConfigIsNotPrefetchedAgain() throws Exception {
+		when(configService.getConfig("app", "DEFAULT_GROUP", 3000)).thenReturn("a=1");
+
+		prefetcher.prefetch(configService, "DEFAULT_GROUP", "app", 3000);
+		prefetcher.prefetch(configService, "DEFAULT_GROUP", "app", 3000);
+		assertThat(NacosConfigDataPrefetcher
+				.await(prefetcher.take("DEFAULT_GROUP", "app"))).isEqualTo("a=1");
+		prefetcher.prefetch(configService, "DEFAULT_GROUP", "app", 3000);
+
+		assertThat(prefetcher.take("DEFAULT_GROUP", "app")).isNull();
+		verify(configService, times(1)).getConfig("app", "DEFAULT_GROUP", 3000);
+	}
+
+	@Test
+	void testFailedPrefetchOfOptionalImportLoadsNothing() throws Exception {
+		when(configService.getConfig(eq("optional.yml"), eq("DEFAULT_GROUP"), anyLong()))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "unavailable"));
+		DefaultBootstrapContext bootstrapContext = bootstrapContext();
+
+		NacosConfigDataResource resource = resolve(bootstrapContext,
+				"optional:nacos:optional.yml");
+
+		assertThat(bootstrapContext.isRegistered(NacosConfigDataPrefetcher.class))
+				.isTrue();
+		assertThat(load(bootstrapContext, resource)).isNull();
+		verify(configService, times(1)).getConfig(eq("optional.yml"),
+				eq("DEFAULT_GROUP"), anyLong());
+		bootstrapContext.close(new GenericApplicationContext());
+	}
+
+	@Test
+	void testFailedPrefetchOfRequiredImportFailsTheLoad() throws Exception {
+		when(configService.getConfig(eq("required.yml"), eq("DEFAULT_GROUP"), anyLong()))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "unavailable"));
+		DefaultBootstrapContext bootstrapContext = bootstrapContext();
+
+		NacosConfigDataResource resource = resolve(bootstrapContext,
+				"nacos:required.yml");
+
+		assertThat(bootstrapContext.isRegistered(NacosConfigDataPrefetcher.class))
+				.isTrue();
+		assertThatThrownBy(() -> load(bootstrapContext, resource))
+				.isInstanceOf(ConfigDataResourceNotFoundException.class)
+				.hasRootCauseInstanceOf(NacosException.class);
+		verify(configService, times(1)).getConfig(eq("required.yml"),
+				eq("DEFAULT_GROUP"), anyLong());
+		bootstrapContext.close(new GenericApplicationContext());
+	}
+
+	/**
+	 * Bootstrap context of an application importing nacos configs, with prefetch
+	 * enabled.
+	 */
+	private DefaultBootstrapContext bootstrapContext() {
+		MockEnvironment environment = new MockEnvironment();
+		environment.setProperty("spring.cloud.nacos.config.fetch-parallelism", "4");
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		when(configManager.getConfigService()).thenReturn(configService);
+		DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+		bootstrapContext.register(Binder.class,
+				InstanceSupplier.of(Binder.get(environment)));
+		bootstrapContext.register(NacosConfigManager.class,
+				InstanceSupplier.of(configManager));
+		return bootstrapContext;
+	}
+
+	private static NacosConfigDataResource resolve(
+			DefaultBootstrapContext bootstrapContext, String location) {
+		ConfigDataLocationResolverContext context = mock(
+				ConfigDataLocationResolverContext.class);
+		when(context.getBinder()).thenReturn(bootstrapContext.get(Binder.class));
+		when(context.getBootstrapContext()).thenReturn(bootstrapContext);
+		List<NacosConfigDataResource> resources = new NacosConfigDataLocationResolver(
+				new DeferredLogs()).resolveProfileSpecific(context,
+						ConfigDataLocation.of(location), mock(Profiles.class));
+		assertThat(resources).hasSize(1);
+		return resources.get(0);
+	}
+
+	private static ConfigData load(DefaultBootstrapContext bootstrapContext,
+			NacosConfigDataResource resource) {
+		ConfigDataLoaderContext context = mock(ConfigDataLoaderContext.class);
+		when(context.getBootstrapContext()).thenReturn(bootstrapContext);
+		return new NacosConfigDataLoader(new DeferredLogs()).load(context, resource);
+	}
+
+}
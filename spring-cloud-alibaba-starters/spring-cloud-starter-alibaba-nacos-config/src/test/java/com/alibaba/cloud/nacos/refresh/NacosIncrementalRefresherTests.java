@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NacosIncrementalRefresher}.
+ */
+public class NacosIncrementalRefresherTests {
+
+	private final List<Set<String>> changes = new ArrayList<>();
+
+	private GenericApplicationContext context;
+
+	private NacosIncrementalRefresher refresher;
+
+	@BeforeEach
+	public void setUp() {
+		context = new GenericApplicationContext();
+		context.addApplicationListener(
+				(ApplicationListener<EnvironmentChangeEvent>) event -> changes
+						.add(event.getKeys()));
+		context.refresh();
+		refresher = new NacosIncrementalRefresher(context);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		context.close();
+	}
+
+	@Test
+	public void testBootstrapPropertySourceIsReplaced() throws Exception {
+		MutablePropertySources propertySources = context.getEnvironment()
+				.getPropertySources();
+		propertySources.addFirst(new BootstrapPropertySource<>(new NacosPropertySource(
+				parse("app.properties", "a=1\nb=2\nc=3"), "DEFAULT_GROUP",
+				"app.properties", new Date(), true)));
+		propertySources.addLast(new BootstrapPropertySource<>(
+				new NacosPropertySource(parse("other.properties", "a=0\nd=4"),
+						"DEFAULT_GROUP", "other.properties", new Date(), true)));
+
+		Set<String> keys = refresher.refresh("app.properties", "DEFAULT_GROUP",
+				"a=1\nb=20\nd=5");
+
+		assertThat(keys).containsExactlyInAnyOrder("b", "c", "d");
+		assertThat(changes).containsExactly(keys);
+		assertThat(context.getEnvironment().getProperty("b")).isEqualTo("20");
+		assertThat(context.getEnvironment().getProperty("c")).isNull();
+		assertThat(context.getEnvironment().getProperty("d")).isEqualTo("5");
+		// Same position.
+		assertThat(propertySources.iterator().next().getName())
+				.isEqualTo("bootstrapProperties-app.properties,DEFAULT_GROUP");
+	}
+
+	@Test
+	public void testConfigDataPropertySourceIsReplaced() throws Exception {
+		context.getEnvironment().getPropertySources().addFirst(
+				parse("DEFAULT_GROUP@app.yaml", "a: 1\nb:\n  c: 2").get(0));
+
+		Set<String> keys = refresher.refresh("app.yaml", "DEFAULT_GROUP",
+				"a: 1\nb:\n  c: 3");
+
+		assertThat(keys).containsExactly("b.c");
+		assertThat(context.getEnvironment().getProperty("b.c")).isEqualTo("3");
+	}
+
+	@Test
+	public void testUnchangedContentPublishesNothing() throws Exception {
+		context.getEnvironment().getPropertySources().addFirst(
+				parse("DEFAULT_GROUP@app.properties", "a=1").get(0));
+
+		assertThat(refresher.refresh("app.properties", "DEFAULT_GROUP", "a=1"))
+				.isEmpty();
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	public void testUnmappedChangesAreNotApplied() throws Exception {
+		MutablePropertySources propertySources = context.getEnvironment()
+				.getPropertySources();
+		// No file extension.
+		propertySources.addFirst(parse("DEFAULT_GROUP@app", "a=1").get(0));
+		assertThat(refresher.refresh("app", "DEFAULT_GROUP", "a=2")).isNull();
+		// Unknown config.
+		assertThat(refresher.refresh("unknown.properties", "DEFAULT_GROUP", "a=2"))
+				.isNull();
+		// Multi-document config.
+		for (PropertySource<?> propertySource : parse("DEFAULT_GROUP@multi.yaml",
+				"a: 1\n---\nb: 2")) {
+			propertySources.addLast(propertySource);
+		}
+		assertThat(refresher.refresh("multi.yaml", "DEFAULT_GROUP", "a: 2\n---\nb: 2"))
+				.isNull();
+		assertThat(changes).isEmpty();
+	}
+
+	private static List<PropertySource<?>> parse(String name, String content)
+			throws Exception {
+		String extension = name.contains(".") ? name.substring(name.lastIndexOf('.') + 1)
+				: "properties";
+		return NacosDataParserHandler.getInstance().parseNacosData(name, content,
+				extension);
+	}
+
+}
@@ -223,12 +223,56 @@ public class NacosDiscoveryProperties {
 	 */
 	private boolean failureToleranceEnabled;
 
+	/**
+	 * File the failure tolerance cache is persisted to, so that it survives restarts.
+	 * Defaults to a file named after the service under the Nacos naming cache
+	 * directory.
+	 */
+	private String failureToleranceCacheFile;
+
+	/**
+	 * Number of service names fetched per request when listing services, a value of 0
+	 * or less, the default, fetches them all in one request.
+	 */
+	private int servicesPageSize;
+
+	/**
+	 * Only list the services whose name starts with this prefix.
+	 */
+	private String servicesPrefix;
+
+	/**
+	 * Milliseconds the list of services is cached for, 0 disables the cache.
+	 */
+	private long servicesCacheTtl;
+
 	/**
 	 * Throw exceptions during service registration if true, otherwise, log error
 	 * (defaults to true).
 	 */
 	private boolean failFast = true;
 
+	/**
+	 * Register on a background thread, retrying with an exponential back-off until the
+	 * registration succeeds, so that startup does not wait for Nacos.
+	 */
+	private boolean registerAsync = false;
+
+	/**
+	 * Milliseconds before the first retry of an asynchronous registration.
+	 */
+	private long registerRetryInitialInterval = 1000;
+
+	/**
+	 * Maximum milliseconds between two retries of an asynchronous registration.
+	 */
+	private long registerRetryMaxInterval = 60000;
+
+	/**
+	 * Factor the interval between two retries of an asynchronous registration grows by.
+	 */
+	private double registerRetryMultiplier = 2;
+
 	@Autowired
 	private InetIPv6Utils inetIPv6Utils;
 
@@ -550,6 +594,38 @@ public class NacosDiscoveryProperties {
 		this.failureToleranceEnabled = failureToleranceEnabled;
 	}
 
+	public String getFailureToleranceCacheFile() {
+		return failureToleranceCacheFile;
+	}
+
+	public void setFailureToleranceCacheFile(String failureToleranceCacheFile) {
+		this.failureToleranceCacheFile = failureToleranceCacheFile;
+	}
+
+	public int getServicesPageSize() {
+		return servicesPageSize;
+	}
+
+	public void setServicesPageSize(int servicesPageSize) {
+		this.servicesPageSize = servicesPageSize;
+	}
+
+	public String getServicesPrefix() {
+		return servicesPrefix;
+	}
+
+	public void setServicesPrefix(String servicesPrefix) {
+		this.servicesPrefix = servicesPrefix;
+	}
+
+	public long getServicesCacheTtl() {
+		return servicesCacheTtl;
+	}
+
+	public void setServicesCacheTtl(long servicesCacheTtl) {
+		this.servicesCacheTtl = servicesCacheTtl;
+	}
+
 	public boolean isFailFast() {
 		return failFast;
 	}
@@ -558,6 +634,38 @@ public class NacosDiscoveryProperties {
 		this.failFast = failFast;
 	}
 
+	public boolean isRegisterAsync() {
+		return registerAsync;
+	}
+
+	public void setRegisterAsync(boolean registerAsync) {
+		this.registerAsync = registerAsync;
+	}
+
+	public long getRegisterRetryInitialInterval() {
+		return registerRetryInitialInterval;
+	}
+
+	public void setRegisterRetryInitialInterval(long registerRetryInitialInterval) {
+		this.registerRetryInitialInterval = registerRetryInitialInterval;
+	}
+
+	public long getRegisterRetryMaxInterval() {
+		return registerRetryMaxInterval;
+	}
+
+	public void setRegisterRetryMaxInterval(long registerRetryMaxInterval) {
+		this.registerRetryMaxInterval = registerRetryMaxInterval;
+	}
+
+	public double getRegisterRetryMultiplier() {
+		return registerRetryMultiplier;
+	}
+
+	public void setRegisterRetryMultiplier(double registerRetryMultiplier) {
+		this.registerRetryMultiplier = registerRetryMultiplier;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -572,6 +680,10 @@ public class NacosDiscoveryProperties {
 				&& secure == that.secure && instanceEnabled == that.instanceEnabled
 				&& ephemeral == that.ephemeral
 				&& failureToleranceEnabled == that.failureToleranceEnabled
+				&& Objects.equals(failureToleranceCacheFile, that.failureToleranceCacheFile)
+				&& servicesPageSize == that.servicesPageSize
+				&& Objects.equals(servicesPrefix, that.servicesPrefix)
+				&& servicesCacheTtl == that.servicesCacheTtl
 				&& Objects.equals(serverAddr, that.serverAddr)
 				&& Objects.equals(username, that.username)
 				&& Objects.equals(password, that.password)
@@ -589,6 +701,11 @@ public class NacosDiscoveryProperties {
 				&& Objects.equals(heartBeatInterval, that.heartBeatInterval)
 				&& Objects.equals(heartBeatTimeout, that.heartBeatTimeout)
 				&& Objects.equals(failFast, that.failFast)
+				&& registerAsync == that.registerAsync
+				&& registerRetryInitialInterval == that.registerRetryInitialInterval
+				&& registerRetryMaxInterval == that.registerRetryMaxInterval
+				&& Double.compare(registerRetryMultiplier,
+						that.registerRetryMultiplier) == 0
 				&& Objects.equals(ipDeleteTimeout, that.ipDeleteTimeout);
 	}
 
@@ -599,7 +716,9 @@ public class NacosDiscoveryProperties {
 				namingLoadCacheAtStart, metadata, registerEnabled, ip, networkInterface,
 				port, secure, accessKey, secretKey, heartBeatInterval, heartBeatTimeout,
 				ipDeleteTimeout, instanceEnabled, ephemeral, failureToleranceEnabled,
-				failFast);
+				failureToleranceCacheFile, servicesPageSize, servicesPrefix,
+				servicesCacheTtl, failFast, registerAsync, registerRetryInitialInterval,
+				registerRetryMaxInterval, registerRetryMultiplier);
 	}
 
 	@Override
@@ -619,7 +738,14 @@ public class NacosDiscoveryProperties {
 				+ ", ipDeleteTimeout=" + ipDeleteTimeout + ", instanceEnabled="
 				+ instanceEnabled + ", ephemeral=" + ephemeral
 				+ ", failureToleranceEnabled=" + failureToleranceEnabled + '}'
-				+ ", ipDeleteTimeout=" + ipDeleteTimeout + ", failFast=" + failFast + '}';
+				+ ", failureToleranceCacheFile='" + failureToleranceCacheFile + '\''
+				+ ", servicesPageSize=" + servicesPageSize + ", servicesPrefix='"
+				+ servicesPrefix + '\'' + ", servicesCacheTtl=" + servicesCacheTtl
+				+ ", ipDeleteTimeout=" + ipDeleteTimeout + ", failFast=" + failFast
+				+ ", registerAsync=" + registerAsync + ", registerRetryInitialInterval="
+				+ registerRetryInitialInterval + ", registerRetryMaxInterval="
+				+ registerRetryMaxInterval + ", registerRetryMultiplier="
+				+ registerRetryMultiplier + '}';
 	}
 
 	public void overrideFromEnv(Environment env) {
@@ -16,12 +16,9 @@
 
 package com.alibaba.cloud.nacos.balancer;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosServiceInstance;
@@ -37,7 +34,14 @@ import org.springframework.cloud.client.ServiceInstance;
  */
 public class NacosBalancer extends Balancer {
 
-	private static final String IPV4_REGEX = "((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})(.((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})){3}";
+	private static final Pattern IPV4_PATTERN = Pattern.compile(
+			"((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})(.((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})){3}");
+
+	private static final String WEIGHT_KEY = "nacos.weight";
+
+	private static final String HEALTHY_KEY = "nacos.healthy";
+
+	private static final double DEFAULT_WEIGHT = 1.0D;
 
 	private static final String IPV6_KEY = "IPv6";
 
@@ -57,41 +61,86 @@ public class NacosBalancer extends Balancer {
 	 */
 	public static ServiceInstance getHostByRandomWeight3(
 			List<ServiceInstance> serviceInstances) {
-		Map<Instance, ServiceInstance> instanceMap = new HashMap<>();
-		List<Instance> nacosInstance = serviceInstances.stream().map(serviceInstance -> {
-			Map<String, String> metadata = serviceInstance.getMetadata();
-
-			// see
-			// com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery.hostToServiceInstance()
-			Instance instance = new Instance();
-			instance.setIp(serviceInstance.getHost());
-			instance.setPort(serviceInstance.getPort());
-			instance.setWeight(Double.parseDouble(metadata.get("nacos.weight")));
-			instance.setHealthy(Boolean.parseBoolean(metadata.get("nacos.healthy")));
-			instanceMap.put(instance, serviceInstance);
-			return instance;
-		}).collect(Collectors.toList());
-
-		Instance instance = getHostByRandomWeight2(nacosInstance);
-		NacosServiceInstance nacosServiceInstance = (NacosServiceInstance) instanceMap.get(instance);
-		// When local support IPv6 address stack, referred to use IPv6 address.
-		if (StringUtils.isNotEmpty(NacosLoadBalancer.ipv6)) {
-			convertIPv4ToIPv6(nacosServiceInstance);
+		// Lists prepared by NacosLoadBalancer already carry the parsed weights.
+		return preferIPv6(WeightedServiceInstanceList.of(serviceInstances)
+				.chooseByRandomWeight());
+	}
+
+	/**
+	 * When local support IPv6 address stack, referred to use IPv6 address of the chosen
+	 * instance. The chosen instance is shared with the other callers of the discovery
+	 * client and is never modified.
+	 * @param serviceInstance the chosen instance, may be {@code null}
+	 * @return a copy of the instance with its IPv6 address as host, or the instance
+	 * itself if it has no IPv6 address to prefer
+	 */
+	public static ServiceInstance preferIPv6(ServiceInstance serviceInstance) {
+		if (StringUtils.isNotEmpty(NacosLoadBalancer.ipv6)
+				&& serviceInstance instanceof NacosServiceInstance nacosServiceInstance) {
+			return convertIPv4ToIPv6(nacosServiceInstance);
+		}
+		return serviceInstance;
+	}
+
+	/**
+	 * Weight of a service instance, read from the metadata written by
+	 * {@link com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery}. Unhealthy
+	 * instances weigh 0, instances without weight metadata weigh 1.
+	 * @param serviceInstance service instance
+	 * @return weight of the instance
+	 */
+	public static double getWeight(ServiceInstance serviceInstance) {
+		Map<String, String> metadata = serviceInstance.getMetadata();
+		if (metadata == null) {
+			return DEFAULT_WEIGHT;
+		}
+		if ("false".equals(metadata.get(HEALTHY_KEY))) {
+			return 0;
+		}
+		String weight = metadata.get(WEIGHT_KEY);
+		if (StringUtils.isEmpty(weight)) {
+			return DEFAULT_WEIGHT;
+		}
+		try {
+			return Double.parseDouble(weight);
+		}
+		catch (NumberFormatException e) {
+			return DEFAULT_WEIGHT;
+		}
+	}
+
+	/**
+	 * Key identifying an instance across instance list refreshes.
+	 * @param serviceInstance service instance
+	 * @return the instance id, or {@code host:port} if the instance has no id
+	 */
+	public static String getInstanceKey(ServiceInstance serviceInstance) {
+		String instanceId = serviceInstance.getInstanceId();
+		if (instanceId != null) {
+			return instanceId;
 		}
-		return nacosServiceInstance;
+		return serviceInstance.getHost() + ":" + serviceInstance.getPort();
 	}
 
 	/**
 	 * There is two type Ip,using IPv6 should use IPv6 in metadata to replace IPv4 in IP
 	 * field.
 	 */
-	private static void convertIPv4ToIPv6(NacosServiceInstance instance) {
-		if (Pattern.matches(IPV4_REGEX, instance.getHost())) {
+	private static ServiceInstance convertIPv4ToIPv6(NacosServiceInstance instance) {
+		if (IPV4_PATTERN.matcher(instance.getHost()).matches()) {
 			String ip = instance.getMetadata().get(IPV6_KEY);
 			if (StringUtils.isNotEmpty(ip)) {
-				instance.setHost(ip);
+				NacosServiceInstance ipv6Instance = new NacosServiceInstance();
+				ipv6Instance.setServiceId(instance.getServiceId());
+				ipv6Instance.setInstanceId(instance.getInstanceId());
+				ipv6Instance.setHost(ip);
+				ipv6Instance.setPort(instance.getPort());
+				ipv6Instance.setSecure(instance.isSecure());
+				ipv6Instance.setMetadata(instance.getMetadata());
+				return ipv6Instance;
 			}
 		}
+		return instance;
 	}
 
 }
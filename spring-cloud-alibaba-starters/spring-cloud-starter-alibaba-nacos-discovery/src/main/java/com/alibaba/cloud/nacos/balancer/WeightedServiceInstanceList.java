@@ -0,0 +1,290 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Immutable list of service instances carrying the parsed weight of every element and
+ * a cumulative-weight array, so that a weighted random pick is a binary search that
+ * does not allocate.
+ * <p>
+ * Weights are read once from the {@code nacos.weight} metadata entry written by
+ * {@link com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery}. Unhealthy instances
+ * and instances with a non-positive weight are kept in the list but never chosen by
+ * {@link #chooseByRandomWeight()}, same as {@link NacosBalancer}.
+ *
+ * @since 2023.0.1.3
+ */
+public final class WeightedServiceInstanceList extends AbstractList<ServiceInstance>
+		implements RandomAccess {
+
+	private static final WeightedServiceInstanceList EMPTY = new WeightedServiceInstanceList(
+			new ServiceInstance[0], new double[0]);
+
+	private final ServiceInstance[] instances;
+
+	private final double[] weights;
+
+	private final double[] cumulativeWeights;
+
+	private final double totalWeight;
+
+	private WeightedServiceInstanceList(ServiceInstance[] instances, double[] weights) {
+		this.instances = instances;
+		this.weights = weights;
+		this.cumulativeWeights = new double[weights.length];
+		double sum = 0;
+		for (int i = 0; i < weights.length; i++) {
+			sum += weights[i];
+			this.cumulativeWeights[i] = sum;
+		}
+		this.totalWeight = sum;
+	}
+
+	/**
+	 * Wrap the given instances, parsing the weight of each one. Returns the argument
+	 * itself when it already is a {@link WeightedServiceInstanceList}.
+	 * @param serviceInstances instance list
+	 * @return weighted view of the instances
+	 */
+	public static WeightedServiceInstanceList of(List<ServiceInstance> serviceInstances) {
+		if (serviceInstances instanceof WeightedServiceInstanceList weighted) {
+			return weighted;
+		}
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return EMPTY;
+		}
+		int size = serviceInstances.size();
+		ServiceInstance[] instances = new ServiceInstance[size];
+		double[] weights = new double[size];
+		for (int i = 0; i < size; i++) {
+			ServiceInstance instance = serviceInstances.get(i);
+			instances[i] = instance;
+			weights[i] = NacosBalancer.getWeight(instance);
+		}
+		return new WeightedServiceInstanceList(instances, weights);
+	}
+
+	/**
+	 * Create a list from instances whose weights are already known.
+	 * @param instances instances
+	 * @param weights weight of each instance, same length as {@code instances}
+	 * @return weighted list
+	 */
+	public static WeightedServiceInstanceList of(ServiceInstance[] instances,
+			double[] weights) {
+		if (instances.length != weights.length) {
+			throw new IllegalArgumentException(
+					"instances and weights must have the same length");
+		}
+		if (instances.length == 0) {
+			return EMPTY;
+		}
+		return new WeightedServiceInstanceList(instances.clone(), weights.clone());
+	}
+
+	/**
+	 * Keep only the instances matching the predicate, reusing the parsed weights.
+	 * @param predicate instance predicate
+	 * @return this list if every instance matches, otherwise a new list
+	 */
+	public WeightedServiceInstanceList filter(Predicate<ServiceInstance> predicate) {
+		int size = instances.length;
+		ServiceInstance[] matched = new ServiceInstance[size];
+		double[] matchedWeights = new double[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (predicate.test(instances[i])) {
+				matched[count] = instances[i];
+				matchedWeights[count] = weights[i];
+				count++;
+			}
+		}
+		if (count == size) {
+			return this;
+		}
+		if (count == 0) {
+			return EMPTY;
+		}
+		return new WeightedServiceInstanceList(Arrays.copyOf(matched, count),
+				Arrays.copyOf(matchedWeights, count));
+	}
+
+	/**
+	 * Keep only the instances at the given positions, reusing the parsed weights.
+	 * @param indexes positions of the instances to keep
+	 * @return this list if every instance is kept, otherwise a new list
+	 */
+	public WeightedServiceInstanceList select(BitSet indexes) {
+		int count = indexes.cardinality();
+		if (count == instances.length && indexes.nextClearBit(0) >= instances.length) {
+			return this;
+		}
+		if (count == 0) {
+			return EMPTY;
+		}
+		ServiceInstance[] selected = new ServiceInstance[count];
+		double[] selectedWeights = new double[count];
+		int j = 0;
+		for (int i = indexes.nextSetBit(0); i >= 0 && i < instances.length
+				&& j < count; i = indexes.nextSetBit(i + 1)) {
+			selected[j] = instances[i];
+			selectedWeights[j] = weights[i];
+			j++;
+		}
+		if (j < count) {
+			selected = Arrays.copyOf(selected, j);
+			selectedWeights = Arrays.copyOf(selectedWeights, j);
+		}
+		return new WeightedServiceInstanceList(selected, selectedWeights);
+	}
+
+	/**
+	 * Weigh the given instances like this list does, e.g. the plain list returned by a
+	 * filter given this list, so that weights adjusted by the caller of
+	 * {@link #of(ServiceInstance[], double[])} are kept.
+	 * @param serviceInstances instances, usually taken from this list
+	 * @return weighted list of the given instances, in the same order; instances that
+	 * are not in this list get the weight read from their metadata
+	 */
+	public WeightedServiceInstanceList weigh(List<ServiceInstance> serviceInstances) {
+		if (serviceInstances == this) {
+			return this;
+		}
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return EMPTY;
+		}
+		Map<ServiceInstance, Integer> indexes = new IdentityHashMap<>(instances.length);
+		for (int i = 0; i < instances.length; i++) {
+			indexes.put(instances[i], i);
+		}
+		int size = serviceInstances.size();
+		ServiceInstance[] weighed = new ServiceInstance[size];
+		double[] weighedWeights = new double[size];
+		for (int i = 0; i < size; i++) {
+			ServiceInstance instance = serviceInstances.get(i);
+			Integer index = indexes.get(instance);
+			weighed[i] = instance;
+			weighedWeights[i] = index == null ? NacosBalancer.getWeight(instance)
+					: weights[index];
+		}
+		return new WeightedServiceInstanceList(weighed, weighedWeights);
+	}
+
+	/**
+	 * Whether two lists hold equal instances, in the same order and with the same
+	 * weights, so that state built from one of them can be reused for the other. Equal
+	 * instances may still be weighed differently, e.g. by the warm-up; plain lists are
+	 * weighed from the metadata of their instances.
+	 * @param left an instance list
+	 * @param right another instance list
+	 * @return true if the lists are interchangeable for a load balancer
+	 */
+	public static boolean isSame(List<ServiceInstance> left,
+			List<ServiceInstance> right) {
+		if (left == right) {
+			return true;
+		}
+		int size = left.size();
+		if (right.size() != size) {
+			return false;
+		}
+		// Equal instances have equal metadata, so plain lists have equal weights.
+		boolean weighted = left instanceof WeightedServiceInstanceList
+				|| right instanceof WeightedServiceInstanceList;
+		for (int i = 0; i < size; i++) {
+			if (!left.get(i).equals(right.get(i)) || weighted
+					&& Double.compare(weightOf(left, i), weightOf(right, i)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static double weightOf(List<ServiceInstance> serviceInstances, int index) {
+		return serviceInstances instanceof WeightedServiceInstanceList weighted
+				? weighted.weights[index]
+				: NacosBalancer.getWeight(serviceInstances.get(index));
+	}
+
+	/**
+	 * Choose an instance at random, with a probability proportional to its weight. When
+	 * no instance has a positive weight, one is chosen uniformly.
+	 * @return the chosen instance, or {@code null} if the list is empty
+	 */
+	public ServiceInstance chooseByRandomWeight() {
+		int size = instances.length;
+		if (size == 0) {
+			return null;
+		}
+		if (size == 1) {
+			return instances[0];
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (totalWeight <= 0) {
+			return instances[random.nextInt(size)];
+		}
+		return instances[indexOfWeight(random.nextDouble(totalWeight))];
+	}
+
+	/**
+	 * Index of the instance owning the given point of the cumulative weight range.
+	 * @param point a value in {@code [0, totalWeight)}
+	 * @return instance index
+	 */
+	public int indexOfWeight(double point) {
+		int index = Arrays.binarySearch(cumulativeWeights, point);
+		// An exact hit on a boundary belongs to the next instance; a miss returns
+		// (-(insertion point) - 1).
+		index = index >= 0 ? index + 1 : -index - 1;
+		// Skip zero-weight instances sharing the same boundary.
+		while (index < weights.length - 1 && weights[index] <= 0) {
+			index++;
+		}
+		return Math.min(index, instances.length - 1);
+	}
+
+	public double getWeight(int index) {
+		return weights[index];
+	}
+
+	public double getTotalWeight() {
+		return totalWeight;
+	}
+
+	@Override
+	public ServiceInstance get(int index) {
+		return instances[index];
+	}
+
+	@Override
+	public int size() {
+		return instances.length;
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares the metadata strings repeated across instances, such as versions, zones,
+ * weights and registration sources, so instances hold references to a single copy.
+ * <p>
+ * Values are pooled per key. A key whose values turn out to be mostly distinct, such as
+ * an address or an id, stops being pooled once it reaches {@link #MAX_VALUES_PER_KEY}
+ * values, so the pools stay small whatever the metadata looks like.
+ *
+ * @since 2023.0.1.3
+ */
+final class MetadataInterner {
+
+	/**
+	 * Maximum number of pooled keys.
+	 */
+	static final int MAX_KEYS = 256;
+
+	/**
+	 * Maximum number of pooled values of a key.
+	 */
+	static final int MAX_VALUES_PER_KEY = 64;
+
+	private final Map<String, ValuePool> pools = new ConcurrentHashMap<>();
+
+	/**
+	 * @param key metadata key
+	 * @return the pooled copy of the key, or the key itself
+	 */
+	String key(String key) {
+		if (key == null) {
+			return null;
+		}
+		ValuePool pool = getPool(key);
+		return pool == null ? key : pool.key;
+	}
+
+	/**
+	 * @param key metadata key
+	 * @param value metadata value
+	 * @return the pooled copy of the value, or the value itself
+	 */
+	String value(String key, String value) {
+		if (key == null || value == null) {
+			return value;
+		}
+		ValuePool pool = getPool(key);
+		return pool == null ? value : pool.intern(value);
+	}
+
+	private ValuePool getPool(String key) {
+		ValuePool pool = pools.get(key);
+		if (pool == null && pools.size() < MAX_KEYS) {
+			pool = pools.computeIfAbsent(key, ValuePool::new);
+		}
+		return pool;
+	}
+
+	private static final class ValuePool {
+
+		private final String key;
+
+		private final Map<String, String> values = new ConcurrentHashMap<>();
+
+		private volatile boolean saturated;
+
+		ValuePool(String key) {
+			this.key = key;
+		}
+
+		String intern(String value) {
+			String pooled = values.get(value);
+			if (pooled != null) {
+				return pooled;
+			}
+			if (saturated) {
+				return value;
+			}
+			if (values.size() >= MAX_VALUES_PER_KEY) {
+				// Mostly distinct values, pooling them would not save anything.
+				saturated = true;
+				values.clear();
+				return value;
+			}
+			pooled = values.putIfAbsent(value, value);
+			return pooled == null ? value : pooled;
+		}
+
+	}
+
+}
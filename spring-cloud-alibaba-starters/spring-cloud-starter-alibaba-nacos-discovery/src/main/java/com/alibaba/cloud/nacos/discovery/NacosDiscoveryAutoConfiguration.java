@@ -21,6 +21,7 @@ import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.client.ConditionalOnDiscoveryEnabled;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -47,4 +48,12 @@ public class NacosDiscoveryAutoConfiguration {
 		return new NacosServiceDiscovery(discoveryProperties, nacosServiceManager);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.failure-tolerance-enabled", havingValue = "true")
+	public ServiceCachePersistence serviceCachePersistence(
+			NacosDiscoveryProperties discoveryProperties) {
+		return new ServiceCachePersistence(discoveryProperties);
+	}
+
 }
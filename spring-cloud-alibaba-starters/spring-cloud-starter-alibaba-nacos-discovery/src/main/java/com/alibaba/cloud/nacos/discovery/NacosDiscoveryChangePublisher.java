@@ -0,0 +1,329 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.event.NacosInstancesChangedEvent;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.Event;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Change-driven alternative to {@link NacosDiscoveryHeartBeatPublisher}. Every service
+ * is subscribed to, and a {@link NacosInstancesChangedEvent} with the added, removed
+ * and modified instances is published when one changes, followed by a single
+ * {@link HeartbeatEvent}. Nothing is published while the registry does not change, so
+ * listeners such as the gateway route locator only rebuild their state when needed.
+ * Changes are batched for the configured debounce time. The list of services is
+ * re-read every {@code watchDelay} to follow services that appear or disappear.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosDiscoveryChangePublisher
+		implements ApplicationEventPublisherAware, SmartLifecycle {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosDiscoveryChangePublisher.class);
+
+	private final NacosServiceDiscovery serviceDiscovery;
+
+	private final NacosServiceManager nacosServiceManager;
+
+	private final NacosDiscoveryProperties nacosDiscoveryProperties;
+
+	private final Duration debounce;
+
+	private final ThreadPoolTaskScheduler taskScheduler;
+
+	private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+	private final Queue<NacosInstancesChangedEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+	private final AtomicLong nacosHeartBeatIndex = new AtomicLong(0);
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	private ApplicationEventPublisher publisher;
+
+	private ScheduledFuture<?> resyncFuture;
+
+	public NacosDiscoveryChangePublisher(NacosServiceDiscovery serviceDiscovery,
+			NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties nacosDiscoveryProperties, Duration debounce) {
+		this.serviceDiscovery = serviceDiscovery;
+		this.nacosServiceManager = nacosServiceManager;
+		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+		this.debounce = debounce;
+		this.taskScheduler = new ThreadPoolTaskScheduler();
+		this.taskScheduler.setBeanName("Change-Publisher-Task-Scheduler");
+		this.taskScheduler.setDaemon(true);
+	}
+
+	@Override
+	public void start() {
+		if (this.running.compareAndSet(false, true)) {
+			log.info("Start nacos discovery change publisher.");
+			this.taskScheduler.initialize();
+			// The instances known at startup are the baseline, not a change. The
+			// scheduler has a single thread, so this runs before any later resync.
+			this.taskScheduler.execute(() -> resync(false));
+			Duration watchDelay = Duration
+					.ofMillis(this.nacosDiscoveryProperties.getWatchDelay());
+			this.resyncFuture = this.taskScheduler.scheduleWithFixedDelay(
+					() -> resync(true), Instant.now().plus(watchDelay), watchDelay);
+		}
+	}
+
+	@Override
+	public void stop() {
+		if (this.running.compareAndSet(true, false)) {
+			if (this.resyncFuture != null) {
+				this.resyncFuture.cancel(false);
+			}
+			for (Subscription subscription : this.subscriptions.values()) {
+				unsubscribe(subscription);
+			}
+			this.subscriptions.clear();
+			this.pendingEvents.clear();
+			this.taskScheduler.shutdown();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running.get();
+	}
+
+	@Override
+	public void setApplicationEventPublisher(
+			ApplicationEventPublisher applicationEventPublisher) {
+		this.publisher = applicationEventPublisher;
+	}
+
+	/**
+	 * Subscribe to the services that appeared and unsubscribe from the ones that
+	 * disappeared since the last call.
+	 * @param notifyNewServices whether the instances of new services are published as
+	 * added
+	 */
+	void resync(boolean notifyNewServices) {
+		List<String> services;
+		try {
+			services = this.serviceDiscovery.getServices();
+		}
+		catch (Exception e) {
+			log.warn("Failed to list services from nacos: {}", e.getMessage());
+			return;
+		}
+		Set<String> current = services == null ? Collections.emptySet()
+				: new HashSet<>(services);
+		for (String serviceName : current) {
+			if (!this.subscriptions.containsKey(serviceName)) {
+				Subscription subscription = new Subscription(serviceName,
+						notifyNewServices);
+				this.subscriptions.put(serviceName, subscription);
+				subscribe(subscription);
+			}
+		}
+		Iterator<Subscription> iterator = this.subscriptions.values().iterator();
+		while (iterator.hasNext()) {
+			Subscription subscription = iterator.next();
+			if (!current.contains(subscription.serviceName)) {
+				iterator.remove();
+				unsubscribe(subscription);
+				changed(subscription.update(Collections.emptyList()));
+			}
+		}
+	}
+
+	private void subscribe(Subscription subscription) {
+		try {
+			NamingService namingService = this.nacosServiceManager.getNamingService();
+			String group = this.nacosDiscoveryProperties.getGroup();
+			namingService.subscribe(subscription.serviceName, group, subscription);
+			changed(subscription.sync(namingService, group));
+		}
+		catch (Exception e) {
+			log.error("namingService subscribe failed, service:{}",
+					subscription.serviceName, e);
+		}
+	}
+
+	private void unsubscribe(Subscription subscription) {
+		try {
+			this.nacosServiceManager.getNamingService().unsubscribe(
+					subscription.serviceName, this.nacosDiscoveryProperties.getGroup(),
+					subscription);
+		}
+		catch (Exception e) {
+			log.error("namingService unsubscribe failed, service:{}",
+					subscription.serviceName, e);
+		}
+	}
+
+	private void changed(NacosInstancesChangedEvent event) {
+		if (event == null || !this.running.get()) {
+			return;
+		}
+		this.pendingEvents.offer(event);
+		if (this.debounce == null || this.debounce.isZero()
+				|| this.debounce.isNegative()) {
+			flush();
+		}
+		else if (this.flushScheduled.compareAndSet(false, true)) {
+			this.taskScheduler.schedule(this::flush, Instant.now().plus(this.debounce));
+		}
+	}
+
+	/**
+	 * Publish the pending changes, followed by one heartbeat.
+	 */
+	void flush() {
+		this.flushScheduled.set(false);
+		boolean changed = false;
+		NacosInstancesChangedEvent event;
+		while ((event = this.pendingEvents.poll()) != null) {
+			this.publisher.publishEvent(event);
+			changed = true;
+		}
+		if (changed) {
+			this.publisher.publishEvent(new HeartbeatEvent(this,
+					this.nacosHeartBeatIndex.getAndIncrement()));
+		}
+	}
+
+	private static String getInstanceKey(Instance instance) {
+		return instance.getIp() + ":" + instance.getPort() + "#"
+				+ instance.getClusterName();
+	}
+
+	private static boolean isModified(Instance previous, Instance current) {
+		return Double.compare(previous.getWeight(), current.getWeight()) != 0
+				|| previous.isHealthy() != current.isHealthy()
+				|| previous.isEnabled() != current.isEnabled()
+				|| previous.isEphemeral() != current.isEphemeral()
+				|| !Objects.equals(previous.getMetadata(), current.getMetadata());
+	}
+
+	private final class Subscription implements EventListener {
+
+		private final String serviceName;
+
+		/**
+		 * Last known instances by key, {@code null} until they are first read when
+		 * they are the baseline.
+		 */
+		private Map<String, Instance> instances;
+
+		Subscription(String serviceName, boolean notifyFirst) {
+			this.serviceName = serviceName;
+			this.instances = notifyFirst ? Collections.emptyMap() : null;
+		}
+
+		@Override
+		public void onEvent(Event event) {
+			if (event instanceof NamingEvent namingEvent) {
+				changed(update(namingEvent.getInstances()));
+			}
+		}
+
+		/**
+		 * Read the instances cached by the client right after subscribing. A service
+		 * that is already subscribed to, e.g. by the load balancer, is not notified
+		 * again, so its first notification would be its first change.
+		 * @return the differences, or {@code null} if nothing changed
+		 */
+		synchronized NacosInstancesChangedEvent sync(NamingService namingService,
+				String group) throws NacosException {
+			return update(namingService.getAllInstances(this.serviceName, group, true));
+		}
+
+		/**
+		 * Replace the known instances with the given ones.
+		 * @return the differences, or {@code null} if nothing changed
+		 */
+		synchronized NacosInstancesChangedEvent update(List<Instance> latest) {
+			Map<String, Instance> next = new HashMap<>();
+			if (latest != null) {
+				for (Instance instance : latest) {
+					next.put(getInstanceKey(instance), instance);
+				}
+			}
+			Map<String, Instance> previous = this.instances;
+			this.instances = next;
+			if (previous == null) {
+				return null;
+			}
+			List<Instance> added = new ArrayList<>();
+			List<Instance> modified = new ArrayList<>();
+			for (Map.Entry<String, Instance> entry : next.entrySet()) {
+				Instance before = previous.get(entry.getKey());
+				if (before == null) {
+					added.add(entry.getValue());
+				}
+				else if (isModified(before, entry.getValue())) {
+					modified.add(entry.getValue());
+				}
+			}
+			List<Instance> removed = new ArrayList<>();
+			for (Map.Entry<String, Instance> entry : previous.entrySet()) {
+				if (!next.containsKey(entry.getKey())) {
+					removed.add(entry.getValue());
+				}
+			}
+			if (added.isEmpty() && removed.isEmpty() && modified.isEmpty()) {
+				return null;
+			}
+			return new NacosInstancesChangedEvent(NacosDiscoveryChangePublisher.this,
+					this.serviceName, added, removed, modified);
+		}
+
+	}
+
+}
@@ -16,19 +16,24 @@
 
 package com.alibaba.cloud.nacos.discovery;
 
+import java.time.Duration;
+
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
 
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.cloud.client.ConditionalOnBlockingDiscoveryEnabled;
 import org.springframework.cloud.client.ConditionalOnDiscoveryEnabled;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * @author xiaojing
@@ -44,6 +49,17 @@ import org.springframework.context.annotation.Configuration;
 		name = "de.codecentric.boot.admin.server.cloud.config.AdminServerDiscoveryAutoConfiguration")
 public class NacosDiscoveryHeartBeatConfiguration {
 
+	/**
+	 * Publish heartbeats only when instances change, see
+	 * {@link NacosDiscoveryChangePublisher}.
+	 */
+	public static final String CHANGE_DRIVEN = "spring.cloud.nacos.discovery.heart-beat.change-driven";
+
+	/**
+	 * Time changes are batched for before being published when change-driven.
+	 */
+	public static final String DEBOUNCE = "spring.cloud.nacos.discovery.heart-beat.debounce";
+
 	/**
 	 * Nacos HeartBeat is no longer enabled by default .
 	 * publish an event every 30 seconds
@@ -53,10 +69,26 @@ public class NacosDiscoveryHeartBeatConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	@Conditional(NacosDiscoveryHeartBeatCondition.class)
+	@ConditionalOnProperty(value = CHANGE_DRIVEN, havingValue = "false", matchIfMissing = true)
 	public NacosDiscoveryHeartBeatPublisher nacosDiscoveryHeartBeatPublisher(NacosDiscoveryProperties nacosDiscoveryProperties) {
 		return new NacosDiscoveryHeartBeatPublisher(nacosDiscoveryProperties);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@Conditional(NacosDiscoveryHeartBeatCondition.class)
+	@ConditionalOnProperty(value = CHANGE_DRIVEN, havingValue = "true")
+	public NacosDiscoveryChangePublisher nacosDiscoveryChangePublisher(
+			Environment environment, NacosServiceDiscovery nacosServiceDiscovery,
+			NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties nacosDiscoveryProperties) {
+		String debounce = environment.getProperty(DEBOUNCE);
+		return new NacosDiscoveryChangePublisher(nacosServiceDiscovery,
+				nacosServiceManager, nacosDiscoveryProperties,
+				debounce == null ? Duration.ofSeconds(1)
+						: DurationStyle.detectAndParse(debounce));
+	}
+
 	private static class NacosDiscoveryHeartBeatCondition extends AnyNestedCondition {
 
 		NacosDiscoveryHeartBeatCondition()  {
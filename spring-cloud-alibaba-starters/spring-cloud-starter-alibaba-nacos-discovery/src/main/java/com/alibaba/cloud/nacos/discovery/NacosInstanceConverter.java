@@ -0,0 +1,232 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Converts Nacos instances to {@link ServiceInstance}s like
+ * {@link NacosServiceDiscovery#hostToServiceInstance(Instance, String)}, reusing the
+ * result of the previous conversion of each service for the instances that did not
+ * change.
+ * <p>
+ * An instance is reused while its id and every field the conversion reads are the same,
+ * Nacos instances carrying no version of their own. When no instance of a service
+ * changed, the previous list itself is returned, so the conversion allocates nothing.
+ * Metadata strings are interned and the metadata of converted instances is an
+ * immutable map, shared by every caller.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosInstanceConverter {
+
+	private final MetadataInterner interner = new MetadataInterner();
+
+	/**
+	 * Last conversion of each service.
+	 */
+	private final Map<String, Conversion> conversions = new ConcurrentHashMap<>();
+
+	/**
+	 * @param instances instances returned by the Nacos client, not modified afterwards
+	 * @param serviceId service id
+	 * @return unmodifiable list of the enabled and healthy instances
+	 */
+	public List<ServiceInstance> convert(List<Instance> instances, String serviceId) {
+		if (instances == null) {
+			instances = Collections.emptyList();
+		}
+		String key = String.valueOf(serviceId);
+		Conversion previous = conversions.get(key);
+		if (previous != null && previous.isConvertedFrom(instances)) {
+			return previous.serviceInstances;
+		}
+		Conversion conversion = new Conversion(previous, instances, serviceId);
+		conversions.put(key, conversion);
+		return conversion.serviceInstances;
+	}
+
+	private ServiceInstance toServiceInstance(Instance instance, String serviceId) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.instanceId", instance.getInstanceId());
+		metadata.put("nacos.weight",
+				interner.value("nacos.weight", String.valueOf(instance.getWeight())));
+		metadata.put("nacos.healthy", String.valueOf(instance.isHealthy()));
+		metadata.put("nacos.cluster",
+				interner.value("nacos.cluster", String.valueOf(instance.getClusterName())));
+		if (instance.getMetadata() != null) {
+			for (Map.Entry<String, String> entry : instance.getMetadata().entrySet()) {
+				metadata.put(interner.key(entry.getKey()),
+						interner.value(entry.getKey(), entry.getValue()));
+			}
+		}
+		metadata.put("nacos.ephemeral", String.valueOf(instance.isEphemeral()));
+
+		NacosServiceInstance serviceInstance = new NacosServiceInstance();
+		serviceInstance.setHost(instance.getIp());
+		serviceInstance.setPort(instance.getPort());
+		serviceInstance.setServiceId(serviceId);
+		serviceInstance.setInstanceId(instance.getInstanceId());
+		serviceInstance.setMetadata(compact(metadata));
+		if (metadata.containsKey("secure")) {
+			serviceInstance.setSecure(Boolean.parseBoolean(metadata.get("secure")));
+		}
+		return serviceInstance;
+	}
+
+	/**
+	 * Array-backed immutable copy, unless the metadata has null keys or values.
+	 */
+	private static Map<String, String> compact(Map<String, String> metadata) {
+		if (metadata.containsKey(null) || metadata.containsValue(null)) {
+			return Collections.unmodifiableMap(metadata);
+		}
+		return Map.copyOf(metadata);
+	}
+
+	private static boolean isSelected(Instance instance) {
+		return instance != null && instance.isEnabled() && instance.isHealthy();
+	}
+
+	private static String getKey(Instance instance) {
+		String instanceId = instance.getInstanceId();
+		if (instanceId != null) {
+			return instanceId;
+		}
+		return instance.getIp() + ":" + instance.getPort() + "#"
+				+ instance.getClusterName();
+	}
+
+	private final class Conversion {
+
+		private final Converted[] converted;
+
+		private final List<ServiceInstance> serviceInstances;
+
+		Conversion(Conversion previous, List<Instance> instances, String serviceId) {
+			Map<String, Converted> reusable = previous == null ? Collections.emptyMap()
+					: previous.byKey();
+			List<Converted> result = new ArrayList<>(instances.size());
+			List<ServiceInstance> list = new ArrayList<>(instances.size());
+			for (Instance instance : instances) {
+				if (!isSelected(instance)) {
+					continue;
+				}
+				Converted entry = reusable.get(getKey(instance));
+				if (entry == null || !entry.isConvertedFrom(instance)) {
+					entry = new Converted(instance,
+							toServiceInstance(instance, serviceId));
+				}
+				result.add(entry);
+				list.add(entry.serviceInstance);
+			}
+			this.converted = result.toArray(new Converted[0]);
+			this.serviceInstances = Collections.unmodifiableList(list);
+		}
+
+		/**
+		 * Whether the instances convert to the same list, without allocating.
+		 */
+		boolean isConvertedFrom(List<Instance> instances) {
+			int next = 0;
+			for (Instance instance : instances) {
+				if (!isSelected(instance)) {
+					continue;
+				}
+				if (next == converted.length
+						|| !converted[next].isConvertedFrom(instance)) {
+					return false;
+				}
+				next++;
+			}
+			return next == converted.length;
+		}
+
+		Map<String, Converted> byKey() {
+			Map<String, Converted> byKey = new HashMap<>(converted.length * 4 / 3 + 1);
+			for (Converted entry : converted) {
+				byKey.put(entry.key, entry);
+			}
+			return byKey;
+		}
+
+	}
+
+	/**
+	 * A converted instance, with the fields of the Nacos instance it was converted from.
+	 */
+	private static final class Converted {
+
+		private final String key;
+
+		private final String ip;
+
+		private final int port;
+
+		private final double weight;
+
+		private final boolean healthy;
+
+		private final boolean ephemeral;
+
+		private final String clusterName;
+
+		private final Map<String, String> metadata;
+
+		private final ServiceInstance serviceInstance;
+
+		Converted(Instance instance, ServiceInstance serviceInstance) {
+			this.key = getKey(instance);
+			this.ip = instance.getIp();
+			this.port = instance.getPort();
+			this.weight = instance.getWeight();
+			this.healthy = instance.isHealthy();
+			this.ephemeral = instance.isEphemeral();
+			this.clusterName = instance.getClusterName();
+			this.metadata = instance.getMetadata();
+			this.serviceInstance = serviceInstance;
+		}
+
+		boolean isConvertedFrom(Instance instance) {
+			// Same checks as getKey, without building a key for instances without id.
+			String instanceId = instance.getInstanceId();
+			return (instanceId != null ? key.equals(instanceId)
+					: serviceInstance.getInstanceId() == null)
+					&& port == instance.getPort()
+					&& Double.compare(weight, instance.getWeight()) == 0
+					&& healthy == instance.isHealthy()
+					&& ephemeral == instance.isEphemeral()
+					&& Objects.equals(ip, instance.getIp())
+					&& Objects.equals(clusterName, instance.getClusterName())
+					// Equal maps of the same instance object are the same reference.
+					&& Objects.equals(metadata, instance.getMetadata());
+		}
+
+	}
+
+}
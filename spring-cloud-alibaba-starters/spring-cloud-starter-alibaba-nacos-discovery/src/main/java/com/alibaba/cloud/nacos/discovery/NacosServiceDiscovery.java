@@ -17,10 +17,16 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
+import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceInstance;
 import com.alibaba.cloud.nacos.NacosServiceManager;
@@ -41,35 +47,121 @@ public class NacosServiceDiscovery {
 
 	private NacosServiceManager nacosServiceManager;
 
+	private final LongSupplier nanoClock;
+
+	private final NacosInstanceConverter instanceConverter = new NacosInstanceConverter();
+
+	private final ReentrantLock servicesRefreshLock = new ReentrantLock();
+
+	private volatile ServicesSnapshot servicesSnapshot;
+
 	public NacosServiceDiscovery(NacosDiscoveryProperties discoveryProperties,
 			NacosServiceManager nacosServiceManager) {
+		this(discoveryProperties, nacosServiceManager, System::nanoTime);
+	}
+
+	NacosServiceDiscovery(NacosDiscoveryProperties discoveryProperties,
+			NacosServiceManager nacosServiceManager, LongSupplier nanoClock) {
 		this.discoveryProperties = discoveryProperties;
 		this.nacosServiceManager = nacosServiceManager;
+		this.nanoClock = nanoClock;
 	}
 
 	/**
-	 * Return all instances for the given service.
+	 * Return all instances for the given service. Instances that did not change since
+	 * the previous lookup are returned as is.
 	 * @param serviceId id of service
-	 * @return list of instances
+	 * @return unmodifiable list of instances
 	 * @throws NacosException nacosException
 	 */
 	public List<ServiceInstance> getInstances(String serviceId) throws NacosException {
 		String group = discoveryProperties.getGroup();
 		List<Instance> instances = namingService().selectInstances(serviceId, group,
 				true);
-		return hostToServiceInstanceList(instances, serviceId);
+		return instanceConverter.convert(instances, serviceId);
 	}
 
 	/**
-	 * Return the names of all services.
+	 * Return the names of all services. Names are fetched page by page and filtered by
+	 * the configured prefix. With a cache TTL configured, the list is reused until it
+	 * expires; once expired, a single caller refreshes it while concurrent callers keep
+	 * getting the previous list.
 	 * @return list of service names
 	 * @throws NacosException nacosException
 	 */
 	public List<String> getServices() throws NacosException {
+		long ttl = TimeUnit.MILLISECONDS
+				.toNanos(discoveryProperties.getServicesCacheTtl());
+		if (ttl <= 0) {
+			return fetchServices();
+		}
+		ServicesSnapshot snapshot = this.servicesSnapshot;
+		if (snapshot != null && !snapshot.isExpired(nanoClock.getAsLong(), ttl)) {
+			return snapshot.names;
+		}
+		if (snapshot == null) {
+			servicesRefreshLock.lock();
+		}
+		else if (!servicesRefreshLock.tryLock()) {
+			return snapshot.names;
+		}
+		try {
+			snapshot = this.servicesSnapshot;
+			if (snapshot != null && !snapshot.isExpired(nanoClock.getAsLong(), ttl)) {
+				return snapshot.names;
+			}
+			List<String> names = fetchServices();
+			if (snapshot != null && Objects.equals(snapshot.names, names)) {
+				names = snapshot.names;
+			}
+			else if (names != null) {
+				names = Collections.unmodifiableList(names);
+			}
+			this.servicesSnapshot = new ServicesSnapshot(names, nanoClock.getAsLong());
+			return names;
+		}
+		finally {
+			servicesRefreshLock.unlock();
+		}
+	}
+
+	private List<String> fetchServices() throws NacosException {
 		String group = discoveryProperties.getGroup();
-		ListView<String> services = namingService().getServicesOfServer(1,
-				Integer.MAX_VALUE, group);
-		return services.getData();
+		String prefix = discoveryProperties.getServicesPrefix();
+		int pageSize = discoveryProperties.getServicesPageSize();
+		if (pageSize <= 0) {
+			ListView<String> services = namingService().getServicesOfServer(1,
+					Integer.MAX_VALUE, group);
+			if (StringUtils.isEmpty(prefix) || services.getData() == null) {
+				return services.getData();
+			}
+			List<String> result = new ArrayList<>();
+			addServices(result, services.getData(), prefix);
+			return result;
+		}
+		List<String> result = new ArrayList<>();
+		for (int pageNo = 1;; pageNo++) {
+			ListView<String> page = namingService().getServicesOfServer(pageNo,
+					pageSize, group);
+			List<String> data = page.getData();
+			if (data == null || data.isEmpty()) {
+				break;
+			}
+			addServices(result, data, prefix);
+			if (data.size() < pageSize || (long) pageNo * pageSize >= page.getCount()) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	private static void addServices(List<String> result, List<String> names,
+			String prefix) {
+		for (String name : names) {
+			if (StringUtils.isEmpty(prefix) || name.startsWith(prefix)) {
+				result.add(name);
+			}
+		}
 	}
 
 	public static List<ServiceInstance> hostToServiceInstanceList(
@@ -117,4 +209,21 @@ public class NacosServiceDiscovery {
 		return nacosServiceManager.getNamingService();
 	}
 
+	private static final class ServicesSnapshot {
+
+		private final List<String> names;
+
+		private final long fetchedAt;
+
+		ServicesSnapshot(List<String> names, long fetchedAt) {
+			this.names = names;
+			this.fetchedAt = fetchedAt;
+		}
+
+		boolean isExpired(long now, long ttl) {
+			return now - fetchedAt >= ttl;
+		}
+
+	}
+
 }
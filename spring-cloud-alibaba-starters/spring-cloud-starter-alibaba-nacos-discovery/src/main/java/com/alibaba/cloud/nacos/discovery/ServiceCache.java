@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.cloud.nacos.discovery.reactive.NacosReactiveDiscoveryClient;
 
@@ -33,7 +34,9 @@ import org.springframework.cloud.client.ServiceInstance;
  * <p>
  * It's very useful to query services and instances on runtime, but it's not real-time,
  * depends on {@link NacosDiscoveryClient} or {@link NacosReactiveDiscoveryClient}
- * {@code getServices(), getInstances(..)} invoke.
+ * {@code getServices(), getInstances(..)} invoke. With failure tolerance enabled, it is
+ * also persisted to a local file by {@link ServiceCachePersistence}, so that it is not
+ * empty after a restart.
  *
  * @author freeman
  * @since 2021.0.1.0
@@ -47,13 +50,23 @@ public final class ServiceCache {
 
 	private static Map<String, List<ServiceInstance>> instancesMap = new ConcurrentHashMap<>();
 
+	/**
+	 * Incremented when the content changes, tells the persistence when to write.
+	 */
+	private static final AtomicLong version = new AtomicLong();
+
 	/**
 	 * Set instances for specific service.
 	 * @param serviceId service id
 	 * @param instances service instances
 	 */
 	public static void setInstances(String serviceId, List<ServiceInstance> instances) {
-		instancesMap.put(serviceId, Collections.unmodifiableList(instances));
+		List<ServiceInstance> previous = instancesMap.put(serviceId,
+				Collections.unmodifiableList(instances));
+		// Lookups set the same instances again and again.
+		if (previous == null || !previous.equals(instances)) {
+			version.incrementAndGet();
+		}
 	}
 
 	/**
@@ -73,7 +86,7 @@ public final class ServiceCache {
 	 */
 	@Deprecated
 	public static void set(List<String> serviceIds) {
-		services = Collections.unmodifiableList(serviceIds);
+		setServiceIds(serviceIds);
 	}
 
 	/**
@@ -82,7 +95,11 @@ public final class ServiceCache {
 	 * @since 2021.0.1.1
 	 */
 	public static void setServiceIds(List<String> serviceIds) {
+		List<String> previous = services;
 		services = Collections.unmodifiableList(serviceIds);
+		if (!previous.equals(serviceIds)) {
+			version.incrementAndGet();
+		}
 	}
 
 	/**
@@ -104,4 +121,25 @@ public final class ServiceCache {
 		return services;
 	}
 
+	static long getVersion() {
+		return version.get();
+	}
+
+	static Map<String, List<ServiceInstance>> getInstancesMap() {
+		return Collections.unmodifiableMap(instancesMap);
+	}
+
+	/**
+	 * Fill the cache with persisted entries, without overwriting what was fetched from
+	 * Nacos in the meantime.
+	 */
+	static void restore(List<String> serviceIds,
+			Map<String, List<ServiceInstance>> instances) {
+		if (services.isEmpty()) {
+			services = Collections.unmodifiableList(serviceIds);
+		}
+		instances.forEach((serviceId, serviceInstances) -> instancesMap
+				.putIfAbsent(serviceId, Collections.unmodifiableList(serviceInstances)));
+	}
+
 }
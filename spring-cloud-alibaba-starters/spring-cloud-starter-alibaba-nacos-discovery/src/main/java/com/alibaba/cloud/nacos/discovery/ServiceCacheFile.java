@@ -0,0 +1,258 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Binary file format of the persisted {@link ServiceCache}. The file is a fixed header
+ * followed by the payload:
+ * <pre>
+ * int  magic
+ * int  format version
+ * long generation, increasing with every write
+ * long write time, epoch millis
+ * int  payload length
+ * int  CRC32 of the payload
+ * payload: service ids, then instances grouped by service
+ * </pre>
+ * Strings are stored as a length followed by UTF-8 bytes, {@code -1} for {@code null}.
+ * The file is small and decoded once, so it is read whole into a heap buffer. It is
+ * replaced atomically when written, so a reader never sees a partial file; a file with
+ * a wrong magic, version, length or checksum is ignored.
+ *
+ * @since 2023.0.1.3
+ */
+final class ServiceCacheFile {
+
+	static final int MAGIC = 0x4E534331;
+
+	static final int FORMAT_VERSION = 1;
+
+	static final int HEADER_LENGTH = 32;
+
+	private final List<String> serviceIds;
+
+	private final Map<String, List<ServiceInstance>> instances;
+
+	private final long generation;
+
+	ServiceCacheFile(List<String> serviceIds, Map<String, List<ServiceInstance>> instances,
+			long generation) {
+		this.serviceIds = serviceIds;
+		this.instances = instances;
+		this.generation = generation;
+	}
+
+	List<String> getServiceIds() {
+		return serviceIds;
+	}
+
+	Map<String, List<ServiceInstance>> getInstances() {
+		return instances;
+	}
+
+	long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Write to a temporary file next to the target, then move it over the target.
+	 * @param path target file
+	 * @throws IOException if the file cannot be written
+	 */
+	void write(Path path) throws IOException {
+		byte[] payload = encodePayload();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(generation)
+				.putLong(System.currentTimeMillis()).putInt(payload.length)
+				.putInt((int) crc.getValue()).flip();
+
+		Path parent = path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer body = ByteBuffer.wrap(payload);
+			while (header.hasRemaining() || body.hasRemaining()) {
+				channel.write(new ByteBuffer[] { header, body });
+			}
+			channel.force(true);
+		}
+		try {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private byte[] encodePayload() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(serviceIds.size());
+		for (String serviceId : serviceIds) {
+			writeString(out, serviceId);
+		}
+		out.writeInt(instances.size());
+		for (Map.Entry<String, List<ServiceInstance>> entry : instances.entrySet()) {
+			writeString(out, entry.getKey());
+			out.writeInt(entry.getValue().size());
+			for (ServiceInstance instance : entry.getValue()) {
+				writeString(out, instance.getInstanceId());
+				writeString(out, instance.getHost());
+				out.writeInt(instance.getPort());
+				out.writeBoolean(instance.isSecure());
+				Map<String, String> metadata = instance.getMetadata() == null
+						? Map.of() : instance.getMetadata();
+				out.writeInt(metadata.size());
+				for (Map.Entry<String, String> meta : metadata.entrySet()) {
+					writeString(out, meta.getKey());
+					writeString(out, meta.getValue());
+				}
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static void writeString(DataOutputStream out, String value)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Read and decode the given file.
+	 * @param path file to read
+	 * @return the decoded cache, or {@code null} if the file is missing
+	 * @throws IOException if the file cannot be read or is not a valid cache file
+	 */
+	static ServiceCacheFile read(Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		byte[] bytes = Files.readAllBytes(path);
+		if (bytes.length < HEADER_LENGTH) {
+			throw new IOException("Invalid service cache file size: " + bytes.length);
+		}
+		return decode(ByteBuffer.wrap(bytes), bytes.length);
+	}
+
+	private static ServiceCacheFile decode(ByteBuffer buffer, long size)
+			throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a service cache file");
+		}
+		int formatVersion = buffer.getInt();
+		if (formatVersion != FORMAT_VERSION) {
+			throw new IOException(
+					"Unsupported service cache format version: " + formatVersion);
+		}
+		long generation = buffer.getLong();
+		buffer.getLong();
+		int length = buffer.getInt();
+		int checksum = buffer.getInt();
+		if (length != size - HEADER_LENGTH) {
+			throw new IOException("Truncated service cache file");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.slice());
+		if ((int) crc.getValue() != checksum) {
+			throw new IOException("Service cache file checksum mismatch");
+		}
+		try {
+			return decodePayload(buffer, generation);
+		}
+		catch (RuntimeException e) {
+			throw new IOException("Corrupted service cache file", e);
+		}
+	}
+
+	private static ServiceCacheFile decodePayload(ByteBuffer in, long generation) {
+		int serviceIdCount = in.getInt();
+		List<String> serviceIds = new ArrayList<>(serviceIdCount);
+		for (int i = 0; i < serviceIdCount; i++) {
+			serviceIds.add(readString(in));
+		}
+		int serviceCount = in.getInt();
+		Map<String, List<ServiceInstance>> instances = new LinkedHashMap<>();
+		for (int i = 0; i < serviceCount; i++) {
+			String serviceId = readString(in);
+			int instanceCount = in.getInt();
+			List<ServiceInstance> serviceInstances = new ArrayList<>(instanceCount);
+			for (int j = 0; j < instanceCount; j++) {
+				NacosServiceInstance instance = new NacosServiceInstance();
+				instance.setServiceId(serviceId);
+				instance.setInstanceId(readString(in));
+				instance.setHost(readString(in));
+				instance.setPort(in.getInt());
+				instance.setSecure(in.get() != 0);
+				int metadataCount = in.getInt();
+				Map<String, String> metadata = new HashMap<>(metadataCount * 2);
+				for (int k = 0; k < metadataCount; k++) {
+					metadata.put(readString(in), readString(in));
+				}
+				instance.setMetadata(metadata);
+				serviceInstances.add(instance);
+			}
+			instances.put(serviceId, serviceInstances);
+		}
+		return new ServiceCacheFile(serviceIds, instances, generation);
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
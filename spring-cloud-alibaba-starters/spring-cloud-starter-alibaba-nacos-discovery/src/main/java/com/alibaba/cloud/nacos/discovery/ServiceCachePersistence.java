@@ -0,0 +1,162 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Persists {@link ServiceCache} to a local file, see {@link ServiceCacheFile}. The file
+ * is loaded when the bean is initialized, before the application serves any request, so
+ * that failure tolerance has instances to fall back on right after a restart. Changes
+ * are written in the background, at most once per {@link #WRITE_INTERVAL}, and once more
+ * on shutdown.
+ *
+ * @since 2023.0.1.3
+ */
+public class ServiceCachePersistence implements InitializingBean, SmartLifecycle {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(ServiceCachePersistence.class);
+
+	/**
+	 * Delay between two checks for changes.
+	 */
+	static final Duration WRITE_INTERVAL = Duration.ofSeconds(10);
+
+	private final Path path;
+
+	private final ThreadPoolTaskScheduler taskScheduler;
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	private ScheduledFuture<?> writeFuture;
+
+	private long generation;
+
+	private long writtenVersion = -1;
+
+	public ServiceCachePersistence(NacosDiscoveryProperties nacosDiscoveryProperties) {
+		this(resolvePath(nacosDiscoveryProperties));
+	}
+
+	ServiceCachePersistence(Path path) {
+		this.path = path;
+		this.taskScheduler = new ThreadPoolTaskScheduler();
+		this.taskScheduler.setBeanName("Service-Cache-Persistence-Scheduler");
+		this.taskScheduler.setDaemon(true);
+	}
+
+	static Path resolvePath(NacosDiscoveryProperties nacosDiscoveryProperties) {
+		if (StringUtils.isNotBlank(
+				nacosDiscoveryProperties.getFailureToleranceCacheFile())) {
+			return Paths.get(nacosDiscoveryProperties.getFailureToleranceCacheFile());
+		}
+		String namespace = StringUtils.isBlank(nacosDiscoveryProperties.getNamespace())
+				? "public" : nacosDiscoveryProperties.getNamespace();
+		return Paths.get(System.getProperty("user.home"), "nacos", "naming", namespace,
+				"spring-cloud", nacosDiscoveryProperties.getService() + ".cache");
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		load();
+	}
+
+	/**
+	 * Restore the cache from the file, ignoring a missing or invalid file.
+	 */
+	void load() {
+		try {
+			ServiceCacheFile file = ServiceCacheFile.read(path);
+			if (file == null) {
+				return;
+			}
+			generation = file.getGeneration();
+			ServiceCache.restore(file.getServiceIds(), file.getInstances());
+			log.info("Restored {} services from the service cache file {}",
+					file.getInstances().size(), path);
+		}
+		catch (IOException e) {
+			log.warn("Ignoring invalid service cache file {}: {}", path, e.getMessage());
+		}
+	}
+
+	/**
+	 * Write the cache to the file if it changed since the last write.
+	 */
+	synchronized void writeIfChanged() {
+		long version = ServiceCache.getVersion();
+		if (version == writtenVersion) {
+			return;
+		}
+		Map<String, List<ServiceInstance>> instances = new LinkedHashMap<>(
+				ServiceCache.getInstancesMap());
+		List<String> serviceIds = new ArrayList<>(ServiceCache.getServiceIds());
+		try {
+			new ServiceCacheFile(serviceIds, instances, ++generation).write(path);
+			writtenVersion = version;
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("Failed to write the service cache file {}", path, e);
+		}
+	}
+
+	@Override
+	public void start() {
+		if (this.running.compareAndSet(false, true)) {
+			this.taskScheduler.initialize();
+			this.writeFuture = this.taskScheduler
+					.scheduleWithFixedDelay(this::writeIfChanged, WRITE_INTERVAL);
+		}
+	}
+
+	@Override
+	public void stop() {
+		if (this.running.compareAndSet(true, false)) {
+			if (this.writeFuture != null) {
+				this.writeFuture.cancel(false);
+			}
+			this.taskScheduler.shutdown();
+			writeIfChanged();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running.get();
+	}
+
+}
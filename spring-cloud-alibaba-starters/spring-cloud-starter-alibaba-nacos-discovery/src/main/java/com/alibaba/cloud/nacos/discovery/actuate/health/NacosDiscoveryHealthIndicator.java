@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.nacos.discovery.actuate.health;
 
+import com.alibaba.cloud.commons.health.NacosServerStatusMonitor;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.nacos.api.naming.NamingService;
 
@@ -47,10 +48,21 @@ public class NacosDiscoveryHealthIndicator extends AbstractHealthIndicator {
 	@Deprecated
 	private NamingService namingService;
 
+	private NacosServerStatusMonitor monitor;
+
 	public NacosDiscoveryHealthIndicator(NacosServiceManager nacosServiceManager) {
 		this.nacosServiceManager = nacosServiceManager;
 	}
 
+	/**
+	 * Health from the last status checked by the monitor, without calling the server.
+	 * @param monitor monitor of the server status
+	 * @since 2023.0.1.3
+	 */
+	public NacosDiscoveryHealthIndicator(NacosServerStatusMonitor monitor) {
+		this.monitor = monitor;
+	}
+
 	@Deprecated
 	public NacosDiscoveryHealthIndicator(NamingService namingService) {
 		this.namingService = namingService;
@@ -58,6 +70,11 @@ public class NacosDiscoveryHealthIndicator extends AbstractHealthIndicator {
 
 	@Override
 	protected void doHealthCheck(Health.Builder builder) throws Exception {
+		if (monitor != null) {
+			Health health = monitor.getHealth();
+			builder.status(health.getStatus()).withDetails(health.getDetails());
+			return;
+		}
 		// Just return "UP" or "DOWN"
 		String status = nacosServiceManager.getNamingService().getServerStatus();
 		// Set the status to Builder
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery.actuate.health;
+
+import com.alibaba.cloud.nacos.registry.NacosRegistrationState;
+import com.alibaba.cloud.nacos.registry.NacosServiceRegistry;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * The {@link HealthIndicator} for the registration of the local instance: {@code UP}
+ * once registered, {@code OUT_OF_SERVICE} while the registration fails or after the
+ * deregistration, {@code UNKNOWN} before the first attempt completes.
+ *
+ * @since 2023.0.1.3
+ * @see NacosServiceRegistry#getRegistrationState()
+ */
+public class NacosRegistrationHealthIndicator extends AbstractHealthIndicator {
+
+	private final NacosServiceRegistry nacosServiceRegistry;
+
+	public NacosRegistrationHealthIndicator(NacosServiceRegistry nacosServiceRegistry) {
+		this.nacosServiceRegistry = nacosServiceRegistry;
+	}
+
+	@Override
+	protected void doHealthCheck(Health.Builder builder) {
+		NacosRegistrationState state = nacosServiceRegistry.getRegistrationState();
+		switch (state.getStatus()) {
+		case REGISTERED -> builder.up();
+		case RETRYING, FAILED, DEREGISTERED -> builder.outOfService();
+		default -> builder.unknown();
+		}
+		builder.withDetail("status", state.getStatus())
+				.withDetail("attempts", state.getAttempts());
+		if (state.getLastError() != null) {
+			builder.withDetail("lastError", state.getLastError());
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery.actuate.health;
+
+import com.alibaba.cloud.nacos.registry.NacosServiceRegistry;
+
+import org.springframework.boot.actuate.availability.ReadinessStateHealthIndicator;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityState;
+import org.springframework.boot.availability.ReadinessState;
+
+/**
+ * Readiness gate for asynchronous registrations: the application refuses traffic until
+ * the local instance is registered, even once started, so that a readiness probe does
+ * not report ready an instance that consumers cannot discover yet.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosRegistrationReadinessStateHealthIndicator
+		extends ReadinessStateHealthIndicator {
+
+	private final NacosServiceRegistry nacosServiceRegistry;
+
+	public NacosRegistrationReadinessStateHealthIndicator(
+			ApplicationAvailability availability,
+			NacosServiceRegistry nacosServiceRegistry) {
+		super(availability);
+		this.nacosServiceRegistry = nacosServiceRegistry;
+	}
+
+	@Override
+	protected AvailabilityState getState(ApplicationAvailability applicationAvailability) {
+		AvailabilityState state = super.getState(applicationAvailability);
+		if (state == ReadinessState.ACCEPTING_TRAFFIC
+				&& !nacosServiceRegistry.getRegistrationState().isRegistered()) {
+			return ReadinessState.REFUSING_TRAFFIC;
+		}
+		return state;
+	}
+
+}
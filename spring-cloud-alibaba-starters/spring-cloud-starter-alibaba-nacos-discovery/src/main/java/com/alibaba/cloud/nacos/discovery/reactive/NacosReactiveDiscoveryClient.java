@@ -16,12 +16,15 @@
 
 package com.alibaba.cloud.nacos.discovery.reactive;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 import com.alibaba.cloud.nacos.discovery.ServiceCache;
 import com.alibaba.nacos.api.exception.NacosException;
-import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
@@ -46,6 +49,18 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 	@Value("${spring.cloud.nacos.discovery.failure-tolerance-enabled:false}")
 	private boolean failureToleranceEnabled;
 
+	/**
+	 * How long a completed lookup keeps being shared with new callers, in
+	 * milliseconds. Concurrent callers always share the lookup in flight.
+	 */
+	@Value("${spring.cloud.nacos.discovery.instances-coalescing-window:0}")
+	private long instancesCoalescingWindow;
+
+	/**
+	 * Last lookup of each service.
+	 */
+	private final Map<String, InstancesLookup> instancesLookups = new ConcurrentHashMap<>();
+
 	public NacosReactiveDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery) {
 		this.serviceDiscovery = nacosServiceDiscovery;
 	}
@@ -55,29 +70,38 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 		return "Spring Cloud Nacos Reactive Discovery Client";
 	}
 
+	/**
+	 * Concurrent calls for the same service share a single Nacos lookup, and its result
+	 * is reused for {@code instances-coalescing-window} after it completes, so that a
+	 * burst of requests does not turn into a burst of Nacos queries.
+	 */
 	@Override
 	public Flux<ServiceInstance> getInstances(String serviceId) {
-
-		return Mono.justOrEmpty(serviceId).flatMapMany(loadInstancesFromNacos())
-				.subscribeOn(Schedulers.boundedElastic());
+		if (serviceId == null) {
+			return Flux.empty();
+		}
+		return Flux.defer(() -> {
+			long now = System.nanoTime();
+			return instancesLookups.compute(serviceId,
+					(id, lookup) -> lookup != null && lookup.isFresh(now,
+							TimeUnit.MILLISECONDS.toNanos(instancesCoalescingWindow))
+									? lookup : new InstancesLookup(id)).result;
+		}).flatMapIterable(Function.identity());
 	}
 
-	private Function<String, Publisher<ServiceInstance>> loadInstancesFromNacos() {
-		return serviceId -> {
-			try {
-				return Mono.justOrEmpty(serviceDiscovery.getInstances(serviceId))
-						.flatMapMany(instances -> {
-							ServiceCache.setInstances(serviceId, instances);
-							return Flux.fromIterable(instances);
-						});
-			}
-			catch (NacosException e) {
-				log.error("get service instance[{}] from nacos error!", serviceId, e);
-				return failureToleranceEnabled
-						? Flux.fromIterable(ServiceCache.getInstances(serviceId))
-						: Flux.empty();
+	private List<ServiceInstance> loadInstancesFromNacos(String serviceId) {
+		try {
+			List<ServiceInstance> instances = serviceDiscovery.getInstances(serviceId);
+			if (instances != null) {
+				ServiceCache.setInstances(serviceId, instances);
 			}
-		};
+			return instances;
+		}
+		catch (NacosException e) {
+			log.error("get service instance[{}] from nacos error!", serviceId, e);
+			return failureToleranceEnabled ? ServiceCache.getInstances(serviceId)
+					: null;
+		}
 	}
 
 	@Override
@@ -99,4 +123,26 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 		}).subscribeOn(Schedulers.boundedElastic());
 	}
 
+	private final class InstancesLookup {
+
+		private final Mono<List<ServiceInstance>> result;
+
+		private volatile long completedAt;
+
+		private volatile boolean completed;
+
+		InstancesLookup(String serviceId) {
+			this.result = Mono.fromCallable(() -> loadInstancesFromNacos(serviceId))
+					.subscribeOn(Schedulers.boundedElastic()).doFinally(signal -> {
+						completedAt = System.nanoTime();
+						completed = true;
+					}).cache();
+		}
+
+		boolean isFresh(long now, long windowNanos) {
+			return !completed || now - completedAt < windowNanos;
+		}
+
+	}
+
 }
@@ -16,11 +16,16 @@
 
 package com.alibaba.cloud.nacos.endpoint;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.nacos.api.naming.NamingService;
@@ -31,15 +36,27 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
 
 /**
  * Endpoint for nacos discovery, get nacos properties and subscribed services.
+ * <p>
+ * The instances of subscribed services are read from the local cache of the Nacos
+ * client, with the clusters of the subscription. The subscribed services are kept for
+ * {@link #DEFAULT_CACHE_TIME_TO_LIVE} and can be paged with the {@code page} and
+ * {@code size} parameters, so frequent scrapes do not cost more than one read of the
+ * cache.
  *
  * @author xiaojing
  */
 @Endpoint(id = "nacosdiscovery")
 public class NacosDiscoveryEndpoint {
 
+	/**
+	 * Default time to live of the subscribed services.
+	 */
+	public static final Duration DEFAULT_CACHE_TIME_TO_LIVE = Duration.ofSeconds(5);
+
 	private static final Logger log = LoggerFactory
 			.getLogger(NacosDiscoveryEndpoint.class);
 
@@ -47,36 +64,117 @@ public class NacosDiscoveryEndpoint {
 
 	private NacosDiscoveryProperties nacosDiscoveryProperties;
 
+	private final long cacheTimeToLive;
+
+	private final ReentrantLock refreshLock = new ReentrantLock();
+
+	private volatile Subscriptions subscriptions;
+
 	public NacosDiscoveryEndpoint(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
+		this(nacosServiceManager, nacosDiscoveryProperties, DEFAULT_CACHE_TIME_TO_LIVE);
+	}
+
+	public NacosDiscoveryEndpoint(NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			Duration cacheTimeToLive) {
 		this.nacosServiceManager = nacosServiceManager;
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+		this.cacheTimeToLive = cacheTimeToLive.toNanos();
 	}
 
 	/**
 	 * @return nacos discovery endpoint
 	 */
-	@ReadOperation
 	public Map<String, Object> nacosDiscovery() {
+		return nacosDiscovery(null, null);
+	}
+
+	/**
+	 * @param page index of the page of subscribed services, from 0
+	 * @param size number of subscribed services per page, all of them if not set
+	 * @return nacos discovery endpoint
+	 */
+	@ReadOperation
+	public Map<String, Object> nacosDiscovery(@Nullable Integer page,
+			@Nullable Integer size) {
 		Map<String, Object> result = new HashMap<>();
 		result.put("NacosDiscoveryProperties", nacosDiscoveryProperties);
 
+		List<ServiceInfo> subscribe = getSubscriptions().services;
+		if (page == null && size == null) {
+			result.put("subscribe", subscribe);
+			return result;
+		}
+		int pageSize = size == null || size <= 0 ? subscribe.size() : size;
+		int pageIndex = page == null || page < 0 ? 0 : page;
+		long from = Math.min((long) pageIndex * pageSize, subscribe.size());
+		int to = (int) Math.min(from + pageSize, subscribe.size());
+		result.put("subscribe", subscribe.subList((int) from, to));
+		result.put("page", pageIndex);
+		result.put("size", pageSize);
+		result.put("total", subscribe.size());
+		return result;
+	}
+
+	private Subscriptions getSubscriptions() {
+		Subscriptions current = subscriptions;
+		if (current != null && current.isFresh(cacheTimeToLive)) {
+			return current;
+		}
+		refreshLock.lock();
+		try {
+			// Concurrent scrapes wait for a single refresh.
+			current = subscriptions;
+			if (current == null || !current.isFresh(cacheTimeToLive)) {
+				current = new Subscriptions(loadSubscribeServices());
+				subscriptions = current;
+			}
+			return current;
+		}
+		finally {
+			refreshLock.unlock();
+		}
+	}
+
+	private List<ServiceInfo> loadSubscribeServices() {
 		NamingService namingService = nacosServiceManager.getNamingService();
 		List<ServiceInfo> subscribe = Collections.emptyList();
 
 		try {
-			subscribe = namingService.getSubscribeServices();
+			subscribe = new ArrayList<>(namingService.getSubscribeServices());
 			for (ServiceInfo serviceInfo : subscribe) {
+				// The clusters of the subscription, for the client to answer from its
+				// cache instead of subscribing again.
+				List<String> clusters = StringUtils.isEmpty(serviceInfo.getClusters())
+						? Collections.emptyList()
+						: Arrays.asList(serviceInfo.getClusters().split(","));
 				List<Instance> instances = namingService.getAllInstances(
-						serviceInfo.getName(), serviceInfo.getGroupName());
+						serviceInfo.getName(), serviceInfo.getGroupName(), clusters,
+						true);
 				serviceInfo.setHosts(instances);
 			}
 		}
 		catch (Exception e) {
 			log.error("get subscribe services from nacos fail,", e);
 		}
-		result.put("subscribe", subscribe);
-		return result;
+		return Collections.unmodifiableList(subscribe);
+	}
+
+	private static final class Subscriptions {
+
+		private final List<ServiceInfo> services;
+
+		private final long loadedAt = System.nanoTime();
+
+		Subscriptions(List<ServiceInfo> services) {
+			this.services = services;
+		}
+
+		boolean isFresh(long timeToLive) {
+			return System.nanoTime() - loadedAt < timeToLive;
+		}
+
 	}
 
 }
@@ -16,17 +16,26 @@
 
 package com.alibaba.cloud.nacos.endpoint;
 
+import com.alibaba.cloud.commons.health.NacosServerHealthProperties;
+import com.alibaba.cloud.commons.health.NacosServerReactiveHealthIndicator;
+import com.alibaba.cloud.commons.health.NacosServerStatusMonitor;
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.cloud.nacos.discovery.actuate.health.NacosDiscoveryHealthIndicator;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -41,6 +50,11 @@ import org.springframework.context.annotation.Configuration;
 @ConditionalOnNacosDiscoveryEnabled
 public class NacosDiscoveryEndpointAutoConfiguration {
 
+	/**
+	 * Prefix of the health settings, see {@link NacosServerHealthProperties}.
+	 */
+	static final String HEALTH_PREFIX = "spring.cloud.nacos.discovery.health";
+
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnAvailableEndpoint
@@ -52,8 +66,52 @@ public class NacosDiscoveryEndpointAutoConfiguration {
 
 	@Bean
 	@ConditionalOnEnabledHealthIndicator("nacos-discovery")
-	public HealthIndicator nacosDiscoveryHealthIndicator(NacosServiceManager nacosServiceManager) {
-		return new NacosDiscoveryHealthIndicator(nacosServiceManager);
+	@ConditionalOnMissingBean(name = "nacosDiscoveryHealthIndicator")
+	public HealthIndicator nacosDiscoveryHealthIndicator(NacosServiceManager nacosServiceManager,
+			@Qualifier("nacosDiscoveryServerStatusMonitor")
+			ObjectProvider<NacosServerStatusMonitor> monitorProvider) {
+		NacosServerStatusMonitor monitor = monitorProvider.getIfAvailable();
+		return monitor != null ? new NacosDiscoveryHealthIndicator(monitor)
+				: new NacosDiscoveryHealthIndicator(nacosServiceManager);
+	}
+
+	/**
+	 * Health computed in the background, see {@link NacosServerStatusMonitor}.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnEnabledHealthIndicator("nacos-discovery")
+	@ConditionalOnProperty(value = HEALTH_PREFIX + ".async", havingValue = "true")
+	static class NacosDiscoveryAsyncHealthConfiguration {
+
+		@Bean
+		@ConfigurationProperties(HEALTH_PREFIX)
+		public NacosServerHealthProperties nacosDiscoveryHealthProperties() {
+			return new NacosServerHealthProperties();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean(name = "nacosDiscoveryServerStatusMonitor")
+		public NacosServerStatusMonitor nacosDiscoveryServerStatusMonitor(
+				NacosServiceManager nacosServiceManager,
+				@Qualifier("nacosDiscoveryHealthProperties")
+				NacosServerHealthProperties properties) {
+			return new NacosServerStatusMonitor("Nacos-Discovery-Health-Task-Scheduler",
+					() -> nacosServiceManager.getNamingService().getServerStatus(),
+					properties.getInterval(), properties.getMaxStaleness());
+		}
+
+		/**
+		 * Takes the name of the blocking indicator, so the contributor keeps its name.
+		 */
+		@Bean(name = "nacosDiscoveryHealthIndicator")
+		@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+		@ConditionalOnClass(name = "reactor.core.publisher.Mono")
+		public ReactiveHealthIndicator nacosDiscoveryReactiveHealthIndicator(
+				@Qualifier("nacosDiscoveryServerStatusMonitor")
+				NacosServerStatusMonitor monitor) {
+			return new NacosServerReactiveHealthIndicator(monitor);
+		}
+
 	}
 
 }
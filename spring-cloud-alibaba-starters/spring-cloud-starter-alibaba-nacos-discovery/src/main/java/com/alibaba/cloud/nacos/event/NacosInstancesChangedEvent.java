@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.event;
+
+import java.util.List;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the instances of a service changed, with the instances that were
+ * added, removed or modified since the previous event for that service.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosInstancesChangedEvent extends ApplicationEvent {
+
+	private final String serviceName;
+
+	private final List<Instance> added;
+
+	private final List<Instance> removed;
+
+	private final List<Instance> modified;
+
+	public NacosInstancesChangedEvent(Object source, String serviceName,
+			List<Instance> added, List<Instance> removed, List<Instance> modified) {
+		super(source);
+		this.serviceName = serviceName;
+		this.added = added;
+		this.removed = removed;
+		this.modified = modified;
+	}
+
+	public String getServiceName() {
+		return serviceName;
+	}
+
+	public List<Instance> getAdded() {
+		return added;
+	}
+
+	public List<Instance> getRemoved() {
+		return removed;
+	}
+
+	public List<Instance> getModified() {
+		return modified;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosInstancesChangedEvent{" + "serviceName='" + serviceName + '\''
+				+ ", added=" + added.size() + ", removed=" + removed.size()
+				+ ", modified=" + modified.size() + '}';
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * State that a load balancer algorithm builds from its candidates, kept for the last
+ * few candidate sets of one service. Filters such as label routing or outlier ejection
+ * hand different subsets of the instances to consecutive requests; with a single entry
+ * per service, every switch would rebuild the state. A lookup neither locks nor
+ * allocates; a new state is built by a single thread and the oldest entry is dropped
+ * once the cache is full.
+ *
+ * @param <T> state built from the candidates
+ * @since 2023.0.1.3
+ */
+final class CandidateSetCache<T> {
+
+	private final int capacity;
+
+	/**
+	 * Entries, newest first, never modified once published.
+	 */
+	private volatile List<Entry<T>> entries = Collections.emptyList();
+
+	CandidateSetCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Get the state built from the same candidates, with the same weights, or build
+	 * it.
+	 * @param candidates candidate instances
+	 * @param builder builds the state of the candidates, given the newest cached state,
+	 * {@code null} if there is none
+	 * @return the state of the candidates
+	 */
+	T get(List<ServiceInstance> candidates,
+			BiFunction<List<ServiceInstance>, T, T> builder) {
+		T value = find(this.entries, candidates);
+		if (value != null) {
+			return value;
+		}
+		synchronized (this) {
+			List<Entry<T>> current = this.entries;
+			value = find(current, candidates);
+			if (value == null) {
+				value = builder.apply(candidates,
+						current.isEmpty() ? null : current.get(0).value);
+				List<Entry<T>> next = new ArrayList<>(
+						Math.min(current.size() + 1, capacity));
+				next.add(new Entry<>(candidates, value));
+				for (int i = 0; i < current.size() && next.size() < capacity; i++) {
+					next.add(current.get(i));
+				}
+				this.entries = next;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * @return number of candidate sets whose state is kept
+	 */
+	int size() {
+		return this.entries.size();
+	}
+
+	private static <T> T find(List<Entry<T>> entries, List<ServiceInstance> candidates) {
+		for (int i = 0; i < entries.size(); i++) {
+			Entry<T> entry = entries.get(i);
+			if (WeightedServiceInstanceList.isSame(entry.candidates, candidates)) {
+				return entry.value;
+			}
+		}
+		return null;
+	}
+
+	private static final class Entry<T> {
+
+		private final List<ServiceInstance> candidates;
+
+		private final T value;
+
+		Entry(List<ServiceInstance> candidates, T value) {
+			this.candidates = candidates;
+			this.value = value;
+		}
+
+	}
+
+}
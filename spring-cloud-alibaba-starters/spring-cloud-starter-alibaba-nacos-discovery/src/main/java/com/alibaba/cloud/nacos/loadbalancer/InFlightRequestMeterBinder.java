@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Exposes the counters of {@link InFlightRequestTracker} as the
+ * {@code loadbalancer.nacos.requests.inflight} gauge, tagged with the service id and the
+ * instance address. The gauge of an instance is removed with its counter.
+ *
+ * @since 2023.0.1.3
+ */
+public class InFlightRequestMeterBinder implements MeterBinder {
+
+	/**
+	 * Name of the in-flight requests gauge.
+	 */
+	public static final String METRIC_NAME = "loadbalancer.nacos.requests.inflight";
+
+	private final InFlightRequestTracker inFlightRequestTracker;
+
+	public InFlightRequestMeterBinder(InFlightRequestTracker inFlightRequestTracker) {
+		this.inFlightRequestTracker = inFlightRequestTracker;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		inFlightRequestTracker.addCounterListener(
+				new InFlightRequestTracker.CounterListener() {
+
+					@Override
+					public void onCreated(ServiceInstance serviceInstance,
+							LongAdder requests) {
+						Gauge.builder(METRIC_NAME, requests, LongAdder::sum)
+								.description(
+										"Load-balanced requests in flight to a service instance")
+								.tags(tags(serviceInstance)).register(registry);
+					}
+
+					@Override
+					public void onRemoved(ServiceInstance serviceInstance) {
+						Gauge gauge = registry.find(METRIC_NAME)
+								.tags(tags(serviceInstance)).gauge();
+						if (gauge != null) {
+							registry.remove(gauge);
+						}
+					}
+
+				});
+	}
+
+	private static Tags tags(ServiceInstance serviceInstance) {
+		return Tags.of("serviceId", String.valueOf(serviceInstance.getServiceId()),
+				"instance", serviceInstance.getHost() + ":" + serviceInstance.getPort());
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+/**
+ * Counts the requests in flight to every instance, from the LoadBalancer lifecycle
+ * callbacks: a request is counted from {@code onStartRequest} until
+ * {@code onComplete}. Counters are {@link LongAdder}s, so concurrent callers do not
+ * contend on a single counter.
+ * <p>
+ * The counter of an instance is released once the instance has left the instance list
+ * of its service and has no request in flight.
+ *
+ * @since 2023.0.1.3
+ */
+public class InFlightRequestTracker implements
+		LoadBalancerLifecycle<Object, Object, ServiceInstance>, NacosInstanceListListener {
+
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+	private final List<CounterListener> counterListeners = new ArrayList<>();
+
+	@Override
+	public boolean supports(Class requestContextClass, Class responseClass,
+			Class serverTypeClass) {
+		return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request,
+			Response<ServiceInstance> lbResponse) {
+		if (lbResponse != null && lbResponse.hasServer()) {
+			counter(lbResponse.getServer()).increment();
+		}
+	}
+
+	@Override
+	public void onComplete(
+			CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+		// Discarded requests never reached onStartRequest.
+		if (completionContext.status() != CompletionContext.Status.DISCARD
+				&& lbResponse != null && lbResponse.hasServer()) {
+			Counter counter = counters
+					.get(NacosBalancer.getInstanceKey(lbResponse.getServer()));
+			if (counter != null) {
+				counter.requests.decrement();
+			}
+		}
+	}
+
+	@Override
+	public void onInstanceListChanged(String serviceId,
+			List<ServiceInstance> serviceInstances) {
+		Set<String> keys = new HashSet<>(serviceInstances.size() * 4 / 3 + 1);
+		for (ServiceInstance serviceInstance : serviceInstances) {
+			keys.add(NacosBalancer.getInstanceKey(serviceInstance));
+		}
+		counters.forEach((key, counter) -> {
+			if (!keys.contains(key)
+					&& Objects.equals(serviceId, counter.instance.getServiceId())
+					&& counter.requests.sum() <= 0) {
+				removeCounter(key, counter);
+			}
+		});
+	}
+
+	/**
+	 * Requests in flight to the given instance.
+	 * @param serviceInstance service instance
+	 * @return number of started and not yet completed requests
+	 */
+	public long getInFlight(ServiceInstance serviceInstance) {
+		Counter counter = counters.get(NacosBalancer.getInstanceKey(serviceInstance));
+		return counter == null ? 0 : Math.max(0, counter.requests.sum());
+	}
+
+	/**
+	 * Register a callback invoked with every counter, existing or created later, e.g. to
+	 * expose it as a gauge.
+	 * @param listener callback notified of the counters
+	 */
+	public synchronized void addCounterListener(CounterListener listener) {
+		counterListeners.add(listener);
+		counters.values().forEach(
+				counter -> listener.onCreated(counter.instance, counter.requests));
+	}
+
+	private LongAdder counter(ServiceInstance serviceInstance) {
+		String key = NacosBalancer.getInstanceKey(serviceInstance);
+		Counter counter = counters.get(key);
+		if (counter == null) {
+			counter = createCounter(key, serviceInstance);
+		}
+		return counter.requests;
+	}
+
+	private synchronized Counter createCounter(String key,
+			ServiceInstance serviceInstance) {
+		Counter counter = counters.get(key);
+		if (counter == null) {
+			counter = new Counter(serviceInstance, new LongAdder());
+			counters.put(key, counter);
+			for (CounterListener listener : counterListeners) {
+				listener.onCreated(serviceInstance, counter.requests);
+			}
+		}
+		return counter;
+	}
+
+	private synchronized void removeCounter(String key, Counter counter) {
+		if (counters.remove(key, counter)) {
+			for (CounterListener listener : counterListeners) {
+				listener.onRemoved(counter.instance);
+			}
+		}
+	}
+
+	/**
+	 * Callback notified when the counter of an instance is created or released.
+	 */
+	public interface CounterListener {
+
+		/**
+		 * @param serviceInstance instance the counter was created for
+		 * @param requests requests in flight to the instance
+		 */
+		void onCreated(ServiceInstance serviceInstance, LongAdder requests);
+
+		/**
+		 * @param serviceInstance instance whose counter was released
+		 */
+		void onRemoved(ServiceInstance serviceInstance);
+
+	}
+
+	private record Counter(ServiceInstance instance, LongAdder requests) {
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of {@link LabelRoutingServiceInstanceFilter}.
+ * <pre>
+ * spring.cloud.loadbalancer.nacos.label-routing:
+ *   enabled: true
+ *   headers:
+ *     version: X-Version
+ *     tenant: X-Tenant
+ *   splits:
+ *     - labels:
+ *         version: canary
+ *       percent: 10
+ * </pre>
+ *
+ * @since 2023.0.1.3
+ */
+@ConfigurationProperties(LabelRoutingProperties.PREFIX)
+public class LabelRoutingProperties {
+
+	/**
+	 * Prefix of {@link LabelRoutingProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.loadbalancer.nacos.label-routing";
+
+	/**
+	 * Route requests to the instances whose metadata labels match the request headers.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Request header carrying the wanted value of each metadata label, by label.
+	 */
+	private Map<String, String> headers = new LinkedHashMap<>();
+
+	/**
+	 * Percentages of the requests without routing headers sent to label groups. The
+	 * remaining requests go to the instances outside every group, so a group declared
+	 * with a percentage of 0 is only reached through the routing headers.
+	 */
+	private List<Split> splits = new ArrayList<>();
+
+	/**
+	 * Use all instances when none matches the requested labels, instead of none.
+	 */
+	private boolean fallbackToAll = true;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	public void setHeaders(Map<String, String> headers) {
+		this.headers = headers;
+	}
+
+	public List<Split> getSplits() {
+		return splits;
+	}
+
+	public void setSplits(List<Split> splits) {
+		this.splits = splits;
+	}
+
+	public boolean isFallbackToAll() {
+		return fallbackToAll;
+	}
+
+	public void setFallbackToAll(boolean fallbackToAll) {
+		this.fallbackToAll = fallbackToAll;
+	}
+
+	/**
+	 * Share of the traffic sent to the instances carrying some labels.
+	 */
+	public static class Split {
+
+		/**
+		 * Metadata labels the instances of the group carry.
+		 */
+		private Map<String, String> labels = new LinkedHashMap<>();
+
+		/**
+		 * Percentage of the requests sent to the group.
+		 */
+		private int percent;
+
+		public Map<String, String> getLabels() {
+			return labels;
+		}
+
+		public void setLabels(Map<String, String> labels) {
+			this.labels = labels;
+		}
+
+		public int getPercent() {
+			return percent;
+		}
+
+		public void setPercent(int percent) {
+			this.percent = percent;
+		}
+
+	}
+
+}
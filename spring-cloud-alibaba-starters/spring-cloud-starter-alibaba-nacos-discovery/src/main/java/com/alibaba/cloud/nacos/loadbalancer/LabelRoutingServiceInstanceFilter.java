@@ -0,0 +1,258 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Routes requests by instance metadata labels, for gray and canary releases. A request
+ * carrying the headers configured in {@link LabelRoutingProperties#getHeaders()} only
+ * goes to the instances whose labels have the requested values; requests without them
+ * are split between label groups by percentage, the rest going to the instances outside
+ * every group.
+ * <p>
+ * The labels are kept in an inverted index, from each {@code key=value} to the set of
+ * instances carrying it, rebuilt only when the instance list changes. Resolving a
+ * request is a few set intersections, without reading the metadata of any instance.
+ * The weights of the candidates, warm-up included, are kept.
+ *
+ * @since 2023.0.1.3
+ */
+public class LabelRoutingServiceInstanceFilter implements ServiceInstanceFilter {
+
+	private static final BitSet NONE = new BitSet();
+
+	private final LabelRoutingProperties properties;
+
+	private final Map<String, LabelIndex> indexes = new ConcurrentHashMap<>();
+
+	public LabelRoutingServiceInstanceFilter(LabelRoutingProperties properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	public List<ServiceInstance> filterInstance(Request<?> request,
+			List<ServiceInstance> serviceInstances) {
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return serviceInstances;
+		}
+		LabelIndex index = getIndex(serviceInstances);
+		BitSet selected = selectByHeaders(request, index);
+		if (selected == null) {
+			selected = selectBySplit(index);
+		}
+		if (selected == null) {
+			return serviceInstances;
+		}
+		if (selected.isEmpty()) {
+			return properties.isFallbackToAll() ? serviceInstances
+					: Collections.emptyList();
+		}
+		return index.instances.select(selected);
+	}
+
+	@Override
+	public int getOrder() {
+		return 0;
+	}
+
+	private LabelIndex getIndex(List<ServiceInstance> serviceInstances) {
+		String key = String.valueOf(serviceInstances.get(0).getServiceId());
+		Map<String, String> headers = properties.getHeaders();
+		List<LabelRoutingProperties.Split> splits = properties.getSplits();
+		LabelIndex index = indexes.get(key);
+		if (index == null || index.headers != headers || index.splits != splits
+				|| !index.isBuiltFrom(serviceInstances)) {
+			index = new LabelIndex(serviceInstances, headers, splits);
+			indexes.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Instances matching the routing headers of the request.
+	 * @return {@code null} if the request has no routing header
+	 */
+	private BitSet selectByHeaders(Request<?> request, LabelIndex index) {
+		HttpHeaders headers = getHeaders(request);
+		if (headers == null || index.headers.isEmpty()) {
+			return null;
+		}
+		BitSet selected = null;
+		boolean shared = true;
+		for (Map.Entry<String, String> entry : index.headers.entrySet()) {
+			String value = headers.getFirst(entry.getValue());
+			if (value == null) {
+				continue;
+			}
+			BitSet matching = index.get(entry.getKey(), value);
+			if (matching == null) {
+				return NONE;
+			}
+			if (selected == null) {
+				selected = matching;
+			}
+			else {
+				if (shared) {
+					selected = (BitSet) selected.clone();
+					shared = false;
+				}
+				selected.and(matching);
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Instances of the label group the request is split to, or the instances outside
+	 * every group for the remaining requests.
+	 * @return {@code null} if no split is configured
+	 */
+	private BitSet selectBySplit(LabelIndex index) {
+		int size = index.splitInstances.size();
+		if (size == 0) {
+			return null;
+		}
+		int point = ThreadLocalRandom.current().nextInt(100);
+		int cumulative = 0;
+		for (int i = 0; i < size; i++) {
+			cumulative += index.splits.get(i).getPercent();
+			if (point < cumulative) {
+				return index.splitInstances.get(i);
+			}
+		}
+		return index.unsplitInstances;
+	}
+
+	private static HttpHeaders getHeaders(Request<?> request) {
+		if (request == null
+				|| !(request.getContext() instanceof RequestDataContext context)) {
+			return null;
+		}
+		RequestData data = context.getClientRequest();
+		return data == null ? null : data.getHeaders();
+	}
+
+	private static final class LabelIndex {
+
+		private final List<ServiceInstance> source;
+
+		private final WeightedServiceInstanceList instances;
+
+		private final Map<String, String> headers;
+
+		private final List<LabelRoutingProperties.Split> splits;
+
+		/**
+		 * Instances by label key, then label value.
+		 */
+		private final Map<String, Map<String, BitSet>> labels = new HashMap<>();
+
+		/**
+		 * Instances of each split, in the order of {@link #splits}.
+		 */
+		private final List<BitSet> splitInstances;
+
+		/**
+		 * Instances outside every split.
+		 */
+		private final BitSet unsplitInstances;
+
+		LabelIndex(List<ServiceInstance> source, Map<String, String> headers,
+				List<LabelRoutingProperties.Split> splits) {
+			this.source = source;
+			this.instances = WeightedServiceInstanceList.of(source);
+			this.headers = headers;
+			this.splits = splits;
+
+			// Only index the labels that routing can ask for.
+			Set<String> keys = new HashSet<>(headers.keySet());
+			for (LabelRoutingProperties.Split split : splits) {
+				keys.addAll(split.getLabels().keySet());
+			}
+			int size = instances.size();
+			for (int i = 0; i < size; i++) {
+				Map<String, String> metadata = instances.get(i).getMetadata();
+				if (metadata == null) {
+					continue;
+				}
+				for (String key : keys) {
+					String value = metadata.get(key);
+					if (value != null) {
+						labels.computeIfAbsent(key, k -> new HashMap<>())
+								.computeIfAbsent(value, v -> new BitSet(size)).set(i);
+					}
+				}
+			}
+
+			this.splitInstances = new ArrayList<>(splits.size());
+			this.unsplitInstances = new BitSet(size);
+			this.unsplitInstances.set(0, size);
+			for (LabelRoutingProperties.Split split : splits) {
+				BitSet matching = null;
+				for (Map.Entry<String, String> label : split.getLabels().entrySet()) {
+					BitSet bits = get(label.getKey(), label.getValue());
+					if (bits == null) {
+						matching = NONE;
+						break;
+					}
+					if (matching == null) {
+						matching = (BitSet) bits.clone();
+					}
+					else {
+						matching.and(bits);
+					}
+				}
+				matching = matching == null ? NONE : matching;
+				this.splitInstances.add(matching);
+				this.unsplitInstances.andNot(matching);
+			}
+		}
+
+		BitSet get(String key, String value) {
+			Map<String, BitSet> values = labels.get(key);
+			return values == null ? null : values.get(value);
+		}
+
+		/**
+		 * Whether the index was built from the same instances with the same weights,
+		 * which change at each step of the warm-up.
+		 */
+		boolean isBuiltFrom(List<ServiceInstance> serviceInstances) {
+			return WeightedServiceInstanceList.isSame(source, serviceInstances);
+		}
+
+	}
+
+}
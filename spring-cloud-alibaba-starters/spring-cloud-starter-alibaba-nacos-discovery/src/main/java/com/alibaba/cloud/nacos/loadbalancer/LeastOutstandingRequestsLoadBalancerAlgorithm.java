@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * Least outstanding requests: choose the instance with the fewest requests in flight
+ * relative to its {@code nacos.weight}, i.e. the lowest {@code (inFlight + 1) / weight}.
+ * Ties are broken at random so that idle instances share the load. A slow instance
+ * accumulates in-flight requests and stops receiving new ones until it catches up.
+ * <p>
+ * In-flight counts come from {@link InFlightRequestTracker}. With
+ * {@code spring.cloud.loadbalancer.nacos.algorithm=least-outstanding-requests}, the
+ * tracker and this algorithm are registered for every service by
+ * {@link LoadBalancerNacosAutoConfiguration}. To use the algorithm for some services
+ * only, register the tracker as a bean of the application context along with the
+ * algorithms, so that it receives the LoadBalancer lifecycle callbacks.
+ *
+ * @since 2023.0.1.3
+ */
+public class LeastOutstandingRequestsLoadBalancerAlgorithm implements LoadBalancerAlgorithm {
+
+	private final String serviceId;
+
+	private final InFlightRequestTracker inFlightRequestTracker;
+
+	public LeastOutstandingRequestsLoadBalancerAlgorithm(
+			InFlightRequestTracker inFlightRequestTracker) {
+		this(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID, inFlightRequestTracker);
+	}
+
+	public LeastOutstandingRequestsLoadBalancerAlgorithm(String serviceId,
+			InFlightRequestTracker inFlightRequestTracker) {
+		this.serviceId = serviceId;
+		this.inFlightRequestTracker = inFlightRequestTracker;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public ServiceInstance getInstance(Request<?> request, List<ServiceInstance> serviceInstances) {
+		WeightedServiceInstanceList instances = WeightedServiceInstanceList
+				.of(serviceInstances);
+		int size = instances.size();
+		if (size == 0) {
+			return null;
+		}
+		if (size == 1) {
+			return NacosBalancer.preferIPv6(instances.get(0));
+		}
+		int best = -1;
+		double bestScore = Double.MAX_VALUE;
+		int ties = 0;
+		for (int i = 0; i < size; i++) {
+			double weight = instances.getWeight(i);
+			if (weight <= 0) {
+				continue;
+			}
+			double score = (inFlightRequestTracker.getInFlight(instances.get(i)) + 1)
+					/ weight;
+			if (score < bestScore) {
+				bestScore = score;
+				best = i;
+				ties = 1;
+			}
+			else if (score == bestScore
+					&& ThreadLocalRandom.current().nextInt(++ties) == 0) {
+				// Reservoir sampling among equally loaded instances.
+				best = i;
+			}
+		}
+		if (best < 0) {
+			// No instance has a positive weight.
+			return NacosBalancer.preferIPv6(instances.chooseByRandomWeight());
+		}
+		return NacosBalancer.preferIPv6(instances.get(best));
+	}
+
+	@Override
+	public int getOrder() {
+		return 0;
+	}
+
+}
@@ -17,11 +17,16 @@
 package com.alibaba.cloud.nacos.loadbalancer;
 
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+import io.micrometer.core.instrument.MeterRegistry;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
@@ -37,4 +42,149 @@ public class LoadBalancerNacosAutoConfiguration {
 	public LoadBalancerAlgorithm defaultLoadBalancerAlgorithm() {
 		return new DefaultLoadBalancerAlgorithm();
 	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterRegistry.class)
+	static class LoadBalancerNacosMetricsConfiguration {
+
+		/**
+		 * Opt-in, every choice of every load balancer records a few meters.
+		 */
+		@Bean
+		@ConditionalOnMissingBean(NacosLoadBalancerMetrics.class)
+		@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.metrics.enabled", havingValue = "true")
+		public MicrometerNacosLoadBalancerMetrics micrometerNacosLoadBalancerMetrics(
+				Environment environment) {
+			return new MicrometerNacosLoadBalancerMetrics(environment.getProperty(
+					"spring.cloud.loadbalancer.nacos.metrics.max-instance-tags",
+					Integer.class,
+					MicrometerNacosLoadBalancerMetrics.DEFAULT_MAX_INSTANCE_TAGS));
+		}
+
+	}
+
+	/**
+	 * The in-flight request counters cost a lifecycle callback per request, they are
+	 * only kept when an algorithm reading them is selected.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.algorithm", havingValue = "least-outstanding-requests")
+	static class LeastOutstandingRequestsConfiguration {
+
+		/**
+		 * Declared in the parent context so that the lifecycle callbacks of every
+		 * load-balanced client update the same counters.
+		 */
+		@Bean
+		@ConditionalOnMissingBean
+		public InFlightRequestTracker inFlightRequestTracker() {
+			return new InFlightRequestTracker();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public LeastOutstandingRequestsLoadBalancerAlgorithm leastOutstandingRequestsLoadBalancerAlgorithm(
+				InFlightRequestTracker inFlightRequestTracker) {
+			return new LeastOutstandingRequestsLoadBalancerAlgorithm(
+					inFlightRequestTracker);
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnClass(MeterRegistry.class)
+		static class LeastOutstandingRequestsMetricsConfiguration {
+
+			@Bean
+			@ConditionalOnMissingBean
+			public InFlightRequestMeterBinder inFlightRequestMeterBinder(
+					InFlightRequestTracker inFlightRequestTracker) {
+				return new InFlightRequestMeterBinder(inFlightRequestTracker);
+			}
+
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.algorithm", havingValue = "peak-ewma")
+	static class PeakEwmaConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public InFlightRequestTracker inFlightRequestTracker() {
+			return new InFlightRequestTracker();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public PeakEwmaLatencyTracker peakEwmaLatencyTracker() {
+			return new PeakEwmaLatencyTracker();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public PeakEwmaLoadBalancerAlgorithm peakEwmaLoadBalancerAlgorithm(
+				PeakEwmaLatencyTracker peakEwmaLatencyTracker,
+				InFlightRequestTracker inFlightRequestTracker) {
+			return new PeakEwmaLoadBalancerAlgorithm(peakEwmaLatencyTracker,
+					inFlightRequestTracker);
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnClass(MeterRegistry.class)
+		static class PeakEwmaMetricsConfiguration {
+
+			@Bean
+			@ConditionalOnMissingBean
+			public InFlightRequestMeterBinder inFlightRequestMeterBinder(
+					InFlightRequestTracker inFlightRequestTracker) {
+				return new InFlightRequestMeterBinder(inFlightRequestTracker);
+			}
+
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = OutlierDetectionProperties.PREFIX + ".enabled", havingValue = "true")
+	@EnableConfigurationProperties(OutlierDetectionProperties.class)
+	static class OutlierDetectionConfiguration {
+
+		/**
+		 * Both a filter and a lifecycle bean, shared by every load-balanced client.
+		 */
+		@Bean
+		@ConditionalOnMissingBean
+		public OutlierEjectionServiceInstanceFilter outlierEjectionServiceInstanceFilter(
+				OutlierDetectionProperties outlierDetectionProperties) {
+			return new OutlierEjectionServiceInstanceFilter(outlierDetectionProperties);
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnClass(MeterRegistry.class)
+		static class OutlierDetectionMetricsConfiguration {
+
+			@Bean
+			@ConditionalOnMissingBean
+			public OutlierEjectionMeterBinder outlierEjectionMeterBinder(
+					OutlierEjectionServiceInstanceFilter outlierEjectionServiceInstanceFilter) {
+				return new OutlierEjectionMeterBinder(outlierEjectionServiceInstanceFilter);
+			}
+
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = LabelRoutingProperties.PREFIX + ".enabled", havingValue = "true")
+	@EnableConfigurationProperties(LabelRoutingProperties.class)
+	static class LabelRoutingConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public LabelRoutingServiceInstanceFilter labelRoutingServiceInstanceFilter(
+				LabelRoutingProperties labelRoutingProperties) {
+			return new LabelRoutingServiceInstanceFilter(labelRoutingProperties);
+		}
+
+	}
 }
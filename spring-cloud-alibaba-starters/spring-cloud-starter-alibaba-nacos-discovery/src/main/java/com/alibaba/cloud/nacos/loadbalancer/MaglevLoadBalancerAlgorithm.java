@@ -0,0 +1,380 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+
+/**
+ * Consistent hashing with a Maglev lookup table, for services that keep a local cache:
+ * requests with the same key go to the same instance, and a membership change only moves
+ * the keys of the instances that came or went. Instances own a share of the table
+ * proportional to their {@code nacos.weight}; instances with a non-positive weight get
+ * none.
+ * <p>
+ * The key is read from a request header, cookie or query parameter of the
+ * {@link RequestDataContext} of the request. Requests without a key are spread by
+ * weighted random. A lookup hashes the key in place and reads one table entry, it does
+ * not allocate.
+ * <p>
+ * Tables are kept for the last {@value #CACHED_TABLES} candidate sets of every service,
+ * so that filters handing different subsets of the instances to consecutive requests,
+ * such as label routing or outlier ejection, do not rebuild the table on every switch.
+ * A table is built by the first request that sees a new candidate set while concurrent
+ * requests wait for it; the permutation of the instances still present is reused from
+ * the newest table. Instances are sorted by id
+ * before the table is filled, so every client given the same instances, in whatever
+ * order, maps a key to the same instance.
+ * <pre class="code">
+ * &#064;Bean
+ * public LoadBalancerAlgorithm cacheServiceAlgorithm() {
+ *     return new MaglevLoadBalancerAlgorithm("cache-service",
+ *             MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id");
+ * }
+ * </pre>
+ *
+ * @since 2023.0.1.3
+ */
+public class MaglevLoadBalancerAlgorithm implements LoadBalancerAlgorithm {
+
+	/**
+	 * Default lookup table size, a prime well above 100 times the expected number of
+	 * instances.
+	 */
+	public static final int DEFAULT_TABLE_SIZE = 65537;
+
+	private static final long OFFSET_SEED = 0x9E3779B97F4A7C15L;
+
+	private static final long SKIP_SEED = 0xC2B2AE3D27D4EB4FL;
+
+	private static final long KEY_SEED = 0x165667B19E3779F9L;
+
+	/**
+	 * Tables kept per service, about 256KB each with the default table size.
+	 */
+	static final int CACHED_TABLES = 4;
+
+	/**
+	 * Where the hash key is read from.
+	 */
+	public enum KeySource {
+
+		/**
+		 * First value of a request header.
+		 */
+		HEADER,
+
+		/**
+		 * First value of a cookie.
+		 */
+		COOKIE,
+
+		/**
+		 * First value of a query parameter, not decoded.
+		 */
+		QUERY_PARAMETER
+
+	}
+
+	private final String serviceId;
+
+	private final KeySource keySource;
+
+	private final String keyName;
+
+	private final int tableSize;
+
+	private final Map<String, CandidateSetCache<Table>> tables = new ConcurrentHashMap<>();
+
+	public MaglevLoadBalancerAlgorithm(KeySource keySource, String keyName) {
+		this(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID, keySource, keyName);
+	}
+
+	public MaglevLoadBalancerAlgorithm(String serviceId, KeySource keySource,
+			String keyName) {
+		this(serviceId, keySource, keyName, DEFAULT_TABLE_SIZE);
+	}
+
+	public MaglevLoadBalancerAlgorithm(String serviceId, KeySource keySource,
+			String keyName, int tableSize) {
+		if (keySource == null || keyName == null || keyName.isEmpty()) {
+			throw new IllegalArgumentException("keySource and keyName must be set");
+		}
+		if (!isPrime(tableSize)) {
+			throw new IllegalArgumentException("tableSize must be a prime number");
+		}
+		this.serviceId = serviceId;
+		this.keySource = keySource;
+		this.keyName = keyName;
+		this.tableSize = tableSize;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public ServiceInstance getInstance(Request<?> request, List<ServiceInstance> serviceInstances) {
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return null;
+		}
+		if (serviceInstances.size() == 1) {
+			return NacosBalancer.preferIPv6(serviceInstances.get(0));
+		}
+		String key = String.valueOf(serviceInstances.get(0).getServiceId());
+		Table table = tables
+				.computeIfAbsent(key, k -> new CandidateSetCache<>(CACHED_TABLES))
+				.get(serviceInstances,
+						(candidates, newest) -> new Table(candidates, tableSize, newest));
+		long hash = hashKey(request);
+		if (hash == 0 || table.isEmpty()) {
+			return NacosBalancer.preferIPv6(table.weighted.chooseByRandomWeight());
+		}
+		return NacosBalancer.preferIPv6(table.lookup(hash));
+	}
+
+	@Override
+	public int getOrder() {
+		return 0;
+	}
+
+	/**
+	 * Hash of the request key.
+	 * @param request load balancer request
+	 * @return the hash, {@code 0} when the request has no key
+	 */
+	long hashKey(Request<?> request) {
+		if (request == null
+				|| !(request.getContext() instanceof RequestDataContext context)
+				|| context.getClientRequest() == null) {
+			return 0;
+		}
+		RequestData data = context.getClientRequest();
+		String value = null;
+		switch (keySource) {
+		case HEADER:
+			value = data.getHeaders() == null ? null : data.getHeaders().getFirst(keyName);
+			break;
+		case COOKIE:
+			value = data.getCookies() == null ? null : data.getCookies().getFirst(keyName);
+			break;
+		case QUERY_PARAMETER:
+			return hashQueryParameter(data.getUrl());
+		default:
+			break;
+		}
+		return value == null ? 0 : nonZero(hash(value, 0, value.length(), KEY_SEED));
+	}
+
+	private long hashQueryParameter(URI url) {
+		String query = url == null ? null : url.getRawQuery();
+		if (query == null) {
+			return 0;
+		}
+		int nameLength = keyName.length();
+		int start = 0;
+		int length = query.length();
+		while (start < length) {
+			int end = query.indexOf('&', start);
+			if (end < 0) {
+				end = length;
+			}
+			if (end - start > nameLength && query.charAt(start + nameLength) == '='
+					&& query.regionMatches(start, keyName, 0, nameLength)) {
+				return nonZero(hash(query, start + nameLength + 1, end, KEY_SEED));
+			}
+			start = end + 1;
+		}
+		return 0;
+	}
+
+	private static long nonZero(long hash) {
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * FNV-1a over the chars of the given range, followed by the MurmurHash3 finalizer.
+	 */
+	static long hash(CharSequence value, int from, int to, long seed) {
+		long h = 0xCBF29CE484222325L ^ seed;
+		for (int i = from; i < to; i++) {
+			h ^= value.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static boolean isPrime(int n) {
+		if (n < 2) {
+			return false;
+		}
+		for (int i = 2; (long) i * i <= n; i++) {
+			if (n % i == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class Table {
+
+		private final WeightedServiceInstanceList weighted;
+
+		private final String[] keys;
+
+		/**
+		 * Offset and skip of each instance, which only depend on its key.
+		 */
+		private final long[][] permutations;
+
+		/**
+		 * Index of the instance owning each entry, {@code -1} if no instance has a
+		 * positive weight.
+		 */
+		private final int[] entries;
+
+		Table(List<ServiceInstance> serviceInstances, int tableSize, Table previous) {
+			this.weighted = sortByKey(WeightedServiceInstanceList.of(serviceInstances));
+			int size = weighted.size();
+			this.keys = new String[size];
+			this.permutations = new long[size][];
+			Map<String, long[]> previousPermutations = previous == null ? Map.of()
+					: previous.permutationsByKey();
+			for (int i = 0; i < size; i++) {
+				keys[i] = NacosBalancer.getInstanceKey(weighted.get(i));
+				long[] permutation = previousPermutations.get(keys[i]);
+				if (permutation == null) {
+					permutation = new long[] {
+							Long.remainderUnsigned(
+									hash(keys[i], 0, keys[i].length(), OFFSET_SEED),
+									tableSize),
+							Long.remainderUnsigned(
+									hash(keys[i], 0, keys[i].length(), SKIP_SEED),
+									tableSize - 1) + 1 };
+				}
+				permutations[i] = permutation;
+			}
+			this.entries = populate(tableSize);
+		}
+
+		/**
+		 * The instances ordered by key, keeping their weights, since the table depends
+		 * on the order in which the instances take their turns.
+		 */
+		private static WeightedServiceInstanceList sortByKey(
+				WeightedServiceInstanceList instances) {
+			int size = instances.size();
+			String[] instanceKeys = new String[size];
+			Integer[] order = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				instanceKeys[i] = NacosBalancer.getInstanceKey(instances.get(i));
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparing(i -> instanceKeys[i]));
+			ServiceInstance[] sorted = new ServiceInstance[size];
+			double[] weights = new double[size];
+			for (int i = 0; i < size; i++) {
+				sorted[i] = instances.get(order[i]);
+				weights[i] = instances.getWeight(order[i]);
+			}
+			return WeightedServiceInstanceList.of(sorted, weights);
+		}
+
+		/**
+		 * Fill the table as described in the Maglev paper, every instance taking its
+		 * next preferred free entry in turn. Instances lighter than the heaviest one skip
+		 * turns, so that they fill a share of the table proportional to their weight.
+		 */
+		private int[] populate(int tableSize) {
+			int[] table = new int[tableSize];
+			Arrays.fill(table, -1);
+			int size = keys.length;
+			double maxWeight = 0;
+			for (int i = 0; i < size; i++) {
+				maxWeight = Math.max(maxWeight, weighted.getWeight(i));
+			}
+			if (maxWeight <= 0) {
+				return table;
+			}
+			double[] normalizedWeights = new double[size];
+			double[] targets = new double[size];
+			long[] next = new long[size];
+			for (int i = 0; i < size; i++) {
+				normalizedWeights[i] = Math.max(0, weighted.getWeight(i)) / maxWeight;
+			}
+			int filled = 0;
+			for (long iteration = 0; filled < tableSize; iteration++) {
+				for (int i = 0; i < size && filled < tableSize; i++) {
+					if (normalizedWeights[i] <= 0
+							|| iteration * normalizedWeights[i] < targets[i]) {
+						continue;
+					}
+					targets[i] += 1;
+					long offset = permutations[i][0];
+					long skip = permutations[i][1];
+					int entry = (int) ((offset + next[i] * skip) % tableSize);
+					while (table[entry] >= 0) {
+						next[i]++;
+						entry = (int) ((offset + next[i] * skip) % tableSize);
+					}
+					table[entry] = i;
+					next[i]++;
+					filled++;
+				}
+			}
+			return table;
+		}
+
+		private Map<String, long[]> permutationsByKey() {
+			Map<String, long[]> result = new HashMap<>(keys.length * 2);
+			for (int i = 0; i < keys.length; i++) {
+				result.put(keys[i], permutations[i]);
+			}
+			return result;
+		}
+
+		boolean isEmpty() {
+			return entries[0] < 0;
+		}
+
+		ServiceInstance lookup(long hash) {
+			return weighted.get(entries[(int) Long.remainderUnsigned(hash,
+					entries.length)]);
+		}
+
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Records the choices of {@link NacosLoadBalancer} as Micrometer meters, all tagged
+ * with {@code serviceId}:
+ * <ul>
+ * <li>{@value #CHOICE_METRIC_NAME}: timer of the choices, tagged with the outcome</li>
+ * <li>{@value #CANDIDATES_METRIC_NAME}: instances left after each stage, tagged with
+ * the stage</li>
+ * <li>{@value #SPILLS_METRIC_NAME}: choices made outside the preferred locality tier,
+ * tagged with the tier used</li>
+ * <li>{@value #SELECTIONS_METRIC_NAME}: choices of each instance, tagged with its
+ * address</li>
+ * </ul>
+ * Every tag has a bounded set of values; the instance tag is capped per service, the
+ * instances beyond the cap are counted under {@value #OTHER_INSTANCE}, and the meter of
+ * an instance is removed once it leaves the service. Meters are looked up in local
+ * maps, so recording does not go through the registry. Nothing is recorded until the
+ * binder is bound to a registry.
+ *
+ * @since 2023.0.1.3
+ */
+public class MicrometerNacosLoadBalancerMetrics
+		implements NacosLoadBalancerMetrics, NacosInstanceListListener, MeterBinder {
+
+	/**
+	 * Name of the choice timer.
+	 */
+	public static final String CHOICE_METRIC_NAME = "loadbalancer.nacos.choice";
+
+	/**
+	 * Name of the candidates distribution summary.
+	 */
+	public static final String CANDIDATES_METRIC_NAME = "loadbalancer.nacos.candidates";
+
+	/**
+	 * Name of the locality spills counter.
+	 */
+	public static final String SPILLS_METRIC_NAME = "loadbalancer.nacos.locality.spills";
+
+	/**
+	 * Name of the instance selections counter.
+	 */
+	public static final String SELECTIONS_METRIC_NAME = "loadbalancer.nacos.selections";
+
+	/**
+	 * Instance tag of the instances beyond the cap.
+	 */
+	public static final String OTHER_INSTANCE = "other";
+
+	/**
+	 * Default maximum number of instance tags per service.
+	 */
+	public static final int DEFAULT_MAX_INSTANCE_TAGS = 100;
+
+	private final int maxInstanceTags;
+
+	private final Map<String, ServiceMeters> services = new ConcurrentHashMap<>();
+
+	private volatile MeterRegistry registry;
+
+	public MicrometerNacosLoadBalancerMetrics() {
+		this(DEFAULT_MAX_INSTANCE_TAGS);
+	}
+
+	/**
+	 * @param maxInstanceTags maximum number of instances tagged individually per
+	 * service
+	 */
+	public MicrometerNacosLoadBalancerMetrics(int maxInstanceTags) {
+		this.maxInstanceTags = maxInstanceTags;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void recordChoice(String serviceId, String outcome, long durationNanos) {
+		ServiceMeters meters = getServiceMeters(serviceId);
+		if (meters != null) {
+			meters.choices.computeIfAbsent(outcome, key -> Timer
+					.builder(CHOICE_METRIC_NAME)
+					.description("Time taken by the Nacos load balancer to choose an instance")
+					.tag("serviceId", meters.serviceId).tag("outcome", key)
+					.register(meters.registry))
+					.record(durationNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	@Override
+	public void recordCandidates(String serviceId, String stage, int count) {
+		ServiceMeters meters = getServiceMeters(serviceId);
+		if (meters != null) {
+			meters.candidates.computeIfAbsent(stage, key -> DistributionSummary
+					.builder(CANDIDATES_METRIC_NAME)
+					.description("Instances considered by the Nacos load balancer after a stage")
+					.tag("serviceId", meters.serviceId).tag("stage", key)
+					.register(meters.registry)).record(count);
+		}
+	}
+
+	@Override
+	public void recordLocalitySpill(String serviceId, NacosLocality.Tier tier) {
+		ServiceMeters meters = getServiceMeters(serviceId);
+		if (meters != null) {
+			meters.spills.computeIfAbsent(tier, key -> Counter
+					.builder(SPILLS_METRIC_NAME)
+					.description("Choices made outside the preferred locality tier")
+					.tag("serviceId", meters.serviceId)
+					.tag("tier", key.name().toLowerCase(Locale.ROOT))
+					.register(meters.registry)).increment();
+		}
+	}
+
+	@Override
+	public void recordSelection(String serviceId, ServiceInstance instance) {
+		ServiceMeters meters = getServiceMeters(serviceId);
+		if (meters == null) {
+			return;
+		}
+		String address = getAddress(instance);
+		Counter counter = meters.selections.get(address);
+		if (counter == null) {
+			int tagged = meters.selections.size()
+					- (meters.selections.containsKey(OTHER_INSTANCE) ? 1 : 0);
+			if (tagged >= maxInstanceTags) {
+				address = OTHER_INSTANCE;
+			}
+			counter = meters.selections.computeIfAbsent(address, key -> Counter
+					.builder(SELECTIONS_METRIC_NAME)
+					.description("Choices of a service instance by the Nacos load balancer")
+					.tag("serviceId", meters.serviceId).tag("instance", key)
+					.register(meters.registry));
+		}
+		counter.increment();
+	}
+
+	@Override
+	public void onInstanceListChanged(String serviceId,
+			List<ServiceInstance> serviceInstances) {
+		ServiceMeters meters = services.get(String.valueOf(serviceId));
+		if (meters == null || meters.selections.isEmpty()) {
+			return;
+		}
+		Set<String> addresses = new HashSet<>();
+		for (ServiceInstance instance : serviceInstances) {
+			addresses.add(getAddress(instance));
+		}
+		meters.selections.entrySet().removeIf(entry -> {
+			if (OTHER_INSTANCE.equals(entry.getKey())
+					|| addresses.contains(entry.getKey())) {
+				return false;
+			}
+			meters.registry.remove(entry.getValue());
+			return true;
+		});
+	}
+
+	private static String getAddress(ServiceInstance instance) {
+		return instance.getHost() + ":" + instance.getPort();
+	}
+
+	private ServiceMeters getServiceMeters(String serviceId) {
+		MeterRegistry current = this.registry;
+		if (current == null) {
+			return null;
+		}
+		return services.computeIfAbsent(String.valueOf(serviceId),
+				key -> new ServiceMeters(key, current));
+	}
+
+	private static final class ServiceMeters {
+
+		private final String serviceId;
+
+		private final MeterRegistry registry;
+
+		private final Map<String, Timer> choices = new ConcurrentHashMap<>();
+
+		private final Map<String, DistributionSummary> candidates = new ConcurrentHashMap<>();
+
+		private final Map<NacosLocality.Tier, Counter> spills = new ConcurrentHashMap<>();
+
+		private final Map<String, Counter> selections = new ConcurrentHashMap<>();
+
+		ServiceMeters(String serviceId, MeterRegistry registry) {
+			this.serviceId = serviceId;
+			this.registry = registry;
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Notified by {@link NacosLoadBalancer} with the instances of a service whenever they
+ * change, so that state kept per instance can be released once an instance leaves.
+ * Beans of this type are registered with the load balancer of every service.
+ *
+ * @since 2023.0.1.3
+ */
+public interface NacosInstanceListListener {
+
+	/**
+	 * Called from the request thread that first sees the new instances, before an
+	 * instance is chosen from them, or with an empty list once no instance is left.
+	 * Implementations must be fast and thread-safe.
+	 * @param serviceId service id
+	 * @param serviceInstances every instance of the service, before any filter
+	 */
+	void onInstanceListChanged(String serviceId, List<ServiceInstance> serviceInstances);
+
+}
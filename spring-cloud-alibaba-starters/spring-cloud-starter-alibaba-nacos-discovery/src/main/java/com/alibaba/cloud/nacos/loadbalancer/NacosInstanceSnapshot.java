@@ -0,0 +1,310 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Immutable, precompiled view of the instances of one service, as seen by
+ * {@link NacosLoadBalancer}. It is built once per membership change and holds the
+ * local partition, the IPv4/IPv6 partitions and the weighted candidate list, so
+ * choosing an instance does not need to filter or parse anything. The local partition
+ * is the same-cluster instances or, with a {@link NacosLocality}, the first healthy
+ * tier among the local cluster, zone and region. With a
+ * {@link NacosWarmup}, the weights of warming instances are lowered and the snapshot
+ * expires when one of them reaches the next step of its ramp.
+ *
+ * @since 2023.0.1.3
+ */
+final class NacosInstanceSnapshot {
+
+	static final Pattern IPV4_PATTERN = Pattern.compile(
+			"((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})(.((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})){3}");
+
+	static final String CLUSTER_KEY = "nacos.cluster";
+
+	static final String IPV6_KEY = "IPv6";
+
+	private final List<ServiceInstance> source;
+
+	private final String clusterName;
+
+	private final String zone;
+
+	private final String region;
+
+	private final String ipv6;
+
+	private final WeightedServiceInstanceList localInstances;
+
+	private final NacosLocality.Tier tier;
+
+	private final boolean crossCluster;
+
+	private final boolean spilled;
+
+	private final WeightedServiceInstanceList ipv4Instances;
+
+	private final WeightedServiceInstanceList ipv6Instances;
+
+	private final WeightedServiceInstanceList candidates;
+
+	/**
+	 * Epoch millis at which the warm-up weights change, {@link Long#MAX_VALUE} if no
+	 * instance is warming up.
+	 */
+	private final long expiresAt;
+
+	private NacosInstanceSnapshot(List<ServiceInstance> source, String clusterName,
+			String zone, String region, String ipv6, NacosLocality locality,
+			NacosWarmup warmup, long now) {
+		this.source = source;
+		this.clusterName = clusterName;
+		this.zone = locality == null ? null : zone;
+		this.region = locality == null ? null : region;
+		this.ipv6 = ipv6;
+
+		WeightedServiceInstanceList all = WeightedServiceInstanceList.of(source);
+		long warmupEnd = Long.MAX_VALUE;
+		if (warmup != null) {
+			int size = all.size();
+			ServiceInstance[] instances = new ServiceInstance[size];
+			double[] weights = new double[size];
+			for (int i = 0; i < size; i++) {
+				instances[i] = all.get(i);
+				weights[i] = all.getWeight(i);
+				long registerTime = NacosWarmup.getRegisterTime(instances[i]);
+				int step = warmup.getStep(registerTime, now);
+				if (step >= 0) {
+					weights[i] *= warmup.getFactor(step);
+					warmupEnd = Math.min(warmupEnd,
+							warmup.getStepEnd(registerTime, now, step));
+				}
+			}
+			if (warmupEnd != Long.MAX_VALUE) {
+				all = WeightedServiceInstanceList.of(instances, weights);
+			}
+		}
+		this.expiresAt = warmupEnd;
+		NacosLocality.Tier localTier = NacosLocality.Tier.ANY;
+		WeightedServiceInstanceList local = all;
+		boolean preferLocal = false;
+		if (StringUtils.isNotBlank(clusterName)) {
+			preferLocal = true;
+			WeightedServiceInstanceList sameCluster = all.filter(instance -> StringUtils
+					.equals(instance.getMetadata().get(CLUSTER_KEY), clusterName));
+			if (NacosLocality.isHealthy(sameCluster,
+					countRegistered(source, CLUSTER_KEY, clusterName, sameCluster),
+					locality == null ? 0
+							: locality.getMinRatio(NacosLocality.Tier.CLUSTER))) {
+				localTier = NacosLocality.Tier.CLUSTER;
+				local = sameCluster;
+			}
+		}
+		if (localTier == NacosLocality.Tier.ANY && StringUtils.isNotBlank(this.zone)) {
+			preferLocal = true;
+			WeightedServiceInstanceList sameZone = all.filter(instance -> StringUtils
+					.equals(instance.getMetadata().get(NacosLocality.ZONE_KEY), zone));
+			if (NacosLocality.isHealthy(sameZone,
+					countRegistered(source, NacosLocality.ZONE_KEY, zone, sameZone),
+					locality.getMinRatio(NacosLocality.Tier.ZONE))) {
+				localTier = NacosLocality.Tier.ZONE;
+				local = sameZone;
+			}
+		}
+		if (localTier == NacosLocality.Tier.ANY
+				&& StringUtils.isNotBlank(this.region)) {
+			preferLocal = true;
+			WeightedServiceInstanceList sameRegion = all
+					.filter(instance -> StringUtils.equals(
+							instance.getMetadata().get(NacosLocality.REGION_KEY), region));
+			if (NacosLocality.isHealthy(sameRegion,
+					countRegistered(source, NacosLocality.REGION_KEY, region,
+							sameRegion),
+					locality.getMinRatio(NacosLocality.Tier.REGION))) {
+				localTier = NacosLocality.Tier.REGION;
+				local = sameRegion;
+			}
+		}
+		this.localInstances = local;
+		this.tier = localTier;
+		this.crossCluster = StringUtils.isNotBlank(clusterName)
+				&& localTier != NacosLocality.Tier.CLUSTER;
+		this.spilled = (preferLocal && localTier == NacosLocality.Tier.ANY)
+				|| this.crossCluster;
+		WeightedServiceInstanceList clusterInstances = local;
+
+		this.ipv4Instances = clusterInstances.filter(NacosInstanceSnapshot::isIpv4);
+		// Instances reachable over IPv6: either registered with an IPv6 address, or
+		// registered with IPv4 and advertising an IPv6 address in metadata.
+		this.ipv6Instances = clusterInstances.filter(instance -> !isIpv4(instance)
+				|| StringUtils.isNotEmpty(instance.getMetadata().get(IPV6_KEY)));
+		if (StringUtils.isNotEmpty(ipv6) && !this.ipv6Instances.isEmpty()) {
+			this.candidates = this.ipv6Instances;
+		}
+		else {
+			// Provider has no IPv6, should use IPv4.
+			this.candidates = this.ipv4Instances;
+		}
+	}
+
+	static NacosInstanceSnapshot build(List<ServiceInstance> serviceInstances,
+			String clusterName, String ipv6) {
+		return build(serviceInstances, clusterName, ipv6, null, 0);
+	}
+
+	static NacosInstanceSnapshot build(List<ServiceInstance> serviceInstances,
+			String clusterName, String ipv6, NacosWarmup warmup, long now) {
+		return build(serviceInstances, clusterName, null, null, ipv6, null, warmup, now);
+	}
+
+	static NacosInstanceSnapshot build(List<ServiceInstance> serviceInstances,
+			String clusterName, String zone, String region, String ipv6,
+			NacosLocality locality, NacosWarmup warmup, long now) {
+		return new NacosInstanceSnapshot(serviceInstances, clusterName, zone, region,
+				ipv6, locality, warmup, now);
+	}
+
+	/**
+	 * Number of instances registered in a tier, healthy or not, when the supplier
+	 * published them, otherwise the number of healthy ones.
+	 */
+	private static int countRegistered(List<ServiceInstance> source, String key,
+			String value, WeightedServiceInstanceList tierInstances) {
+		if (source instanceof NacosServiceInstanceList list) {
+			return list.countRegistered(key, value);
+		}
+		return tierInstances.size();
+	}
+
+	static boolean isIpv4(ServiceInstance instance) {
+		return IPV4_PATTERN.matcher(instance.getHost()).matches();
+	}
+
+	/**
+	 * Whether this snapshot was built from the same instances and local settings. The
+	 * reference check covers suppliers that keep emitting the same list; otherwise the
+	 * instances are compared element by element, without building new lists. Lists
+	 * emitted by a supplier are expected not to be modified afterwards.
+	 * @param serviceInstances instances returned by the supplier
+	 * @param clusterName local cluster name
+	 * @param zone local zone
+	 * @param region local region
+	 * @param ipv6 local IPv6 address
+	 * @return true if the snapshot can be reused
+	 */
+	boolean isBuiltFrom(List<ServiceInstance> serviceInstances, String clusterName,
+			String zone, String region, String ipv6) {
+		if (!StringUtils.equals(this.clusterName, clusterName)
+				|| !StringUtils.equals(this.zone, zone)
+				|| !StringUtils.equals(this.region, region)
+				|| !StringUtils.equals(this.ipv6, ipv6)) {
+			return false;
+		}
+		if (this.source == serviceInstances) {
+			return true;
+		}
+		// The health of the tiers changes with the registered instances too.
+		if (this.source instanceof NacosServiceInstanceList previous) {
+			if (!(serviceInstances instanceof NacosServiceInstanceList list)
+					|| !previous.isRegisteredAs(list)) {
+				return false;
+			}
+		}
+		else if (serviceInstances instanceof NacosServiceInstanceList) {
+			return false;
+		}
+		int size = serviceInstances.size();
+		if (this.source.size() != size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (!this.source.get(i).equals(serviceInstances.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the warm-up weights of this snapshot are out of date.
+	 * @param now current time, in epoch millis
+	 * @return true if the snapshot must be rebuilt
+	 */
+	boolean isExpired(long now) {
+		return expiresAt != Long.MAX_VALUE && now >= expiresAt;
+	}
+
+	/**
+	 * @return true if the weight of some instance is lowered by the warm-up
+	 */
+	boolean isWarmingUp() {
+		return expiresAt != Long.MAX_VALUE;
+	}
+
+	List<ServiceInstance> getSource() {
+		return source;
+	}
+
+	/**
+	 * @return instances of the chosen locality tier, before the IP type filter
+	 */
+	WeightedServiceInstanceList getLocalInstances() {
+		return localInstances;
+	}
+
+	NacosLocality.Tier getTier() {
+		return tier;
+	}
+
+	/**
+	 * @return true if a cluster is configured but the instances are not chosen from it
+	 */
+	boolean isCrossCluster() {
+		return crossCluster;
+	}
+
+	/**
+	 * @return true if a local cluster, zone or region is configured but the instances
+	 * are chosen from a wider tier than the preferred one
+	 */
+	boolean isSpilled() {
+		return spilled;
+	}
+
+	WeightedServiceInstanceList getIpv4Instances() {
+		return ipv4Instances;
+	}
+
+	WeightedServiceInstanceList getIpv6Instances() {
+		return ipv6Instances;
+	}
+
+	/**
+	 * @return instances left after the cluster and IP type filters
+	 */
+	WeightedServiceInstanceList getCandidates() {
+		return candidates;
+	}
+
+}
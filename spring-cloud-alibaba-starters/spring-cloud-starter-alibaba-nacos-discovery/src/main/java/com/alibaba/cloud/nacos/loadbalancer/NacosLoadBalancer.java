@@ -16,16 +16,16 @@
 
 package com.alibaba.cloud.nacos.loadbalancer;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.util.InetIPv6Utils;
-import com.alibaba.nacos.client.naming.utils.CollectionUtils;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,15 +52,18 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 
 	private static final Logger log = LoggerFactory.getLogger(NacosLoadBalancer.class);
 
+	/**
+	 * Minimum time between two warnings about traffic leaving the local tier.
+	 */
+	static final long SPILL_WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
 	private final String serviceId;
 
 	private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
 
 	private final NacosDiscoveryProperties nacosDiscoveryProperties;
 
-	private static final String IPV4_REGEX = "((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})(.((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})){3}";
-
-	private static final String IPV6_KEY = "IPv6";
+	private static final String IPV6_KEY = NacosInstanceSnapshot.IPV6_KEY;
 	/**
 	 * Storage local valid IPv6 address, it's a flag whether local machine support IPv6 address stack.
 	 */
@@ -70,47 +73,46 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 
 	private final List<ServiceInstanceFilter> serviceInstanceFilters;
 
-	private final Map<String, LoadBalancerAlgorithm> loadBalancerAlgorithmMap;
+	private final LoadBalancerAlgorithm loadBalancerAlgorithm;
+
+	/**
+	 * Slow start of new instances, {@code null} if disabled.
+	 */
+	private volatile NacosWarmup warmup;
+
+	/**
+	 * Zone and region tiers, {@code null} to only prefer the local cluster.
+	 */
+	private volatile NacosLocality locality;
+
+	/**
+	 * Receives the statistics of every choice, {@code null} to record nothing.
+	 */
+	private volatile NacosLoadBalancerMetrics metrics;
+
+	private volatile List<NacosInstanceListListener> instanceListListeners = Collections
+			.emptyList();
+
+	private final AtomicLong lastSpillWarning = new AtomicLong(System.nanoTime()
+			- SPILL_WARNING_INTERVAL);
+
+	/**
+	 * Instances of the service as of the last membership change.
+	 */
+	private volatile NacosInstanceSnapshot snapshot;
 
 	@PostConstruct
 	public void init() {
 		String ip = nacosDiscoveryProperties.getIp();
 		if (StringUtils.isNotEmpty(ip)) {
-			ipv6 = Pattern.matches(IPV4_REGEX, ip) ? nacosDiscoveryProperties.getMetadata().get(IPV6_KEY) : ip;
+			ipv6 = NacosInstanceSnapshot.IPV4_PATTERN.matcher(ip).matches()
+					? nacosDiscoveryProperties.getMetadata().get(IPV6_KEY) : ip;
 		}
 		else {
 			ipv6 = inetIPv6Utils.findIPv6Address();
 		}
 	}
 
-	private List<ServiceInstance> filterInstanceByIpType(List<ServiceInstance> instances) {
-		if (StringUtils.isNotEmpty(ipv6)) {
-			List<ServiceInstance> ipv6InstanceList = new ArrayList<>();
-			for (ServiceInstance instance : instances) {
-				if (Pattern.matches(IPV4_REGEX, instance.getHost())) {
-					if (StringUtils.isNotEmpty(instance.getMetadata().get(IPV6_KEY))) {
-						ipv6InstanceList.add(instance);
-					}
-				}
-				else {
-					ipv6InstanceList.add(instance);
-				}
-			}
-			// Provider has no IPv6, should use IPv4.
-			if (ipv6InstanceList.isEmpty()) {
-				return instances.stream()
-						.filter(instance -> Pattern.matches(IPV4_REGEX, instance.getHost()))
-						.collect(Collectors.toList());
-			}
-			else {
-				return ipv6InstanceList;
-			}
-		}
-		return instances.stream()
-				.filter(instance -> Pattern.matches(IPV4_REGEX, instance.getHost()))
-				.collect(Collectors.toList());
-	}
-
 	public NacosLoadBalancer(
 			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
 			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties, InetIPv6Utils inetIPv6Utils,
@@ -121,7 +123,10 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
 		this.inetIPv6Utils = inetIPv6Utils;
 		this.serviceInstanceFilters = serviceInstanceFilters;
-		this.loadBalancerAlgorithmMap = loadBalancerAlgorithmMap;
+		// Find the corresponding load balancing algorithm through the service ID
+		this.loadBalancerAlgorithm = loadBalancerAlgorithmMap.containsKey(serviceId)
+				? loadBalancerAlgorithmMap.get(serviceId)
+				: loadBalancerAlgorithmMap.get(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID);
 	}
 
 	@Override
@@ -131,56 +136,193 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 		return supplier.get(request).next().map(serviceInstances -> getInstanceResponse(request, serviceInstances));
 	}
 
+	/**
+	 * @param warmupWindow time for a newly registered instance to ramp up to its full
+	 * weight, {@code null} to disable the warm-up
+	 * @param warmupFloor fraction of its weight a new instance starts with
+	 */
+	public void setWarmup(Duration warmupWindow, double warmupFloor) {
+		this.warmup = warmupWindow == null || warmupWindow.isZero() ? null
+				: new NacosWarmup(warmupWindow, warmupFloor);
+		this.snapshot = null;
+	}
+
+	/**
+	 * @param locality zone and region routing tiers, {@code null} to only prefer the
+	 * local cluster
+	 */
+	public void setLocality(NacosLocality locality) {
+		this.locality = locality;
+		this.snapshot = null;
+	}
+
+	/**
+	 * @param metrics receives the statistics of every choice, {@code null} to record
+	 * nothing
+	 */
+	public void setMetrics(NacosLoadBalancerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @param instanceListListeners notified with the instances of the service whenever
+	 * they change
+	 */
+	public void setInstanceListListeners(
+			List<NacosInstanceListListener> instanceListListeners) {
+		this.instanceListListeners = instanceListListeners == null
+				? Collections.emptyList() : instanceListListeners;
+	}
+
 	private Response<ServiceInstance> getInstanceResponse(Request<?> request,
 			List<ServiceInstance> serviceInstances) {
+		NacosLoadBalancerMetrics metrics = this.metrics;
+		long start = metrics == null ? 0 : System.nanoTime();
 		if (serviceInstances.isEmpty()) {
 			log.warn("No servers available for service: {}", this.serviceId);
+			releaseSnapshot();
+			if (metrics != null) {
+				metrics.recordChoice(serviceId, NacosLoadBalancerMetrics.OUTCOME_EMPTY,
+						System.nanoTime() - start);
+			}
 			return new EmptyResponse();
 		}
 
 		try {
-			String clusterName = this.nacosDiscoveryProperties.getClusterName();
-
-			List<ServiceInstance> instancesToChoose = serviceInstances;
-			if (StringUtils.isNotBlank(clusterName)) {
-				List<ServiceInstance> sameClusterInstances = serviceInstances.stream()
-						.filter(serviceInstance -> {
-							String cluster = serviceInstance.getMetadata()
-									.get("nacos.cluster");
-							return StringUtils.equals(cluster, clusterName);
-						}).collect(Collectors.toList());
-				if (!CollectionUtils.isEmpty(sameClusterInstances)) {
-					instancesToChoose = sameClusterInstances;
-				}
-			}
-			else {
-				log.warn(
-						"A cross-cluster call occurs，name = {}, clusterName = {}, instance = {}",
-						serviceId, clusterName, serviceInstances);
+			NacosInstanceSnapshot snapshot = getSnapshot(serviceInstances);
+			List<ServiceInstance> instancesToChoose = snapshot.getCandidates();
+			if (metrics != null) {
+				recordSnapshot(metrics, serviceInstances, snapshot);
 			}
-			instancesToChoose = this.filterInstanceByIpType(instancesToChoose);
 
 			// Filter the service list sequentially based on the order number
 			for (ServiceInstanceFilter filter : serviceInstanceFilters) {
 				instancesToChoose = filter.filterInstance(request, instancesToChoose);
+				if (metrics != null) {
+					metrics.recordCandidates(serviceId, filter.getClass().getSimpleName(),
+							instancesToChoose.size());
+				}
 			}
 
-			ServiceInstance instance;
-			// Find the corresponding load balancing algorithm through the service ID and select the final service instance
-			if (loadBalancerAlgorithmMap.containsKey(serviceId)) {
-				instance = loadBalancerAlgorithmMap.get(serviceId).getInstance(request, instancesToChoose);
+			// The warm-up weights only live in the candidates of the snapshot, re-apply
+			// them since a filter may have returned a list weighed otherwise.
+			if (snapshot.isWarmingUp()) {
+				instancesToChoose = snapshot.getCandidates().weigh(instancesToChoose);
 			}
-			else {
-				instance = loadBalancerAlgorithmMap.get(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID)
-						.getInstance(request, instancesToChoose);
+
+			// Select the final service instance
+			ServiceInstance instance = loadBalancerAlgorithm.getInstance(request,
+					instancesToChoose);
+			if (instance == null) {
+				log.warn("No servers available for service: {}", this.serviceId);
+				if (metrics != null) {
+					metrics.recordChoice(serviceId,
+							NacosLoadBalancerMetrics.OUTCOME_EMPTY,
+							System.nanoTime() - start);
+				}
+				return new EmptyResponse();
 			}
 
+			if (metrics != null) {
+				metrics.recordSelection(serviceId, instance);
+				metrics.recordChoice(serviceId, NacosLoadBalancerMetrics.OUTCOME_SUCCESS,
+						System.nanoTime() - start);
+			}
 			return new DefaultResponse(instance);
 		}
 		catch (Exception e) {
 			log.warn("NacosLoadBalancer error", e);
+			if (metrics != null) {
+				metrics.recordChoice(serviceId, NacosLoadBalancerMetrics.OUTCOME_ERROR,
+						System.nanoTime() - start);
+			}
 			return null;
 		}
 	}
 
+	private void recordSnapshot(NacosLoadBalancerMetrics metrics,
+			List<ServiceInstance> serviceInstances, NacosInstanceSnapshot snapshot) {
+		metrics.recordCandidates(serviceId, NacosLoadBalancerMetrics.STAGE_DISCOVERY,
+				serviceInstances.size());
+		metrics.recordCandidates(serviceId, NacosLoadBalancerMetrics.STAGE_LOCALITY,
+				snapshot.getLocalInstances().size());
+		metrics.recordCandidates(serviceId, NacosLoadBalancerMetrics.STAGE_IP_TYPE,
+				snapshot.getCandidates().size());
+		if (snapshot.isSpilled()) {
+			metrics.recordLocalitySpill(serviceId, snapshot.getTier());
+		}
+	}
+
+	/**
+	 * Reuse the snapshot of the previous call unless the instances or the local
+	 * settings changed, or a warming instance reached the next step of its ramp.
+	 * Concurrent rebuilds are harmless, the last one wins.
+	 */
+	NacosInstanceSnapshot getSnapshot(List<ServiceInstance> serviceInstances) {
+		String clusterName = this.nacosDiscoveryProperties.getClusterName();
+		String zone = null;
+		String region = null;
+		Map<String, String> metadata = this.nacosDiscoveryProperties.getMetadata();
+		NacosLocality locality = this.locality;
+		NacosWarmup warmup = this.warmup;
+		if (locality != null && metadata != null) {
+			zone = metadata.get(NacosLocality.ZONE_KEY);
+			region = metadata.get(NacosLocality.REGION_KEY);
+		}
+		String localIpv6 = ipv6;
+		long now = warmup == null ? 0 : System.currentTimeMillis();
+		NacosInstanceSnapshot current = this.snapshot;
+		boolean changed = current == null || !current.isBuiltFrom(serviceInstances,
+				clusterName, zone, region, localIpv6);
+		if (changed || current.isExpired(now)) {
+			current = NacosInstanceSnapshot.build(serviceInstances, clusterName, zone,
+					region, localIpv6, locality, warmup, now);
+			if (current.isSpilled()) {
+				warnSpill(current, clusterName, zone, region);
+			}
+			this.snapshot = current;
+			if (changed) {
+				for (NacosInstanceListListener listener : this.instanceListListeners) {
+					listener.onInstanceListChanged(this.serviceId, serviceInstances);
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Forget the instances once none is left, so that the listeners release the state
+	 * they keep for them.
+	 */
+	private void releaseSnapshot() {
+		if (this.snapshot != null) {
+			this.snapshot = null;
+			for (NacosInstanceListListener listener : this.instanceListListeners) {
+				listener.onInstanceListChanged(this.serviceId, Collections.emptyList());
+			}
+		}
+	}
+
+	/**
+	 * Warn that traffic leaves the preferred tier, at most once per
+	 * {@link #SPILL_WARNING_INTERVAL}, since the snapshot may be rebuilt often while
+	 * instances come and go.
+	 */
+	private void warnSpill(NacosInstanceSnapshot snapshot, String clusterName,
+			String zone, String region) {
+		long now = System.nanoTime();
+		long last = this.lastSpillWarning.get();
+		if (now - last >= SPILL_WARNING_INTERVAL
+				&& this.lastSpillWarning.compareAndSet(last, now)) {
+			log.warn(
+					"A cross-cluster call occurs，name = {}, clusterName = {}, zone = {}, region = {}, tier = {}, instances = {}",
+					serviceId, clusterName, zone, region, snapshot.getTier(),
+					snapshot.getSource().size());
+		}
+		else if (log.isDebugEnabled()) {
+			log.debug("A cross-cluster call occurs，name = {}, tier = {}", serviceId,
+					snapshot.getTier());
+		}
+	}
+
 }
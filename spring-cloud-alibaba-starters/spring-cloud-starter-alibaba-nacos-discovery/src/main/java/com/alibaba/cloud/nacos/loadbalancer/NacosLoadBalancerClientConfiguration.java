@@ -21,11 +21,14 @@ import java.util.List;
 import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.cloud.nacos.util.InetIPv6Utils;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.cloud.client.ConditionalOnBlockingDiscoveryEnabled;
 import org.springframework.cloud.client.ConditionalOnDiscoveryEnabled;
 import org.springframework.cloud.client.ConditionalOnReactiveDiscoveryEnabled;
@@ -46,7 +49,14 @@ import org.springframework.core.env.Environment;
  * <br>
  * 1. LoadBalancerCache causes information such as the weight of the service instance to
  * be changed without immediate effect.<br>
- * 2. Nacos itself supports caching.
+ * 2. Nacos itself supports caching.<br>
+ * <br>
+ * With {@code spring.cloud.loadbalancer.nacos.subscribe-enabled=true}, instances are
+ * pushed by a Nacos subscription instead, see {@link NacosServiceInstanceListSupplier}.
+ * <br>
+ * With {@code spring.cloud.loadbalancer.nacos.warmup-time} set, newly registered
+ * instances ramp up from {@code spring.cloud.loadbalancer.nacos.warmup-floor} of their
+ * weight to the full weight over that time.
  *
  * @author XuDaojie
  * @since 2021.1
@@ -58,6 +68,14 @@ public class NacosLoadBalancerClientConfiguration {
 
 	private static final int REACTIVE_SERVICE_INSTANCE_SUPPLIER_ORDER = 183827465;
 
+	private static final String WARMUP_TIME = "spring.cloud.loadbalancer.nacos.warmup-time";
+
+	private static final String WARMUP_FLOOR = "spring.cloud.loadbalancer.nacos.warmup-floor";
+
+	private static final double DEFAULT_WARMUP_FLOOR = 0.1;
+
+	private static final String LOCALITY_PREFIX = "spring.cloud.loadbalancer.nacos.locality.";
+
 	@Bean
 	@ConditionalOnMissingBean
 	public ReactorLoadBalancer<ServiceInstance> nacosLoadBalancer(Environment environment,
@@ -65,7 +83,9 @@ public class NacosLoadBalancerClientConfiguration {
 			NacosDiscoveryProperties nacosDiscoveryProperties,
 			InetIPv6Utils inetIPv6Utils,
 			List<ServiceInstanceFilter> serviceInstanceFilters,
-			List<LoadBalancerAlgorithm> loadBalancerAlgorithms) {
+			List<LoadBalancerAlgorithm> loadBalancerAlgorithms,
+			ObjectProvider<NacosLoadBalancerMetrics> nacosLoadBalancerMetrics,
+			ObjectProvider<NacosInstanceListListener> nacosInstanceListListeners) {
 		String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
 		Map<String, LoadBalancerAlgorithm> loadBalancerAlgorithmMap = new HashMap<>();
 		loadBalancerAlgorithms.forEach(loadBalancerAlgorithm -> {
@@ -73,11 +93,47 @@ public class NacosLoadBalancerClientConfiguration {
 				loadBalancerAlgorithmMap.put(loadBalancerAlgorithm.getServiceId(), loadBalancerAlgorithm);
 			}
 		});
-		return new NacosLoadBalancer(
+		NacosLoadBalancer loadBalancer = new NacosLoadBalancer(
 				loadBalancerClientFactory.getLazyProvider(name,
 						ServiceInstanceListSupplier.class),
 				name, nacosDiscoveryProperties, inetIPv6Utils,
 				serviceInstanceFilters, loadBalancerAlgorithmMap);
+		String warmupTime = environment.getProperty(WARMUP_TIME);
+		if (warmupTime != null && !warmupTime.isBlank()) {
+			loadBalancer.setWarmup(DurationStyle.detectAndParse(warmupTime),
+					environment.getProperty(WARMUP_FLOOR, Double.class,
+							DEFAULT_WARMUP_FLOOR));
+		}
+		if (environment.getProperty(LOCALITY_PREFIX + "enabled", Boolean.class, false)) {
+			loadBalancer.setLocality(new NacosLocality(
+					environment.getProperty(LOCALITY_PREFIX + "cluster-min-ratio",
+							Double.class, 0D),
+					environment.getProperty(LOCALITY_PREFIX + "zone-min-ratio",
+							Double.class, 0D),
+					environment.getProperty(LOCALITY_PREFIX + "region-min-ratio",
+							Double.class, 0D)));
+		}
+		loadBalancer.setMetrics(nacosLoadBalancerMetrics.getIfAvailable());
+		loadBalancer.setInstanceListListeners(
+				nacosInstanceListListeners.orderedStream().toList());
+		return loadBalancer;
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.nacos.subscribe-enabled", havingValue = "true")
+	@Order(REACTIVE_SERVICE_INSTANCE_SUPPLIER_ORDER - 1)
+	public static class SubscribeSupportConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public ServiceInstanceListSupplier nacosServiceInstanceListSupplier(
+				Environment environment, NacosServiceManager nacosServiceManager,
+				NacosDiscoveryProperties nacosDiscoveryProperties) {
+			return new NacosServiceInstanceListSupplier(
+					environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME),
+					nacosServiceManager, nacosDiscoveryProperties);
+		}
+
 	}
 
 	@Configuration(proxyBeanMethods = false)
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Receives what {@link NacosLoadBalancer} does on every choice. Without a bean of this
+ * type, the load balancer records nothing; see {@link MicrometerNacosLoadBalancerMetrics}
+ * for the Micrometer implementation.
+ *
+ * @since 2023.0.1.3
+ */
+public interface NacosLoadBalancerMetrics {
+
+	/**
+	 * An instance was chosen.
+	 */
+	String OUTCOME_SUCCESS = "success";
+
+	/**
+	 * No instance was available.
+	 */
+	String OUTCOME_EMPTY = "empty";
+
+	/**
+	 * The choice failed.
+	 */
+	String OUTCOME_ERROR = "error";
+
+	/**
+	 * Instances returned by discovery.
+	 */
+	String STAGE_DISCOVERY = "discovery";
+
+	/**
+	 * Instances left after the cluster, zone and region preference.
+	 */
+	String STAGE_LOCALITY = "locality";
+
+	/**
+	 * Instances left after the IP type filter.
+	 */
+	String STAGE_IP_TYPE = "ip-type";
+
+	/**
+	 * Record one choice.
+	 * @param serviceId service id
+	 * @param outcome one of the {@code OUTCOME_*} constants
+	 * @param durationNanos time taken to choose, excluding discovery
+	 */
+	void recordChoice(String serviceId, String outcome, long durationNanos);
+
+	/**
+	 * Record the number of instances left after a stage of a choice.
+	 * @param serviceId service id
+	 * @param stage one of the {@code STAGE_*} constants, or the simple class name of a
+	 * {@link ServiceInstanceFilter}
+	 * @param count number of instances
+	 */
+	void recordCandidates(String serviceId, String stage, int count);
+
+	/**
+	 * Record a choice made outside the preferred locality tier.
+	 * @param serviceId service id
+	 * @param tier tier the instances were chosen from
+	 */
+	void recordLocalitySpill(String serviceId, NacosLocality.Tier tier);
+
+	/**
+	 * Record the chosen instance.
+	 * @param serviceId service id
+	 * @param instance chosen instance
+	 */
+	void recordSelection(String serviceId, ServiceInstance instance);
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+/**
+ * Tiered locality routing: traffic stays in the local cluster, then the local zone,
+ * then the local region, before spilling to every instance. The zone and region of an
+ * instance are read from its {@value #ZONE_KEY} and {@value #REGION_KEY} metadata, and
+ * the local ones from the metadata of the local registration.
+ * <p>
+ * The health of a tier is the ratio of its healthy instances to the instances
+ * registered in it, healthy or not, and a tier is used as long as it holds at least its
+ * minimum ratio. The registered instances are only known when instances are pushed by
+ * {@link NacosServiceInstanceListSupplier}; with other suppliers, which only hand
+ * healthy instances to the load balancer, a tier is used as long as it is not empty.
+ *
+ * @since 2023.0.1.3
+ */
+public final class NacosLocality {
+
+	/**
+	 * Metadata key of the zone of an instance.
+	 */
+	public static final String ZONE_KEY = "zone";
+
+	/**
+	 * Metadata key of the region of an instance.
+	 */
+	public static final String REGION_KEY = "region";
+
+	/**
+	 * Tier the instances were chosen from.
+	 */
+	public enum Tier {
+
+		/**
+		 * Instances of the local cluster.
+		 */
+		CLUSTER,
+
+		/**
+		 * Instances of the local zone.
+		 */
+		ZONE,
+
+		/**
+		 * Instances of the local region.
+		 */
+		REGION,
+
+		/**
+		 * All instances.
+		 */
+		ANY
+
+	}
+
+	private final double clusterMinRatio;
+
+	private final double zoneMinRatio;
+
+	private final double regionMinRatio;
+
+	/**
+	 * @param clusterMinRatio minimum ratio of healthy instances the local cluster must hold
+	 * @param zoneMinRatio minimum ratio of healthy instances the local zone must hold
+	 * @param regionMinRatio minimum ratio of healthy instances the local region must hold
+	 */
+	public NacosLocality(double clusterMinRatio, double zoneMinRatio,
+			double regionMinRatio) {
+		this.clusterMinRatio = checkRatio(clusterMinRatio);
+		this.zoneMinRatio = checkRatio(zoneMinRatio);
+		this.regionMinRatio = checkRatio(regionMinRatio);
+	}
+
+	private static double checkRatio(double ratio) {
+		if (ratio < 0 || ratio > 1) {
+			throw new IllegalArgumentException(
+					"locality minimum ratio must be between 0 and 1");
+		}
+		return ratio;
+	}
+
+	double getMinRatio(Tier tier) {
+		switch (tier) {
+		case CLUSTER:
+			return clusterMinRatio;
+		case ZONE:
+			return zoneMinRatio;
+		case REGION:
+			return regionMinRatio;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Whether the instances of a tier are enough to keep the traffic in it.
+	 * @param tierInstances healthy instances of the local cluster, zone or region
+	 * @param registered instances registered in the tier, healthy or not
+	 * @param minRatio minimum ratio of healthy instances
+	 * @return true if the tier can be used
+	 */
+	static boolean isHealthy(WeightedServiceInstanceList tierInstances, int registered,
+			double minRatio) {
+		if (tierInstances.isEmpty()) {
+			return false;
+		}
+		if (minRatio <= 0) {
+			return true;
+		}
+		int size = tierInstances.size();
+		return size >= minRatio * Math.max(registered, size);
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Healthy instances of a service, as published by
+ * {@link NacosServiceInstanceListSupplier}, along with every instance registered in
+ * Nacos, so that {@link NacosLocality} can tell how many instances of a tier are
+ * healthy.
+ *
+ * @since 2023.0.1.3
+ */
+final class NacosServiceInstanceList extends AbstractList<ServiceInstance>
+		implements RandomAccess {
+
+	private final List<ServiceInstance> instances;
+
+	private final List<Instance> registered;
+
+	/**
+	 * @param instances healthy instances
+	 * @param registered instances registered in Nacos, healthy or not, not modified
+	 * afterwards
+	 */
+	NacosServiceInstanceList(List<ServiceInstance> instances, List<Instance> registered) {
+		this.instances = instances;
+		this.registered = registered;
+	}
+
+	@Override
+	public ServiceInstance get(int index) {
+		return instances.get(index);
+	}
+
+	@Override
+	public int size() {
+		return instances.size();
+	}
+
+	/**
+	 * Count the registered instances that take traffic when healthy, that is the
+	 * enabled instances with a positive weight, whose metadata matches.
+	 * @param key metadata key of the converted instances
+	 * @param value expected value
+	 * @return number of instances, healthy or not
+	 */
+	int countRegistered(String key, String value) {
+		int count = 0;
+		for (Instance instance : registered) {
+			if (instance == null || !instance.isEnabled() || instance.getWeight() <= 0) {
+				continue;
+			}
+			String actual;
+			if (NacosInstanceSnapshot.CLUSTER_KEY.equals(key)) {
+				actual = String.valueOf(instance.getClusterName());
+			}
+			else {
+				Map<String, String> metadata = instance.getMetadata();
+				actual = metadata == null ? null : metadata.get(key);
+			}
+			if (StringUtils.equals(actual, value)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param other another list
+	 * @return true if both lists were published from the same registered instances
+	 */
+	boolean isRegisteredAs(NacosServiceInstanceList other) {
+		return this.registered == other.registered;
+	}
+
+}
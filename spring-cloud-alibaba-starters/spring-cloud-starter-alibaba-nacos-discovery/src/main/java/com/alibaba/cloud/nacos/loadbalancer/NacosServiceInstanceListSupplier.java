@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.NacosInstanceConverter;
+import com.alibaba.cloud.nacos.discovery.ServiceCache;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.Event;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * {@link ServiceInstanceListSupplier} backed by a Nacos subscription.
+ * <p>
+ * The service is subscribed once, the first time instances are requested. The converted
+ * instance list is kept in memory, replaced on every {@link NamingEvent} and replayed to
+ * every caller, so choosing an instance never blocks on the naming client and weight
+ * changes take effect as soon as Nacos pushes them. Instances that a push did not change
+ * are not converted again.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosServiceInstanceListSupplier
+		implements ServiceInstanceListSupplier, EventListener, DisposableBean {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosServiceInstanceListSupplier.class);
+
+	private final String serviceId;
+
+	private final NacosServiceManager nacosServiceManager;
+
+	private final NacosDiscoveryProperties nacosDiscoveryProperties;
+
+	private final NacosInstanceConverter instanceConverter = new NacosInstanceConverter();
+
+	private final Sinks.Many<List<ServiceInstance>> instances = Sinks.many().replay()
+			.latest();
+
+	private final Flux<List<ServiceInstance>> flux = instances.asFlux();
+
+	private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+	private boolean received;
+
+	public NacosServiceInstanceListSupplier(String serviceId,
+			NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties nacosDiscoveryProperties) {
+		this.serviceId = serviceId;
+		this.nacosServiceManager = nacosServiceManager;
+		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public Flux<List<ServiceInstance>> get() {
+		if (!subscribed.get() && subscribed.compareAndSet(false, true)) {
+			// Only the first call pays for the subscription, off the caller's thread.
+			Schedulers.boundedElastic().schedule(this::subscribe);
+		}
+		return flux;
+	}
+
+	private void subscribe() {
+		String group = nacosDiscoveryProperties.getGroup();
+		try {
+			NamingService namingService = nacosServiceManager.getNamingService();
+			namingService.subscribe(serviceId, group, this);
+			// The subscription only notifies on changes, seed the list from the
+			// client cache in case the service was already subscribed. Every
+			// registered instance is read, the locality tiers need the unhealthy ones.
+			publish(namingService.getAllInstances(serviceId, group, true), false);
+		}
+		catch (Exception e) {
+			log.error("subscribe service instance[{}] from nacos error!", serviceId, e);
+			// Let the next call try again.
+			subscribed.set(false);
+			emit(nacosDiscoveryProperties.isFailureToleranceEnabled()
+					? ServiceCache.getInstances(serviceId)
+					: Collections.emptyList(), false);
+		}
+	}
+
+	@Override
+	public void onEvent(Event event) {
+		if (event instanceof NamingEvent namingEvent) {
+			publish(namingEvent.getInstances(), true);
+		}
+	}
+
+	private void publish(List<Instance> instances, boolean pushed) {
+		List<Instance> selected = new ArrayList<>(instances.size());
+		for (Instance instance : instances) {
+			// Same selection as NamingService#selectInstances(.., healthy = true)
+			if (instance.isHealthy() && instance.isEnabled()
+					&& instance.getWeight() > 0) {
+				selected.add(instance);
+			}
+		}
+		// Unchanged instances, or the whole list, are reused from the previous push.
+		List<ServiceInstance> serviceInstances = instanceConverter.convert(selected,
+				serviceId);
+		// Locality tiers weigh the healthy instances against the registered ones.
+		if (emit(new NacosServiceInstanceList(serviceInstances,
+				Collections.unmodifiableList(new ArrayList<>(instances))), pushed)) {
+			ServiceCache.setInstances(serviceId, serviceInstances);
+		}
+	}
+
+	/**
+	 * Emit the instances. A list that was not pushed by Nacos never overrides one that
+	 * was, it may have been read before the push arrived.
+	 */
+	private synchronized boolean emit(List<ServiceInstance> serviceInstances,
+			boolean pushed) {
+		if (!pushed && received) {
+			return false;
+		}
+		received |= pushed;
+		instances.tryEmitNext(serviceInstances);
+		return true;
+	}
+
+	@Override
+	public void destroy() {
+		if (subscribed.compareAndSet(true, false)) {
+			try {
+				nacosServiceManager.getNamingService().unsubscribe(serviceId,
+						nacosDiscoveryProperties.getGroup(), this);
+			}
+			catch (Exception e) {
+				log.error("unsubscribe service instance[{}] from nacos error!",
+						serviceId, e);
+			}
+		}
+	}
+
+}
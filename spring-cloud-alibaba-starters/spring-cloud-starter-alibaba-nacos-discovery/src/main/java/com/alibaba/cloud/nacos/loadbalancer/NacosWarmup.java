@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.registry.NacosRegistration;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Slow start of newly registered instances: during the warm-up window following the
+ * registration timestamp written by
+ * {@link com.alibaba.cloud.nacos.registry.NacosServiceRegistry}, the weight of an
+ * instance ramps from a floor up to its {@code nacos.weight}.
+ * <p>
+ * The ramp is a precomputed staircase of {@value #STEPS} steps, so that the weights only
+ * change, and {@link NacosInstanceSnapshot} is only rebuilt, when an instance enters the
+ * next step. The lowered weights are carried by the weighted candidate list, and
+ * {@link NacosLoadBalancer} weighs the list returned by the
+ * {@link ServiceInstanceFilter}s again from the candidates.
+ *
+ * @since 2023.0.1.3
+ */
+final class NacosWarmup {
+
+	/**
+	 * Number of steps of the ramp.
+	 */
+	static final int STEPS = 10;
+
+	private final long windowMillis;
+
+	private final double[] factors;
+
+	NacosWarmup(Duration window, double floor) {
+		if (window == null || window.isNegative() || window.isZero()) {
+			throw new IllegalArgumentException("warm-up window must be positive");
+		}
+		if (floor < 0 || floor > 1) {
+			throw new IllegalArgumentException("warm-up floor must be between 0 and 1");
+		}
+		this.windowMillis = window.toMillis();
+		this.factors = new double[STEPS];
+		for (int step = 0; step < STEPS; step++) {
+			factors[step] = floor + (1 - floor) * step / STEPS;
+		}
+	}
+
+	/**
+	 * Registration time of an instance.
+	 * @param serviceInstance service instance
+	 * @return epoch millis, or {@code -1} if the instance did not publish it
+	 */
+	static long getRegisterTime(ServiceInstance serviceInstance) {
+		String timestamp = serviceInstance.getMetadata() == null ? null
+				: serviceInstance.getMetadata().get(NacosRegistration.REGISTER_TIMESTAMP);
+		if (StringUtils.isEmpty(timestamp)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(timestamp);
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Step of the ramp an instance is in.
+	 * @param registerTime registration time, in epoch millis
+	 * @param now current time, in epoch millis
+	 * @return the step, or {@code -1} once warmed up
+	 */
+	int getStep(long registerTime, long now) {
+		if (registerTime < 0) {
+			return -1;
+		}
+		// A registration time ahead of the local clock counts as just registered.
+		long elapsed = Math.max(0, now - registerTime);
+		if (elapsed >= windowMillis) {
+			return -1;
+		}
+		return (int) (elapsed * STEPS / windowMillis);
+	}
+
+	double getFactor(int step) {
+		return step < 0 ? 1 : factors[step];
+	}
+
+	/**
+	 * Time at which an instance leaves the given step.
+	 * @param registerTime registration time, in epoch millis
+	 * @param now current time, in epoch millis
+	 * @param step current step, as returned by {@link #getStep(long, long)}
+	 * @return epoch millis, always after {@code now}
+	 */
+	long getStepEnd(long registerTime, long now, int step) {
+		return Math.max(registerTime + ceilDiv((step + 1) * windowMillis, STEPS),
+				now + 1);
+	}
+
+	private static long ceilDiv(long x, long y) {
+		return -Math.floorDiv(-x, y);
+	}
+
+}
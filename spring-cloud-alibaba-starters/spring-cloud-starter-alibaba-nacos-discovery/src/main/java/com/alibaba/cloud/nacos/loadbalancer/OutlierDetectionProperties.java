@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of {@link OutlierEjectionServiceInstanceFilter}.
+ *
+ * @since 2023.0.1.3
+ */
+@ConfigurationProperties(OutlierDetectionProperties.PREFIX)
+public class OutlierDetectionProperties {
+
+	/**
+	 * Prefix of {@link OutlierDetectionProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.loadbalancer.nacos.outlier-detection";
+
+	/**
+	 * Eject instances that fail, are too slow or return server errors, until Nacos
+	 * health checks catch up.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Consecutive failures after which an instance is ejected, 0 to disable.
+	 */
+	private int consecutiveFailures = 5;
+
+	/**
+	 * Failure rate over an interval above which an instance is ejected, 0 to disable.
+	 */
+	private double failureRateThreshold = 0.5;
+
+	/**
+	 * Requests an instance must have served during an interval for its failure rate
+	 * and latency to be evaluated.
+	 */
+	private int minimumRequests = 10;
+
+	/**
+	 * Eject an instance whose average latency exceeds this many times the average of
+	 * the other instances of the service, 0 to disable.
+	 */
+	private double latencyFactor = 3;
+
+	/**
+	 * Length of the interval over which failure rates and latencies are evaluated.
+	 */
+	private Duration interval = Duration.ofSeconds(10);
+
+	/**
+	 * Duration of the first ejection, doubled on every consecutive ejection.
+	 */
+	private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+	/**
+	 * Upper bound of the ejection duration.
+	 */
+	private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+	/**
+	 * Maximum percentage of the instances of a service that can be ejected at once, at
+	 * least one instance can be ejected unless it is 0.
+	 */
+	private int maxEjectionPercent = 50;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	public void setConsecutiveFailures(int consecutiveFailures) {
+		this.consecutiveFailures = consecutiveFailures;
+	}
+
+	public double getFailureRateThreshold() {
+		return failureRateThreshold;
+	}
+
+	public void setFailureRateThreshold(double failureRateThreshold) {
+		this.failureRateThreshold = failureRateThreshold;
+	}
+
+	public int getMinimumRequests() {
+		return minimumRequests;
+	}
+
+	public void setMinimumRequests(int minimumRequests) {
+		this.minimumRequests = minimumRequests;
+	}
+
+	public double getLatencyFactor() {
+		return latencyFactor;
+	}
+
+	public void setLatencyFactor(double latencyFactor) {
+		this.latencyFactor = latencyFactor;
+	}
+
+	public Duration getInterval() {
+		return interval;
+	}
+
+	public void setInterval(Duration interval) {
+		this.interval = interval;
+	}
+
+	public Duration getBaseEjectionTime() {
+		return baseEjectionTime;
+	}
+
+	public void setBaseEjectionTime(Duration baseEjectionTime) {
+		this.baseEjectionTime = baseEjectionTime;
+	}
+
+	public Duration getMaxEjectionTime() {
+		return maxEjectionTime;
+	}
+
+	public void setMaxEjectionTime(Duration maxEjectionTime) {
+		this.maxEjectionTime = maxEjectionTime;
+	}
+
+	public int getMaxEjectionPercent() {
+		return maxEjectionPercent;
+	}
+
+	public void setMaxEjectionPercent(int maxEjectionPercent) {
+		this.maxEjectionPercent = maxEjectionPercent;
+	}
+
+}
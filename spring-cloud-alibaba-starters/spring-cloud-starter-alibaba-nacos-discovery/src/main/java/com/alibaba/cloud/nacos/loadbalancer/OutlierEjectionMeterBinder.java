@@ -0,0 +1,61 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the ejections of {@link OutlierEjectionServiceInstanceFilter} as the
+ * {@code loadbalancer.nacos.outlier.ejections} counter and the
+ * {@code loadbalancer.nacos.outlier.ejected} gauge.
+ *
+ * @since 2023.0.1.3
+ */
+public class OutlierEjectionMeterBinder implements MeterBinder {
+
+	/**
+	 * Name of the ejections counter.
+	 */
+	public static final String EJECTIONS_METRIC_NAME = "loadbalancer.nacos.outlier.ejections";
+
+	/**
+	 * Name of the ejected instances gauge.
+	 */
+	public static final String EJECTED_METRIC_NAME = "loadbalancer.nacos.outlier.ejected";
+
+	private final OutlierEjectionServiceInstanceFilter filter;
+
+	public OutlierEjectionMeterBinder(OutlierEjectionServiceInstanceFilter filter) {
+		this.filter = filter;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter
+				.builder(EJECTIONS_METRIC_NAME, filter,
+						OutlierEjectionServiceInstanceFilter::getEjections)
+				.description("Instances ejected by outlier detection").register(registry);
+		Gauge.builder(EJECTED_METRIC_NAME, filter,
+				OutlierEjectionServiceInstanceFilter::getEjectedInstances)
+				.description("Instances currently ejected by outlier detection")
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * Passive outlier detection: watches the outcome of load-balanced calls and temporarily
+ * removes misbehaving instances from the candidates, without waiting for Nacos health
+ * checks. An instance is ejected after a number of consecutive failures, when its failure
+ * rate over an interval is too high, or when its average latency is a multiple of the
+ * average of the other instances of the service. Failures are failed calls and 5xx
+ * responses.
+ * <p>
+ * Every ejection of the same instance lasts twice as long as the previous one, up to a
+ * maximum; the multiplier goes back down after each healthy interval. An instance is
+ * not ejected while {@code max-ejection-percent} of the instances of its service already
+ * are, at least one instance can always be ejected. Every ejected instance is removed
+ * from the candidates, unless no candidate would be left.
+ * <p>
+ * Statistics are kept per instance in atomic fields and evaluated by the thread that
+ * completes a call once an interval has elapsed, so neither recording nor filtering
+ * takes a lock; only ejecting an instance does. The statistics of an instance are
+ * dropped once it leaves the instance list of its service.
+ *
+ * @since 2023.0.1.3
+ * @see OutlierDetectionProperties
+ */
+public class OutlierEjectionServiceInstanceFilter implements ServiceInstanceFilter,
+		LoadBalancerLifecycle<Object, Object, ServiceInstance>, NacosInstanceListListener {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(OutlierEjectionServiceInstanceFilter.class);
+
+	/**
+	 * Weight of a new latency sample in the moving average.
+	 */
+	private static final double LATENCY_ALPHA = 0.2;
+
+	private static final long FAILURE = 1;
+
+	private static final long REQUEST = 1L << 32;
+
+	private final OutlierDetectionProperties properties;
+
+	private final LongSupplier nanoClock;
+
+	private final Map<String, ServiceStats> services = new ConcurrentHashMap<>();
+
+	private final LongAdder ejections = new LongAdder();
+
+	public OutlierEjectionServiceInstanceFilter(OutlierDetectionProperties properties) {
+		this(properties, System::nanoTime);
+	}
+
+	OutlierEjectionServiceInstanceFilter(OutlierDetectionProperties properties,
+			LongSupplier nanoClock) {
+		this.properties = properties;
+		this.nanoClock = nanoClock;
+	}
+
+	@Override
+	public List<ServiceInstance> filterInstance(Request<?> request,
+			List<ServiceInstance> serviceInstances) {
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return serviceInstances;
+		}
+		ServiceStats serviceStats = services
+				.get(String.valueOf(serviceInstances.get(0).getServiceId()));
+		if (serviceStats == null) {
+			return serviceInstances;
+		}
+		Map<String, Stats> stats = serviceStats.instances;
+		long now = nanoClock.getAsLong();
+		int size = serviceInstances.size();
+		int ejected = 0;
+		for (int i = 0; i < size; i++) {
+			if (isEjected(stats, serviceInstances.get(i), now)) {
+				ejected++;
+			}
+		}
+		if (ejected == 0 || ejected == size) {
+			// Ejected instances are better than none.
+			return serviceInstances;
+		}
+		// Only a weighted list knows the weights of its instances, do not make up new
+		// ones from the metadata.
+		if (serviceInstances instanceof WeightedServiceInstanceList weighted) {
+			return weighted.filter(instance -> !isEjected(stats, instance, now));
+		}
+		List<ServiceInstance> healthy = new ArrayList<>(size - ejected);
+		for (int i = 0; i < size; i++) {
+			ServiceInstance instance = serviceInstances.get(i);
+			if (!isEjected(stats, instance, now)) {
+				healthy.add(instance);
+			}
+		}
+		return healthy;
+	}
+
+	@Override
+	public void onInstanceListChanged(String serviceId,
+			List<ServiceInstance> serviceInstances) {
+		Set<String> keys = new HashSet<>(serviceInstances.size() * 4 / 3 + 1);
+		for (ServiceInstance serviceInstance : serviceInstances) {
+			keys.add(NacosBalancer.getInstanceKey(serviceInstance));
+		}
+		if (keys.isEmpty()) {
+			services.remove(String.valueOf(serviceId));
+			return;
+		}
+		ServiceStats serviceStats = services.computeIfAbsent(String.valueOf(serviceId),
+				key -> new ServiceStats());
+		serviceStats.instanceCount = keys.size();
+		serviceStats.instances.keySet().retainAll(keys);
+	}
+
+	@Override
+	public int getOrder() {
+		// Cap the ejections relative to the candidates left by the other filters.
+		return LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public boolean supports(Class requestContextClass, Class responseClass,
+			Class serverTypeClass) {
+		return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request,
+			Response<ServiceInstance> lbResponse) {
+		if (request != null && request.getContext() instanceof TimedRequestContext context
+				&& context.getRequestStartTime() == 0) {
+			context.setRequestStartTime(nanoClock.getAsLong());
+		}
+	}
+
+	@Override
+	public void onComplete(
+			CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+		if (completionContext.status() == CompletionContext.Status.DISCARD
+				|| lbResponse == null || !lbResponse.hasServer()) {
+			return;
+		}
+		boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+				|| completionContext.getClientResponse() instanceof ResponseData response
+						&& response.getHttpStatus() != null
+						&& response.getHttpStatus().is5xxServerError();
+		long now = nanoClock.getAsLong();
+		long latency = -1;
+		Request<Object> request = completionContext.getLoadBalancerRequest();
+		if (request != null && request.getContext() instanceof TimedRequestContext context
+				&& context.getRequestStartTime() != 0) {
+			latency = now - context.getRequestStartTime();
+		}
+		record(lbResponse.getServer(), failed, latency, now);
+	}
+
+	/**
+	 * Record the outcome of a call.
+	 * @param serviceInstance instance that served the call
+	 * @param failed whether the call failed
+	 * @param latencyNanos latency of the call, negative if unknown
+	 */
+	public void record(ServiceInstance serviceInstance, boolean failed,
+			long latencyNanos) {
+		record(serviceInstance, failed, latencyNanos, nanoClock.getAsLong());
+	}
+
+	private void record(ServiceInstance serviceInstance, boolean failed,
+			long latencyNanos, long now) {
+		ServiceStats serviceStats = services.computeIfAbsent(
+				String.valueOf(serviceInstance.getServiceId()),
+				serviceId -> new ServiceStats());
+		Stats stats = serviceStats.instances.computeIfAbsent(
+				NacosBalancer.getInstanceKey(serviceInstance), key -> new Stats(now));
+		if (stats.isEjected(now)) {
+			// Late completions of calls started before the ejection.
+			return;
+		}
+		stats.counts.addAndGet(failed ? REQUEST | FAILURE : REQUEST);
+		if (latencyNanos >= 0) {
+			stats.recordLatency(latencyNanos);
+		}
+		if (failed) {
+			int consecutiveFailures = stats.consecutiveFailures.incrementAndGet();
+			if (properties.getConsecutiveFailures() > 0
+					&& consecutiveFailures >= properties.getConsecutiveFailures()) {
+				eject(serviceInstance, stats, serviceStats, now, "consecutive failures");
+				return;
+			}
+		}
+		else {
+			stats.consecutiveFailures.set(0);
+		}
+		long windowStart = stats.windowStart.get();
+		if (now - windowStart >= properties.getInterval().toNanos()
+				&& stats.windowStart.compareAndSet(windowStart, now)) {
+			evaluate(serviceInstance, stats, serviceStats, now);
+		}
+	}
+
+	private void evaluate(ServiceInstance serviceInstance, Stats stats,
+			ServiceStats serviceStats, long now) {
+		long counts = stats.counts.getAndSet(0);
+		long requests = counts >>> 32;
+		long failures = counts & 0xFFFFFFFFL;
+		if (requests == 0 || requests < properties.getMinimumRequests()) {
+			return;
+		}
+		if (properties.getFailureRateThreshold() > 0 && (double) failures
+				/ requests >= properties.getFailureRateThreshold()) {
+			eject(serviceInstance, stats, serviceStats, now, "failure rate");
+			return;
+		}
+		if (properties.getLatencyFactor() > 0
+				&& isLatencyOutlier(stats, serviceStats.instances, now)) {
+			eject(serviceInstance, stats, serviceStats, now, "latency");
+			return;
+		}
+		// A healthy interval: the next ejection will be shorter.
+		stats.ejections.updateAndGet(ejections -> Math.max(0, ejections - 1));
+	}
+
+	private boolean isLatencyOutlier(Stats stats, Map<String, Stats> serviceStats,
+			long now) {
+		double latency = stats.getLatency();
+		if (latency <= 0) {
+			return false;
+		}
+		double sum = 0;
+		int peers = 0;
+		for (Stats peer : serviceStats.values()) {
+			double peerLatency = peer.getLatency();
+			if (peer != stats && peerLatency > 0 && !peer.isEjected(now)) {
+				sum += peerLatency;
+				peers++;
+			}
+		}
+		// Need a few peers for their average to be meaningful.
+		return peers >= 2 && latency > properties.getLatencyFactor() * sum / peers;
+	}
+
+	private void eject(ServiceInstance serviceInstance, Stats stats,
+			ServiceStats serviceStats, long now, String reason) {
+		synchronized (serviceStats) {
+			if (!serviceStats.canEject(properties.getMaxEjectionPercent(), now)) {
+				stats.consecutiveFailures.set(0);
+				if (log.isDebugEnabled()) {
+					log.debug(
+							"Not ejecting {}:{} of {} ({}), max ejection percent reached",
+							serviceInstance.getHost(), serviceInstance.getPort(),
+							serviceInstance.getServiceId(), reason);
+				}
+				return;
+			}
+			eject(serviceInstance, stats, now, reason);
+		}
+	}
+
+	private void eject(ServiceInstance serviceInstance, Stats stats, long now,
+			String reason) {
+		int count = stats.ejections.incrementAndGet();
+		long base = properties.getBaseEjectionTime().toNanos();
+		long max = properties.getMaxEjectionTime().toNanos();
+		long duration = base;
+		for (int i = 1; i < count && duration < max; i++) {
+			duration *= 2;
+		}
+		duration = Math.min(duration, max);
+		stats.ejectedUntil = now + duration;
+		stats.consecutiveFailures.set(0);
+		stats.counts.set(0);
+		stats.latency.set(0);
+		stats.windowStart.set(now);
+		ejections.increment();
+		if (log.isDebugEnabled()) {
+			log.debug("Ejecting {}:{} of {} for {} ms ({})", serviceInstance.getHost(),
+					serviceInstance.getPort(), serviceInstance.getServiceId(),
+					duration / 1_000_000, reason);
+		}
+	}
+
+	private boolean isEjected(Map<String, Stats> stats, ServiceInstance serviceInstance,
+			long now) {
+		Stats instanceStats = stats.get(NacosBalancer.getInstanceKey(serviceInstance));
+		return instanceStats != null && instanceStats.isEjected(now);
+	}
+
+	/**
+	 * @return total number of ejections since startup
+	 */
+	public long getEjections() {
+		return ejections.sum();
+	}
+
+	/**
+	 * @return number of instances currently ejected
+	 */
+	public long getEjectedInstances() {
+		long now = nanoClock.getAsLong();
+		long count = 0;
+		for (ServiceStats serviceStats : services.values()) {
+			for (Stats stats : serviceStats.instances.values()) {
+				if (stats.isEjected(now)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static final class ServiceStats {
+
+		private final Map<String, Stats> instances = new ConcurrentHashMap<>();
+
+		/**
+		 * Instances of the service as of the last instance list, {@code 0} until known.
+		 */
+		private volatile int instanceCount;
+
+		boolean canEject(int maxEjectionPercent, long now) {
+			if (maxEjectionPercent <= 0) {
+				return false;
+			}
+			int ejected = 0;
+			for (Stats stats : instances.values()) {
+				if (stats.isEjected(now)) {
+					ejected++;
+				}
+			}
+			int total = Math.max(instanceCount, instances.size());
+			return ejected < Math.max(1, total * maxEjectionPercent / 100);
+		}
+
+	}
+
+	private static final class Stats {
+
+		private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+		/**
+		 * Requests in the high 32 bits, failures in the low 32 bits.
+		 */
+		private final AtomicLong counts = new AtomicLong();
+
+		private final AtomicLong windowStart;
+
+		/**
+		 * Bits of the latency moving average, in nanoseconds.
+		 */
+		private final AtomicLong latency = new AtomicLong();
+
+		/**
+		 * Consecutive ejections, drives the back-off.
+		 */
+		private final AtomicInteger ejections = new AtomicInteger();
+
+		private volatile long ejectedUntil;
+
+		Stats(long now) {
+			this.windowStart = new AtomicLong(now);
+		}
+
+		boolean isEjected(long now) {
+			return ejectedUntil != 0 && now - ejectedUntil < 0;
+		}
+
+		void recordLatency(long sample) {
+			latency.getAndUpdate(bits -> {
+				double current = Double.longBitsToDouble(bits);
+				double next = current == 0 ? sample
+						: current + LATENCY_ALPHA * (sample - current);
+				return Double.doubleToRawLongBits(next);
+			});
+		}
+
+		double getLatency() {
+			return Double.longBitsToDouble(latency.get());
+		}
+
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * Keeps a peak-sensitive exponentially weighted moving average of the latency of every
+ * instance, from the LoadBalancer lifecycle callbacks. A sample above the average
+ * replaces it at once, a lower one is blended in with a weight that grows with the time
+ * elapsed since the previous sample. The average also decays towards zero while an
+ * instance receives no traffic, so that a once slow instance is eventually probed again.
+ * <p>
+ * Latency is only measured for requests whose context is a {@link TimedRequestContext},
+ * which is the case of the contexts created by the load-balanced clients. Failed
+ * requests never lower the average, so that an instance failing fast does not attract
+ * traffic.
+ * <p>
+ * The average of an instance is released once the instance has left the instance list
+ * of its service.
+ *
+ * @since 2023.0.1.3
+ */
+public class PeakEwmaLatencyTracker implements
+		LoadBalancerLifecycle<Object, Object, ServiceInstance>, NacosInstanceListListener {
+
+	/**
+	 * Default decay time, after which an old sample has a weight of about 37%.
+	 */
+	public static final Duration DEFAULT_DECAY_TIME = Duration.ofSeconds(10);
+
+	private final Map<String, PeakEwma> averages = new ConcurrentHashMap<>();
+
+	private final double decayTimeNanos;
+
+	private final LongSupplier nanoClock;
+
+	public PeakEwmaLatencyTracker() {
+		this(DEFAULT_DECAY_TIME);
+	}
+
+	public PeakEwmaLatencyTracker(Duration decayTime) {
+		this(decayTime, System::nanoTime);
+	}
+
+	PeakEwmaLatencyTracker(Duration decayTime, LongSupplier nanoClock) {
+		if (decayTime.isNegative() || decayTime.isZero()) {
+			throw new IllegalArgumentException("decayTime must be positive");
+		}
+		this.decayTimeNanos = decayTime.toNanos();
+		this.nanoClock = nanoClock;
+	}
+
+	@Override
+	public boolean supports(Class requestContextClass, Class responseClass,
+			Class serverTypeClass) {
+		return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request,
+			Response<ServiceInstance> lbResponse) {
+		// Another lifecycle, e.g. the Micrometer one, may already have set it.
+		if (request != null && request.getContext() instanceof TimedRequestContext context
+				&& context.getRequestStartTime() == 0) {
+			context.setRequestStartTime(nanoClock.getAsLong());
+		}
+	}
+
+	@Override
+	public void onComplete(
+			CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		CompletionContext.Status status = completionContext.status();
+		Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+		Request<Object> request = completionContext.getLoadBalancerRequest();
+		if (status == CompletionContext.Status.DISCARD || lbResponse == null
+				|| !lbResponse.hasServer() || request == null
+				|| !(request.getContext() instanceof TimedRequestContext context)
+				|| context.getRequestStartTime() == 0) {
+			return;
+		}
+		long now = nanoClock.getAsLong();
+		record(lbResponse.getServer(), now - context.getRequestStartTime(),
+				status == CompletionContext.Status.FAILED, now);
+	}
+
+	/**
+	 * Record a latency sample.
+	 * @param serviceInstance service instance
+	 * @param latencyNanos latency of the request, in nanoseconds
+	 * @param failed whether the request failed, in which case the sample never lowers
+	 * the average
+	 */
+	public void record(ServiceInstance serviceInstance, long latencyNanos,
+			boolean failed) {
+		record(serviceInstance, latencyNanos, failed, nanoClock.getAsLong());
+	}
+
+	private void record(ServiceInstance serviceInstance, long latencyNanos,
+			boolean failed, long now) {
+		averages.computeIfAbsent(NacosBalancer.getInstanceKey(serviceInstance),
+				key -> new PeakEwma(serviceInstance.getServiceId(), now))
+				.observe(Math.max(0, latencyNanos), failed, now, decayTimeNanos);
+	}
+
+	@Override
+	public void onInstanceListChanged(String serviceId,
+			List<ServiceInstance> serviceInstances) {
+		Set<String> keys = new HashSet<>(serviceInstances.size() * 4 / 3 + 1);
+		for (ServiceInstance serviceInstance : serviceInstances) {
+			keys.add(NacosBalancer.getInstanceKey(serviceInstance));
+		}
+		averages.entrySet()
+				.removeIf(entry -> !keys.contains(entry.getKey())
+						&& Objects.equals(serviceId, entry.getValue().serviceId));
+	}
+
+	/**
+	 * @return number of instances with a latency average
+	 */
+	int size() {
+		return averages.size();
+	}
+
+	/**
+	 * Current latency average of the given instance, decayed to now.
+	 * @param serviceInstance service instance
+	 * @return latency in nanoseconds, {@code 0} when the instance was never measured
+	 */
+	public double getLatency(ServiceInstance serviceInstance) {
+		PeakEwma average = averages.get(NacosBalancer.getInstanceKey(serviceInstance));
+		return average == null ? 0
+				: average.get(nanoClock.getAsLong(), decayTimeNanos);
+	}
+
+	private static final class PeakEwma {
+
+		private final String serviceId;
+
+		private long stamp;
+
+		private double cost;
+
+		PeakEwma(String serviceId, long stamp) {
+			this.serviceId = serviceId;
+			this.stamp = stamp;
+		}
+
+		synchronized void observe(double sample, boolean failed, long now,
+				double decayTimeNanos) {
+			if (sample > cost || failed) {
+				cost = Math.max(cost, sample);
+			}
+			else {
+				double w = Math.exp(-Math.max(0, now - stamp) / decayTimeNanos);
+				cost = cost * w + sample * (1 - w);
+			}
+			stamp = now;
+		}
+
+		synchronized double get(long now, double decayTimeNanos) {
+			// Same as observing a zero latency, without moving the stamp.
+			return cost * Math.exp(-Math.max(0, now - stamp) / decayTimeNanos);
+		}
+
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * Power of two choices over peak EWMA latency: two distinct instances are drawn at
+ * random and the one with the lower {@code latency * (inFlight + 1) / weight} wins.
+ * Instances on slower hardware get less traffic as soon as their latency shows, without
+ * the herding of always picking the global best.
+ * <p>
+ * An instance that has not been measured yet has no latency; it is preferred while it
+ * has no request in flight, then penalized so that a new instance is not flooded before
+ * its first response. Instances with a non-positive {@code nacos.weight} are never
+ * chosen, unless no instance has a positive weight.
+ * <p>
+ * Latencies come from {@link PeakEwmaLatencyTracker} and in-flight counts from
+ * {@link InFlightRequestTracker}. With
+ * {@code spring.cloud.loadbalancer.nacos.algorithm=peak-ewma}, both trackers and this
+ * algorithm are registered for every service by
+ * {@link LoadBalancerNacosAutoConfiguration}. To use the algorithm for some services
+ * only, register both trackers as beans of the application context along with the
+ * algorithms, so that they receive the LoadBalancer lifecycle callbacks.
+ *
+ * @since 2023.0.1.3
+ */
+public class PeakEwmaLoadBalancerAlgorithm implements LoadBalancerAlgorithm {
+
+	/**
+	 * Latency assumed for an unmeasured instance with requests in flight: one second.
+	 */
+	private static final double PENALTY_NANOS = 1_000_000_000d;
+
+	private final String serviceId;
+
+	private final PeakEwmaLatencyTracker latencyTracker;
+
+	private final InFlightRequestTracker inFlightRequestTracker;
+
+	public PeakEwmaLoadBalancerAlgorithm(PeakEwmaLatencyTracker latencyTracker,
+			InFlightRequestTracker inFlightRequestTracker) {
+		this(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID, latencyTracker,
+				inFlightRequestTracker);
+	}
+
+	public PeakEwmaLoadBalancerAlgorithm(String serviceId,
+			PeakEwmaLatencyTracker latencyTracker,
+			InFlightRequestTracker inFlightRequestTracker) {
+		this.serviceId = serviceId;
+		this.latencyTracker = latencyTracker;
+		this.inFlightRequestTracker = inFlightRequestTracker;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public ServiceInstance getInstance(Request<?> request, List<ServiceInstance> serviceInstances) {
+		WeightedServiceInstanceList instances = WeightedServiceInstanceList
+				.of(serviceInstances);
+		int size = instances.size();
+		if (size == 0) {
+			return null;
+		}
+		if (size == 1) {
+			return NacosBalancer.preferIPv6(instances.get(0));
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(size);
+		int second = random.nextInt(size - 1);
+		if (second >= first) {
+			second++;
+		}
+		double firstWeight = instances.getWeight(first);
+		double secondWeight = instances.getWeight(second);
+		int chosen;
+		if (firstWeight <= 0 && secondWeight <= 0) {
+			return NacosBalancer.preferIPv6(instances.chooseByRandomWeight());
+		}
+		else if (firstWeight <= 0) {
+			chosen = second;
+		}
+		else if (secondWeight <= 0) {
+			chosen = first;
+		}
+		else {
+			chosen = score(instances.get(first), firstWeight) <= score(
+					instances.get(second), secondWeight) ? first : second;
+		}
+		return NacosBalancer.preferIPv6(instances.get(chosen));
+	}
+
+	private double score(ServiceInstance serviceInstance, double weight) {
+		long inFlight = inFlightRequestTracker.getInFlight(serviceInstance);
+		double latency = latencyTracker.getLatency(serviceInstance);
+		if (latency == 0 && inFlight > 0) {
+			latency = PENALTY_NANOS;
+		}
+		return latency * (inFlight + 1) / weight;
+	}
+
+	@Override
+	public int getOrder() {
+		return 0;
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * Smooth weighted round-robin, as implemented by nginx. Every instance accumulates its
+ * weight on each pick, the instance with the highest current weight is chosen and loses
+ * the total weight. Instances are spread evenly over time, in proportion to their
+ * {@code nacos.weight}, e.g. weights {5, 1, 1} give {@code a a b a c a a}.
+ * <p>
+ * State is kept for the last {@value #CACHED_STATES} candidate sets of every service, so
+ * that filters handing different subsets of the instances to consecutive requests, such
+ * as label routing or outlier ejection, keep a smooth sequence per subset. State built
+ * for a new candidate set starts from the newest one: instances still present keep
+ * their current weight. Picks are lock-free; concurrent picks may interleave, which
+ * keeps the distribution but can make the sequence slightly less smooth.
+ * <p>
+ * Register it as a bean for the services that should use it:
+ * <pre class="code">
+ * &#064;Bean
+ * public LoadBalancerAlgorithm orderServiceAlgorithm() {
+ *     return new SmoothWeightedRoundRobinLoadBalancerAlgorithm("order-service");
+ * }
+ * </pre>
+ *
+ * @since 2023.0.1.3
+ */
+public class SmoothWeightedRoundRobinLoadBalancerAlgorithm implements LoadBalancerAlgorithm {
+
+	/**
+	 * Weights are doubles in Nacos, scale them to keep two decimals.
+	 */
+	private static final int WEIGHT_SCALE = 100;
+
+	/**
+	 * Candidate sets whose state is kept per service.
+	 */
+	static final int CACHED_STATES = 8;
+
+	private final String serviceId;
+
+	private final Map<String, CandidateSetCache<State>> states = new ConcurrentHashMap<>();
+
+	public SmoothWeightedRoundRobinLoadBalancerAlgorithm() {
+		this(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID);
+	}
+
+	public SmoothWeightedRoundRobinLoadBalancerAlgorithm(String serviceId) {
+		this.serviceId = serviceId;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public ServiceInstance getInstance(Request<?> request, List<ServiceInstance> serviceInstances) {
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return null;
+		}
+		if (serviceInstances.size() == 1) {
+			return NacosBalancer.preferIPv6(serviceInstances.get(0));
+		}
+		String key = serviceInstances.get(0).getServiceId();
+		State state = states
+				.computeIfAbsent(key, k -> new CandidateSetCache<>(CACHED_STATES))
+				.get(serviceInstances, State::new);
+		return NacosBalancer.preferIPv6(state.next());
+	}
+
+	@Override
+	public int getOrder() {
+		return 0;
+	}
+
+	private static final class State {
+
+		private final ServiceInstance[] instances;
+
+		private final String[] keys;
+
+		private final long[] weights;
+
+		private final long totalWeight;
+
+		private final AtomicLongArray currentWeights;
+
+		State(List<ServiceInstance> serviceInstances, State previous) {
+			WeightedServiceInstanceList weighted = WeightedServiceInstanceList
+					.of(serviceInstances);
+			int size = weighted.size();
+			this.instances = new ServiceInstance[size];
+			this.keys = new String[size];
+			this.weights = new long[size];
+			this.currentWeights = new AtomicLongArray(size);
+			long total = 0;
+			for (int i = 0; i < size; i++) {
+				instances[i] = weighted.get(i);
+				keys[i] = NacosBalancer.getInstanceKey(instances[i]);
+				weights[i] = Math.max(0, Math.round(weighted.getWeight(i) * WEIGHT_SCALE));
+				total += weights[i];
+			}
+			this.totalWeight = total;
+			if (previous != null) {
+				carryOver(previous);
+			}
+		}
+
+		/**
+		 * Keep the current weight of the instances that are still there, so that a
+		 * membership change does not restart the sequence.
+		 */
+		private void carryOver(State previous) {
+			Map<String, Integer> previousIndexes = new HashMap<>(previous.keys.length * 2);
+			for (int i = 0; i < previous.keys.length; i++) {
+				previousIndexes.put(previous.keys[i], i);
+			}
+			for (int i = 0; i < keys.length; i++) {
+				Integer index = previousIndexes.get(keys[i]);
+				if (index != null) {
+					long current = previous.currentWeights.get(index);
+					currentWeights.set(i, Math.max(-totalWeight, Math.min(totalWeight, current)));
+				}
+			}
+		}
+
+		ServiceInstance next() {
+			int best = -1;
+			long bestWeight = Long.MIN_VALUE;
+			for (int i = 0; i < weights.length; i++) {
+				if (weights[i] <= 0) {
+					continue;
+				}
+				long current = currentWeights.addAndGet(i, weights[i]);
+				if (current > bestWeight) {
+					bestWeight = current;
+					best = i;
+				}
+			}
+			if (best < 0) {
+				// No instance has a positive weight.
+				return instances[ThreadLocalRandom.current().nextInt(instances.length)];
+			}
+			currentWeights.addAndGet(best, -totalWeight);
+			return instances[best];
+		}
+
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts the server requests in flight, for {@link NacosGracefulDrain} to wait for
+ * them. Fed by {@link InFlightServerRequestServletFilter} or
+ * {@link InFlightServerRequestWebFilter}.
+ * <p>
+ * Counting is lock-free. The lock is only taken to wake up the drain, by the request
+ * that leaves the server idle once a drain is waiting.
+ *
+ * @since 2023.0.1.3
+ */
+public class InFlightServerRequestCounter {
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition idle = lock.newCondition();
+
+	/**
+	 * Set once a drain waits, requests only signal it from then on.
+	 */
+	private volatile boolean draining;
+
+	public void increment() {
+		count.incrementAndGet();
+	}
+
+	public void decrement() {
+		if (count.getAndUpdate(current -> current > 0 ? current - 1 : 0) == 1
+				&& draining) {
+			lock.lock();
+			try {
+				idle.signalAll();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * @return number of requests in flight
+	 */
+	public int get() {
+		return count.get();
+	}
+
+	/**
+	 * Wait for the requests in flight to complete.
+	 * @param timeout maximum time to wait
+	 * @return number of requests still in flight, 0 if none
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public int awaitIdle(Duration timeout) throws InterruptedException {
+		long remaining = timeout.toNanos();
+		// Set before reading the count: the request that brings it to 0 either sees
+		// the flag and signals, or is already counted out.
+		draining = true;
+		lock.lock();
+		try {
+			while (count.get() > 0 && remaining > 0) {
+				remaining = idle.awaitNanos(remaining);
+			}
+			return count.get();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "InFlightServerRequestCounter{" + "count=" + get() + '}';
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.io.IOException;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts the servlet requests in flight in an {@link InFlightServerRequestCounter}. An
+ * asynchronous request is counted until it completes, not only until the request thread
+ * returns.
+ *
+ * @since 2023.0.1.3
+ */
+public class InFlightServerRequestServletFilter extends OncePerRequestFilter
+		implements Ordered {
+
+	private final InFlightServerRequestCounter counter;
+
+	public InFlightServerRequestServletFilter(InFlightServerRequestCounter counter) {
+		this.counter = counter;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+			HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		counter.increment();
+		boolean async = false;
+		try {
+			filterChain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new DecrementListener());
+				async = true;
+			}
+		}
+		finally {
+			if (!async) {
+				counter.decrement();
+			}
+		}
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	private final class DecrementListener implements AsyncListener {
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			counter.decrement();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// Async restarted, keep counting until the new cycle completes.
+			event.getAsyncContext().addListener(this);
+		}
+
+	}
+
+}
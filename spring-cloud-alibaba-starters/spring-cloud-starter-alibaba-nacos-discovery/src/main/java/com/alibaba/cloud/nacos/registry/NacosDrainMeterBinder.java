@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.Locale;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the drain of {@link NacosGracefulDrain} as the
+ * {@code nacos.discovery.drain.phase} timer, tagged with the phase, and the
+ * {@code nacos.discovery.drain.requests.inflight} gauge.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosDrainMeterBinder implements MeterBinder {
+
+	/**
+	 * Name of the drain phases timer.
+	 */
+	public static final String PHASE_METRIC_NAME = "nacos.discovery.drain.phase";
+
+	/**
+	 * Name of the in-flight server requests gauge.
+	 */
+	public static final String IN_FLIGHT_METRIC_NAME = "nacos.discovery.drain.requests.inflight";
+
+	private final NacosGracefulDrain drain;
+
+	public NacosDrainMeterBinder(NacosGracefulDrain drain) {
+		this.drain = drain;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(IN_FLIGHT_METRIC_NAME, drain.getCounter(),
+				InFlightServerRequestCounter::get)
+				.description("Server requests in flight").register(registry);
+		drain.addPhaseListener((phase, duration) -> Timer.builder(PHASE_METRIC_NAME)
+				.description("Duration of the phases of the drain on shutdown")
+				.tag("phase", phase.name().toLowerCase(Locale.ROOT)).register(registry)
+				.record(duration));
+	}
+
+}
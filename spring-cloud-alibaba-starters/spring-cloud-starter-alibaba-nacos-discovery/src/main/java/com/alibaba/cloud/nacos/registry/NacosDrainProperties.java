@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of {@link NacosGracefulDrain}.
+ * <pre>
+ * spring.cloud.nacos.discovery.drain:
+ *   enabled: true
+ *   propagation-window: 10s
+ *   in-flight-timeout: 30s
+ * </pre>
+ *
+ * @since 2023.0.1.3
+ */
+@ConfigurationProperties(NacosDrainProperties.PREFIX)
+public class NacosDrainProperties {
+
+	/**
+	 * Prefix of {@link NacosDrainProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.nacos.discovery.drain";
+
+	/**
+	 * Drain the traffic of the instance on shutdown before deregistering it.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Time for the consumers to learn that the instance is disabled, before waiting for
+	 * the requests in flight.
+	 */
+	private Duration propagationWindow = Duration.ofSeconds(10);
+
+	/**
+	 * Maximum time to wait for the requests in flight to complete.
+	 */
+	private Duration inFlightTimeout = Duration.ofSeconds(30);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getPropagationWindow() {
+		return propagationWindow;
+	}
+
+	public void setPropagationWindow(Duration propagationWindow) {
+		this.propagationWindow = propagationWindow;
+	}
+
+	public Duration getInFlightTimeout() {
+		return inFlightTimeout;
+	}
+
+	public void setInFlightTimeout(Duration inFlightTimeout) {
+		this.inFlightTimeout = inFlightTimeout;
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Drains the traffic of the instance on shutdown, before it is deregistered:
+ * <ol>
+ * <li>{@link Phase#DISABLE}: the instance is disabled in Nacos, consumers stop choosing
+ * it once they receive the change;</li>
+ * <li>{@link Phase#PROPAGATION}: waits for the change to reach the consumers;</li>
+ * <li>{@link Phase#IN_FLIGHT}: waits for the requests in flight to complete;</li>
+ * <li>{@link Phase#DEREGISTER}: the instance is deregistered.</li>
+ * </ol>
+ * Stops before the graceful shutdown of the web server, which would otherwise reject the
+ * requests consumers still send to the instance.
+ *
+ * @since 2023.0.1.3
+ */
+public class NacosGracefulDrain implements SmartLifecycle {
+
+	/**
+	 * Lifecycle phase, stopped before the web server graceful shutdown of Spring Boot.
+	 */
+	public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 512;
+
+	private static final Logger log = LoggerFactory.getLogger(NacosGracefulDrain.class);
+
+	private final ObjectProvider<NacosAutoServiceRegistration> autoServiceRegistration;
+
+	private final NacosServiceRegistry serviceRegistry;
+
+	private final InFlightServerRequestCounter counter;
+
+	private final NacosDrainProperties properties;
+
+	private final List<BiConsumer<Phase, Duration>> phaseListeners = new CopyOnWriteArrayList<>();
+
+	private volatile boolean running;
+
+	public NacosGracefulDrain(
+			ObjectProvider<NacosAutoServiceRegistration> autoServiceRegistration,
+			NacosServiceRegistry serviceRegistry, InFlightServerRequestCounter counter,
+			NacosDrainProperties properties) {
+		this.autoServiceRegistration = autoServiceRegistration;
+		this.serviceRegistry = serviceRegistry;
+		this.counter = counter;
+		this.properties = properties;
+	}
+
+	/**
+	 * @param listener called with each completed phase and its duration
+	 */
+	public void addPhaseListener(BiConsumer<Phase, Duration> listener) {
+		phaseListeners.add(listener);
+	}
+
+	public InFlightServerRequestCounter getCounter() {
+		return counter;
+	}
+
+	@Override
+	public void start() {
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		NacosAutoServiceRegistration registration = autoServiceRegistration
+				.getIfAvailable();
+		if (registration == null || !registration.isRunning()) {
+			return;
+		}
+		try {
+			drain(registration);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.warn("Drain of the instance interrupted, deregistering it");
+			registration.stop();
+		}
+	}
+
+	private void drain(NacosAutoServiceRegistration registration)
+			throws InterruptedException {
+		long start = System.nanoTime();
+		try {
+			serviceRegistry.setStatus(registration.getRegistration(), "DOWN");
+		}
+		catch (RuntimeException e) {
+			log.warn("Failed to disable the instance before deregistering it", e);
+		}
+		start = completed(Phase.DISABLE, start);
+
+		Thread.sleep(properties.getPropagationWindow().toMillis());
+		start = completed(Phase.PROPAGATION, start);
+
+		int remaining = counter.awaitIdle(properties.getInFlightTimeout());
+		if (remaining > 0) {
+			log.warn("{} requests still in flight after {}, deregistering the instance",
+					remaining, properties.getInFlightTimeout());
+		}
+		start = completed(Phase.IN_FLIGHT, start);
+
+		registration.stop();
+		completed(Phase.DEREGISTER, start);
+	}
+
+	private long completed(Phase phase, long start) {
+		long end = System.nanoTime();
+		Duration duration = Duration.ofNanos(end - start);
+		log.info("Drain phase {} completed in {} ms", phase, duration.toMillis());
+		for (BiConsumer<Phase, Duration> listener : phaseListeners) {
+			listener.accept(phase, duration);
+		}
+		return end;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	/**
+	 * Phases of the drain.
+	 */
+	public enum Phase {
+
+		/**
+		 * The instance is disabled in Nacos.
+		 */
+		DISABLE,
+
+		/**
+		 * The change propagates to the consumers.
+		 */
+		PROPAGATION,
+
+		/**
+		 * The requests in flight complete.
+		 */
+		IN_FLIGHT,
+
+		/**
+		 * The instance is deregistered.
+		 */
+		DEREGISTER
+
+	}
+
+}
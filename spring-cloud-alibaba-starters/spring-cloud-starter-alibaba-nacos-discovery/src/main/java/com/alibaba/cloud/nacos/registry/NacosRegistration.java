@@ -58,6 +58,12 @@ public class NacosRegistration implements Registration {
 	 */
 	public static final String MANAGEMENT_ENDPOINT_BASE_PATH = "management.endpoints.web.base-path";
 
+	/**
+	 * The metadata key of the registration time, in epoch milliseconds. Outside of the
+	 * {@code preserved.} namespace, which is reserved to Nacos.
+	 */
+	public static final String REGISTER_TIMESTAMP = "spring.cloud.nacos.discovery.register-timestamp";
+
 	private List<NacosRegistrationCustomizer> registrationCustomizers;
 
 	private NacosDiscoveryProperties nacosDiscoveryProperties;
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+/**
+ * State of the registration of the local instance, as seen by
+ * {@link NacosServiceRegistry}. Instances are immutable, a new one is created on every
+ * change.
+ *
+ * @since 2023.0.1.3
+ */
+public final class NacosRegistrationState {
+
+	/**
+	 * State before any registration.
+	 */
+	public static final NacosRegistrationState NOT_REGISTERED = new NacosRegistrationState(
+			Status.NOT_REGISTERED, 0, null, 0);
+
+	private final Status status;
+
+	private final int attempts;
+
+	private final String lastError;
+
+	private final long timestamp;
+
+	NacosRegistrationState(Status status, int attempts, String lastError,
+			long timestamp) {
+		this.status = status;
+		this.attempts = attempts;
+		this.lastError = lastError;
+		this.timestamp = timestamp;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return number of registration attempts made since the last registration request
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+	/**
+	 * @return message of the last registration failure, {@code null} if none
+	 */
+	public String getLastError() {
+		return lastError;
+	}
+
+	/**
+	 * @return epoch millis of the change to this state
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public boolean isRegistered() {
+		return status == Status.REGISTERED;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosRegistrationState{" + "status=" + status + ", attempts=" + attempts
+				+ ", lastError='" + lastError + '\'' + ", timestamp=" + timestamp + '}';
+	}
+
+	/**
+	 * Registration status.
+	 */
+	public enum Status {
+
+		/**
+		 * No registration was requested.
+		 */
+		NOT_REGISTERED,
+
+		/**
+		 * The first registration attempt is in progress.
+		 */
+		REGISTERING,
+
+		/**
+		 * The instance is registered.
+		 */
+		REGISTERED,
+
+		/**
+		 * A registration attempt failed and another one is scheduled.
+		 */
+		RETRYING,
+
+		/**
+		 * The registration failed and will not be retried.
+		 */
+		FAILED,
+
+		/**
+		 * The instance was deregistered.
+		 */
+		DEREGISTERED
+
+	}
+
+}
@@ -16,8 +16,15 @@
 
 package com.alibaba.cloud.nacos.registry;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
@@ -30,6 +37,7 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.cloud.client.serviceregistry.ServiceRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
 
@@ -51,6 +59,24 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 
 	private final NacosServiceManager nacosServiceManager;
 
+	/**
+	 * Guards the registration attempts, so that a deregistration waits for the attempt
+	 * in progress and cancels the next ones.
+	 */
+	private final Object registrationMonitor = new Object();
+
+	private volatile NacosRegistrationState registrationState = NacosRegistrationState.NOT_REGISTERED;
+
+	/**
+	 * Incremented on every registration and deregistration, so that attempts scheduled
+	 * for an earlier one give up.
+	 */
+	private long registrationGeneration;
+
+	private ThreadPoolTaskScheduler registrationScheduler;
+
+	private ScheduledFuture<?> pendingRegistration;
+
 	public NacosServiceRegistry(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
@@ -65,30 +91,158 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			return;
 		}
 
+		stampRegisterTimestamp(registration);
+
+		if (nacosDiscoveryProperties.isRegisterAsync()) {
+			registerAsync(registration);
+			return;
+		}
+
 		NamingService namingService = namingService();
 		String serviceId = registration.getServiceId();
 		String group = nacosDiscoveryProperties.getGroup();
-
 		Instance instance = getNacosInstanceFromRegistration(registration);
 
-		try {
-			namingService.registerInstance(serviceId, group, instance);
-			log.info("nacos registry, {} {} {}:{} register finished", group, serviceId,
-					instance.getIp(), instance.getPort());
+		synchronized (registrationMonitor) {
+			cancelPendingRegistration();
+			try {
+				namingService.registerInstance(serviceId, group, instance);
+				setRegistrationState(NacosRegistrationState.Status.REGISTERED, 1, null);
+				log.info("nacos registry, {} {} {}:{} register finished", group,
+						serviceId, instance.getIp(), instance.getPort());
+			}
+			catch (Exception e) {
+				setRegistrationState(NacosRegistrationState.Status.FAILED, 1,
+						e.toString());
+				handleRegisterFailure(serviceId, registration.toString(), e);
+			}
 		}
-		catch (Exception e) {
-			if (nacosDiscoveryProperties.isFailFast()) {
-				log.error("nacos registry, {} register failed...{},", serviceId,
-						registration.toString(), e);
-				rethrowRuntimeException(e);
+	}
+
+	/**
+	 * Consumers use it to warm the instance up. Kept across re-registrations of the same
+	 * process, which is already warm.
+	 */
+	private static void stampRegisterTimestamp(Registration registration) {
+		if (registration.getMetadata() != null) {
+			registration.getMetadata().putIfAbsent(NacosRegistration.REGISTER_TIMESTAMP,
+					String.valueOf(System.currentTimeMillis()));
+		}
+	}
+
+	private void handleRegisterFailure(String serviceId, String registration,
+			Exception e) {
+		if (nacosDiscoveryProperties.isFailFast()) {
+			log.error("nacos registry, {} register failed...{},", serviceId,
+					registration, e);
+			rethrowRuntimeException(e);
+		}
+		else {
+			log.warn("Failfast is false. {} register failed...{},", serviceId,
+					registration, e);
+		}
+	}
+
+	/**
+	 * Register on the registration thread, retrying until it succeeds or the instance
+	 * is deregistered. The caller does not wait for Nacos.
+	 */
+	private void registerAsync(Registration registration) {
+		synchronized (registrationMonitor) {
+			cancelPendingRegistration();
+			setRegistrationState(NacosRegistrationState.Status.REGISTERING, 0, null);
+			scheduleRegistration(registration, registrationGeneration, 1, 0);
+		}
+		log.info("nacos registry, {} {}:{} registering in the background",
+				registration.getServiceId(), registration.getHost(),
+				registration.getPort());
+	}
+
+	private void scheduleRegistration(Registration registration, long generation,
+			int attempt, long delay) {
+		if (registrationScheduler == null) {
+			registrationScheduler = new ThreadPoolTaskScheduler();
+			registrationScheduler.setBeanName("Nacos-Registration-Task-Scheduler");
+			registrationScheduler.setDaemon(true);
+			registrationScheduler.initialize();
+		}
+		pendingRegistration = registrationScheduler.schedule(
+				() -> attemptRegistration(registration, generation, attempt),
+				Instant.now().plusMillis(delay));
+	}
+
+	private void attemptRegistration(Registration registration, long generation,
+			int attempt) {
+		String serviceId = registration.getServiceId();
+		String group = nacosDiscoveryProperties.getGroup();
+		synchronized (registrationMonitor) {
+			if (generation != registrationGeneration) {
+				return;
 			}
-			else {
-				log.warn("Failfast is false. {} register failed...{},", serviceId,
-						registration.toString(), e);
+			Instance instance = getNacosInstanceFromRegistration(registration);
+			try {
+				namingService().registerInstance(serviceId, group, instance);
+				setRegistrationState(NacosRegistrationState.Status.REGISTERED, attempt,
+						null);
+				log.info("nacos registry, {} {} {}:{} register finished after {} attempt(s)",
+						group, serviceId, instance.getIp(), instance.getPort(), attempt);
+			}
+			catch (Exception e) {
+				long delay = getRetryDelay(attempt,
+						nacosDiscoveryProperties.getRegisterRetryInitialInterval(),
+						nacosDiscoveryProperties.getRegisterRetryMaxInterval(),
+						nacosDiscoveryProperties.getRegisterRetryMultiplier());
+				setRegistrationState(NacosRegistrationState.Status.RETRYING, attempt,
+						e.toString());
+				log.warn("nacos registry, {} register failed, attempt {}, retrying in {} ms",
+						serviceId, attempt, delay, e);
+				scheduleRegistration(registration, generation, attempt + 1, delay);
 			}
 		}
 	}
 
+	/**
+	 * Exponential back-off with jitter: a random delay between half and all of
+	 * {@code initialInterval * multiplier^(attempt - 1)}, capped at {@code maxInterval},
+	 * so that instances failing together do not retry together.
+	 * @param attempt number of the failed attempt, from 1
+	 * @param initialInterval delay after the first failure, in millis
+	 * @param maxInterval maximum delay, in millis
+	 * @param multiplier growth of the delay after each failure
+	 * @return delay before the next attempt, in millis
+	 */
+	static long getRetryDelay(int attempt, long initialInterval, long maxInterval,
+			double multiplier) {
+		double delay = initialInterval * Math.pow(Math.max(multiplier, 1), attempt - 1);
+		long capped = Math.max((long) Math.min(delay, maxInterval), 0);
+		long half = capped / 2;
+		return half + ThreadLocalRandom.current().nextLong(capped - half + 1);
+	}
+
+	/**
+	 * Must be called with the registration monitor held.
+	 */
+	private void cancelPendingRegistration() {
+		registrationGeneration++;
+		if (pendingRegistration != null) {
+			pendingRegistration.cancel(false);
+			pendingRegistration = null;
+		}
+	}
+
+	private void setRegistrationState(NacosRegistrationState.Status status,
+			int attempts, String lastError) {
+		registrationState = new NacosRegistrationState(status, attempts, lastError,
+				System.currentTimeMillis());
+	}
+
+	/**
+	 * @return state of the registration of the local instance
+	 */
+	public NacosRegistrationState getRegistrationState() {
+		return registrationState;
+	}
+
 	@Override
 	public void deregister(Registration registration) {
 
@@ -103,20 +257,145 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 		String serviceId = registration.getServiceId();
 		String group = nacosDiscoveryProperties.getGroup();
 
+		synchronized (registrationMonitor) {
+			cancelPendingRegistration();
+			try {
+				namingService.deregisterInstance(serviceId, group,
+						registration.getHost(), registration.getPort(),
+						nacosDiscoveryProperties.getClusterName());
+			}
+			catch (Exception e) {
+				log.error("ERR_NACOS_DEREGISTER, de-register failed...{},",
+						registration.toString(), e);
+			}
+			setRegistrationState(NacosRegistrationState.Status.DEREGISTERED, 0, null);
+		}
+
+		log.info("De-registration finished.");
+	}
+
+	/**
+	 * Register several instances with one request per service, instead of one per
+	 * instance, for sidecars and multi-port services. Always synchronous.
+	 * <p>
+	 * Nacos keeps the instances of a batch together: a batch replaces the instances
+	 * this client registered before for the same service, so all the registrations of
+	 * a service must be given in the same call. Single registrations and persistent
+	 * instances, which Nacos does not register in batches, are registered one by one.
+	 * None of them goes through the background registration of
+	 * {@link #register(Registration)} or changes {@link #getRegistrationState()}, which
+	 * are about the local instance.
+	 * @param registrations registrations, of one or several services
+	 */
+	public void registerAll(Collection<? extends Registration> registrations) {
+		String group = nacosDiscoveryProperties.getGroup();
+		for (Map.Entry<String, List<Registration>> entry : groupByService(registrations)
+				.entrySet()) {
+			String serviceId = entry.getKey();
+			List<Registration> batch = entry.getValue();
+			if (batch.size() == 1 || !nacosDiscoveryProperties.isEphemeral()) {
+				for (Registration registration : batch) {
+					registerInstance(serviceId, group, registration);
+				}
+				continue;
+			}
+			List<Instance> instances = new ArrayList<>(batch.size());
+			for (Registration registration : batch) {
+				stampRegisterTimestamp(registration);
+				instances.add(getNacosInstanceFromRegistration(registration));
+			}
+			try {
+				namingService().batchRegisterInstance(serviceId, group, instances);
+				log.info("nacos registry, {} {} {} instances register finished", group,
+						serviceId, instances.size());
+			}
+			catch (Exception e) {
+				handleRegisterFailure(serviceId, batch.toString(), e);
+			}
+		}
+	}
+
+	/**
+	 * Deregister several instances with one request per service, the counterpart of
+	 * {@link #registerAll(Collection)}.
+	 * @param registrations registrations, of one or several services
+	 */
+	public void deregisterAll(Collection<? extends Registration> registrations) {
+		String group = nacosDiscoveryProperties.getGroup();
+		for (Map.Entry<String, List<Registration>> entry : groupByService(registrations)
+				.entrySet()) {
+			String serviceId = entry.getKey();
+			List<Registration> batch = entry.getValue();
+			if (batch.size() == 1 || !nacosDiscoveryProperties.isEphemeral()) {
+				for (Registration registration : batch) {
+					deregisterInstance(serviceId, group, registration);
+				}
+				continue;
+			}
+			List<Instance> instances = new ArrayList<>(batch.size());
+			for (Registration registration : batch) {
+				instances.add(getNacosInstanceFromRegistration(registration));
+			}
+			try {
+				namingService().batchDeregisterInstance(serviceId, group, instances);
+				log.info("nacos registry, {} {} {} instances de-register finished",
+						group, serviceId, instances.size());
+			}
+			catch (Exception e) {
+				log.error("ERR_NACOS_DEREGISTER, de-register failed...{},", batch, e);
+			}
+		}
+	}
+
+	private void registerInstance(String serviceId, String group,
+			Registration registration) {
+		stampRegisterTimestamp(registration);
+		Instance instance = getNacosInstanceFromRegistration(registration);
 		try {
-			namingService.deregisterInstance(serviceId, group, registration.getHost(),
+			namingService().registerInstance(serviceId, group, instance);
+			log.info("nacos registry, {} {} {}:{} register finished", group, serviceId,
+					instance.getIp(), instance.getPort());
+		}
+		catch (Exception e) {
+			handleRegisterFailure(serviceId, registration.toString(), e);
+		}
+	}
+
+	private void deregisterInstance(String serviceId, String group,
+			Registration registration) {
+		try {
+			namingService().deregisterInstance(serviceId, group, registration.getHost(),
 					registration.getPort(), nacosDiscoveryProperties.getClusterName());
 		}
 		catch (Exception e) {
 			log.error("ERR_NACOS_DEREGISTER, de-register failed...{},",
 					registration.toString(), e);
 		}
+	}
 
-		log.info("De-registration finished.");
+	private static Map<String, List<Registration>> groupByService(
+			Collection<? extends Registration> registrations) {
+		Map<String, List<Registration>> byService = new LinkedHashMap<>();
+		for (Registration registration : registrations) {
+			if (StringUtils.isEmpty(registration.getServiceId())) {
+				log.warn("No service to register for nacos client...");
+				continue;
+			}
+			byService.computeIfAbsent(registration.getServiceId(),
+					serviceId -> new ArrayList<>()).add(registration);
+		}
+		return byService;
 	}
 
 	@Override
 	public void close() {
+		synchronized (registrationMonitor) {
+			cancelPendingRegistration();
+			if (registrationScheduler != null) {
+				registrationScheduler.shutdown();
+				registrationScheduler = null;
+			}
+		}
 		try {
 			nacosServiceManager.nacosServiceShutDown();
 		}
@@ -22,11 +22,23 @@ import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.cloud.nacos.discovery.NacosDiscoveryAutoConfiguration;
+import com.alibaba.cloud.nacos.discovery.actuate.health.NacosRegistrationHealthIndicator;
+import com.alibaba.cloud.nacos.discovery.actuate.health.NacosRegistrationReadinessStateHealthIndicator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.actuate.availability.ReadinessStateHealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.availability.ApplicationAvailability;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.serviceregistry.AutoServiceRegistrationAutoConfiguration;
 import org.springframework.cloud.client.serviceregistry.AutoServiceRegistrationConfiguration;
@@ -34,6 +46,7 @@ import org.springframework.cloud.client.serviceregistry.AutoServiceRegistrationP
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.WebFilter;
 
 /**
  * @author xiaojing
@@ -47,6 +60,7 @@ import org.springframework.context.annotation.Configuration;
 @AutoConfigureAfter({ AutoServiceRegistrationConfiguration.class,
 		AutoServiceRegistrationAutoConfiguration.class,
 		NacosDiscoveryAutoConfiguration.class })
+@AutoConfigureBefore(name = "org.springframework.boot.actuate.autoconfigure.availability.AvailabilityHealthContributorAutoConfiguration")
 public class NacosServiceRegistryAutoConfiguration {
 
 	@Bean
@@ -76,4 +90,107 @@ public class NacosServiceRegistryAutoConfiguration {
 				autoServiceRegistrationProperties, registration);
 	}
 
+	/**
+	 * Health of an asynchronous registration.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass({ HealthIndicator.class,
+			ConditionalOnEnabledHealthIndicator.class })
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.register-async",
+			havingValue = "true")
+	static class NacosRegistrationHealthConfiguration {
+
+		@Bean
+		@ConditionalOnEnabledHealthIndicator("nacos-registration")
+		public HealthIndicator nacosRegistrationHealthIndicator(
+				NacosServiceRegistry nacosServiceRegistry) {
+			return new NacosRegistrationHealthIndicator(nacosServiceRegistry);
+		}
+
+		/**
+		 * Replaces the readiness state health indicator of Spring Boot, used by the
+		 * readiness probe, to refuse traffic until the instance is registered.
+		 */
+		@Bean
+		@ConditionalOnMissingBean(name = "readinessStateHealthIndicator")
+		@ConditionalOnProperty(value = {
+				"spring.cloud.nacos.discovery.register-readiness-gate",
+				"spring.cloud.nacos.discovery.register-enabled" }, matchIfMissing = true)
+		public ReadinessStateHealthIndicator readinessStateHealthIndicator(
+				ApplicationAvailability applicationAvailability,
+				NacosServiceRegistry nacosServiceRegistry) {
+			return new NacosRegistrationReadinessStateHealthIndicator(
+					applicationAvailability, nacosServiceRegistry);
+		}
+
+	}
+
+	/**
+	 * Drain of the traffic on shutdown.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = NacosDrainProperties.PREFIX + ".enabled",
+			havingValue = "true")
+	@EnableConfigurationProperties(NacosDrainProperties.class)
+	static class NacosDrainConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public InFlightServerRequestCounter inFlightServerRequestCounter() {
+			return new InFlightServerRequestCounter();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosGracefulDrain nacosGracefulDrain(
+				ObjectProvider<NacosAutoServiceRegistration> autoServiceRegistration,
+				NacosServiceRegistry nacosServiceRegistry,
+				InFlightServerRequestCounter inFlightServerRequestCounter,
+				NacosDrainProperties nacosDrainProperties) {
+			return new NacosGracefulDrain(autoServiceRegistration, nacosServiceRegistry,
+					inFlightServerRequestCounter, nacosDrainProperties);
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+		@ConditionalOnClass(Filter.class)
+		static class NacosDrainServletConfiguration {
+
+			@Bean
+			public InFlightServerRequestServletFilter inFlightServerRequestServletFilter(
+					InFlightServerRequestCounter inFlightServerRequestCounter) {
+				return new InFlightServerRequestServletFilter(
+						inFlightServerRequestCounter);
+			}
+
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+		@ConditionalOnClass(WebFilter.class)
+		static class NacosDrainReactiveConfiguration {
+
+			@Bean
+			public InFlightServerRequestWebFilter inFlightServerRequestWebFilter(
+					InFlightServerRequestCounter inFlightServerRequestCounter) {
+				return new InFlightServerRequestWebFilter(inFlightServerRequestCounter);
+			}
+
+		}
+
+		@Configuration(proxyBeanMethods = false)
+		@ConditionalOnClass(MeterRegistry.class)
+		static class NacosDrainMetricsConfiguration {
+
+			@Bean
+			@ConditionalOnMissingBean
+			public NacosDrainMeterBinder nacosDrainMeterBinder(
+					NacosGracefulDrain nacosGracefulDrain) {
+				return new NacosDrainMeterBinder(nacosGracefulDrain);
+			}
+
+		}
+
+	}
+
 }
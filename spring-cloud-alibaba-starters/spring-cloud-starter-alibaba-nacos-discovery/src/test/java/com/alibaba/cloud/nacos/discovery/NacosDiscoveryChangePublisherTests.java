@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.event.NacosInstancesChangedEvent;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosDiscoveryChangePublisher}.
+ */
+public class NacosDiscoveryChangePublisherTests {
+
+	private final List<Object> events = new CopyOnWriteArrayList<>();
+
+	private final NamingService namingService = mock(NamingService.class);
+
+	private final NacosServiceDiscovery serviceDiscovery = mock(
+			NacosServiceDiscovery.class);
+
+	private final NacosServiceManager nacosServiceManager = mock(
+			NacosServiceManager.class);
+
+	private final NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+
+	@BeforeEach
+	public void setUp() throws NacosException {
+		properties.setGroup("DEFAULT");
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(serviceDiscovery.getServices()).thenReturn(singletonList("a"));
+	}
+
+	@Test
+	public void testPublishOnlyChanges() throws NacosException {
+		Instance first = instance("10.0.0.1", 1);
+		Instance second = instance("10.0.0.2", 1);
+		when(namingService.getAllInstances("a", "DEFAULT", true))
+				.thenReturn(Arrays.asList(first, second));
+		NacosDiscoveryChangePublisher publisher = publisher(Duration.ZERO);
+		try {
+			EventListener listener = subscribed("a");
+
+			// The instances read on subscription are the baseline, unchanged
+			// notifications are ignored.
+			listener.onEvent(new NamingEvent("a", Arrays.asList(first, second)));
+			listener.onEvent(new NamingEvent("a",
+					Arrays.asList(instance("10.0.0.1", 1), instance("10.0.0.2", 1))));
+			assertThat(events).isEmpty();
+
+			Instance third = instance("10.0.0.3", 1);
+			Instance reweighted = instance("10.0.0.2", 2);
+			listener.onEvent(
+					new NamingEvent("a", Arrays.asList(reweighted, third)));
+
+			assertThat(events).hasSize(2);
+			NacosInstancesChangedEvent event = (NacosInstancesChangedEvent) events
+					.get(0);
+			assertThat(event.getServiceName()).isEqualTo("a");
+			assertThat(event.getAdded()).containsExactly(third);
+			assertThat(event.getRemoved()).containsExactly(first);
+			assertThat(event.getModified()).containsExactly(reweighted);
+			assertThat(events.get(1)).isInstanceOf(HeartbeatEvent.class);
+		}
+		finally {
+			publisher.stop();
+		}
+	}
+
+	@Test
+	public void testAlreadySubscribedServiceIsNotified() throws NacosException {
+		Instance first = instance("10.0.0.1", 1);
+		// Subscribed to by the load balancer already, no notification on subscribe.
+		when(namingService.getAllInstances("a", "DEFAULT", true))
+				.thenReturn(singletonList(first));
+		NacosDiscoveryChangePublisher publisher = publisher(Duration.ZERO);
+		try {
+			EventListener listener = subscribed("a");
+			Instance second = instance("10.0.0.2", 1);
+
+			listener.onEvent(new NamingEvent("a", Arrays.asList(first, second)));
+
+			assertThat(events).hasSize(2);
+			NacosInstancesChangedEvent event = (NacosInstancesChangedEvent) events
+					.get(0);
+			assertThat(event.getAdded()).containsExactly(second);
+			assertThat(event.getRemoved()).isEmpty();
+		}
+		finally {
+			publisher.stop();
+		}
+	}
+
+	@Test
+	public void testDebounce() throws Exception {
+		when(namingService.getAllInstances("a", "DEFAULT", true))
+				.thenReturn(singletonList(instance("10.0.0.1", 1)));
+		NacosDiscoveryChangePublisher publisher = publisher(Duration.ofMillis(100));
+		try {
+			EventListener listener = subscribed("a");
+			listener.onEvent(new NamingEvent("a", singletonList(instance("10.0.0.1", 1))));
+			listener.onEvent(new NamingEvent("a", singletonList(instance("10.0.0.2", 1))));
+			listener.onEvent(new NamingEvent("a", singletonList(instance("10.0.0.3", 1))));
+			assertThat(events).isEmpty();
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (events.size() < 3 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Thread.sleep(200);
+
+			// Both changes are published before a single heartbeat.
+			assertThat(events).hasSize(3);
+			assertThat(events.get(0)).isInstanceOf(NacosInstancesChangedEvent.class);
+			assertThat(events.get(1)).isInstanceOf(NacosInstancesChangedEvent.class);
+			assertThat(events.get(2)).isInstanceOf(HeartbeatEvent.class);
+		}
+		finally {
+			publisher.stop();
+		}
+	}
+
+	private NacosDiscoveryChangePublisher publisher(Duration debounce) {
+		NacosDiscoveryChangePublisher publisher = new NacosDiscoveryChangePublisher(
+				serviceDiscovery, nacosServiceManager, properties, debounce);
+		publisher.setApplicationEventPublisher(events::add);
+		publisher.start();
+		return publisher;
+	}
+
+	private EventListener subscribed(String serviceName) throws NacosException {
+		ArgumentCaptor<EventListener> listener = ArgumentCaptor
+				.forClass(EventListener.class);
+		verify(namingService, timeout(5000)).subscribe(eq(serviceName), eq("DEFAULT"),
+				listener.capture());
+		// Notifications wait for the baseline once it is being read.
+		verify(namingService, timeout(5000)).getAllInstances(serviceName, "DEFAULT",
+				true);
+		return listener.getValue();
+	}
+
+	private static Instance instance(String ip, double weight) {
+		Instance instance = new Instance();
+		instance.setIp(ip);
+		instance.setPort(8080);
+		instance.setClusterName("DEFAULT");
+		instance.setWeight(weight);
+		return instance;
+	}
+
+}
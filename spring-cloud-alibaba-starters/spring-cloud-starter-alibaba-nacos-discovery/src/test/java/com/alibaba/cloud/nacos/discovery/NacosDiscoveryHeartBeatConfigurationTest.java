@@ -69,4 +69,15 @@ public class NacosDiscoveryHeartBeatConfigurationTest {
 				);
 	}
 
+	@Test
+	public void testNacosDiscoveryChangePublisherEnabled() {
+		contextRunner
+				.withPropertyValues("spring.cloud.nacos.discovery.heart-beat.enabled=true",
+						"spring.cloud.nacos.discovery.heart-beat.change-driven=true")
+				.run(context -> {
+					assertThat(context).hasSingleBean(NacosDiscoveryChangePublisher.class);
+					assertThat(context).doesNotHaveBean(NacosDiscoveryHeartBeatPublisher.class);
+				});
+	}
+
 }
@@ -17,9 +17,13 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import com.alibaba.cloud.nacos.NacosServiceAutoConfiguration;
+import com.alibaba.cloud.nacos.loadbalancer.InFlightRequestTracker;
+import com.alibaba.cloud.nacos.loadbalancer.LeastOutstandingRequestsLoadBalancerAlgorithm;
 import com.alibaba.cloud.nacos.loadbalancer.LoadBalancerAlgorithm;
 import com.alibaba.cloud.nacos.loadbalancer.LoadBalancerNacosAutoConfiguration;
 import com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerClientConfiguration;
+import com.alibaba.cloud.nacos.loadbalancer.PeakEwmaLatencyTracker;
+import com.alibaba.cloud.nacos.loadbalancer.PeakEwmaLoadBalancerAlgorithm;
 import com.alibaba.cloud.nacos.registry.NacosServiceRegistryAutoConfiguration;
 import com.alibaba.cloud.nacos.util.UtilIPv6AutoConfiguration;
 import org.junit.jupiter.api.Test;
@@ -60,6 +64,40 @@ public class NacosDiscoveryLoadBalancerConfigurationTest {
 				});
 	}
 
+	@Test
+	public void testRequestTrackersFollowTheSelectedAlgorithm() {
+		contextRunner.withPropertyValues("spring.cloud.loadbalancer.nacos.enabled=true")
+				.withConfiguration(AutoConfigurations.of(
+						LoadBalancerNacosAutoConfiguration.class,
+						NacosLoadBalancerClientConfiguration.class))
+				.run(context -> {
+					assertThat(context).doesNotHaveBean(InFlightRequestTracker.class);
+					assertThat(context).doesNotHaveBean(PeakEwmaLatencyTracker.class);
+				});
+		contextRunner.withPropertyValues("spring.cloud.loadbalancer.nacos.enabled=true",
+				"spring.cloud.loadbalancer.nacos.algorithm=least-outstanding-requests")
+				.withConfiguration(AutoConfigurations.of(
+						LoadBalancerNacosAutoConfiguration.class,
+						NacosLoadBalancerClientConfiguration.class))
+				.run(context -> {
+					assertThat(context).hasSingleBean(InFlightRequestTracker.class);
+					assertThat(context).hasSingleBean(
+							LeastOutstandingRequestsLoadBalancerAlgorithm.class);
+					assertThat(context).doesNotHaveBean(PeakEwmaLatencyTracker.class);
+				});
+		contextRunner.withPropertyValues("spring.cloud.loadbalancer.nacos.enabled=true",
+				"spring.cloud.loadbalancer.nacos.algorithm=peak-ewma")
+				.withConfiguration(AutoConfigurations.of(
+						LoadBalancerNacosAutoConfiguration.class,
+						NacosLoadBalancerClientConfiguration.class))
+				.run(context -> {
+					assertThat(context).hasSingleBean(InFlightRequestTracker.class);
+					assertThat(context).hasSingleBean(PeakEwmaLatencyTracker.class);
+					assertThat(context)
+							.hasSingleBean(PeakEwmaLoadBalancerAlgorithm.class);
+				});
+	}
+
 	@Test
 	public void testNacosLoadBalancerDisabled() {
 		contextRunner.withPropertyValues("spring.cloud.loadbalancer.nacos.enabled=false")
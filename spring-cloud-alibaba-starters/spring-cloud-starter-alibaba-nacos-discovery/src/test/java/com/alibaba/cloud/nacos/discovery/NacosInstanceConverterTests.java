@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancer;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link NacosInstanceConverter}.
+ */
+public class NacosInstanceConverterTests {
+
+	private static final String SERVICE_ID = "test-service";
+
+	private final NacosInstanceConverter converter = new NacosInstanceConverter();
+
+	@Test
+	public void testConvertLikeHostToServiceInstance() {
+		Instance instance = instance("10.0.0.1", 1);
+		instance.getMetadata().put("secure", "true");
+
+		ServiceInstance converted = converter.convert(List.of(instance), SERVICE_ID)
+				.get(0);
+		ServiceInstance expected = NacosServiceDiscovery.hostToServiceInstance(instance,
+				SERVICE_ID);
+
+		assertThat(converted).isEqualTo(expected);
+		assertThat(converted.isSecure()).isTrue();
+		assertThat(converted.getMetadata()).isEqualTo(expected.getMetadata());
+		assertThatThrownBy(() -> converted.getMetadata().put("key", "value"))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void testUnchangedInstancesAreReused() {
+		Instance first = instance("10.0.0.1", 1);
+		Instance second = instance("10.0.0.2", 1);
+		Instance disabled = instance("10.0.0.3", 1);
+		disabled.setEnabled(false);
+
+		List<ServiceInstance> converted = converter
+				.convert(Arrays.asList(first, second, disabled), SERVICE_ID);
+		assertThat(converted).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.2");
+		// Nothing changed, even in new objects: the same list.
+		assertThat(converter.convert(
+				Arrays.asList(instance("10.0.0.1", 1), second, disabled), SERVICE_ID))
+						.isSameAs(converted);
+
+		Instance reweighted = instance("10.0.0.2", 2);
+		List<ServiceInstance> changed = converter.convert(
+				new ArrayList<>(Arrays.asList(first, reweighted, instance("10.0.0.4", 1))),
+				SERVICE_ID);
+		assertThat(changed).hasSize(3);
+		assertThat(changed.get(0)).isSameAs(converted.get(0));
+		assertThat(changed.get(1)).isNotSameAs(converted.get(1));
+		assertThat(changed.get(1).getMetadata().get("nacos.weight")).isEqualTo("2.0");
+	}
+
+	@Test
+	public void testPreferIpv6KeepsConvertedInstances() {
+		Instance instance = instance("10.0.0.1", 1);
+		instance.getMetadata().put("IPv6", "fe80::1");
+		List<ServiceInstance> converted = converter.convert(List.of(instance),
+				SERVICE_ID);
+
+		NacosLoadBalancer.ipv6 = "fe80::2";
+		try {
+			assertThat(NacosBalancer.preferIPv6(converted.get(0)).getHost())
+					.isEqualTo("fe80::1");
+		}
+		finally {
+			NacosLoadBalancer.ipv6 = null;
+		}
+
+		// The converted instance is shared by every lookup, it must not change.
+		List<ServiceInstance> again = converter.convert(List.of(instance), SERVICE_ID);
+		assertThat(again).isSameAs(converted);
+		assertThat(again.get(0).getHost()).isEqualTo("10.0.0.1");
+	}
+
+	@Test
+	public void testMetadataIsInterned() {
+		List<ServiceInstance> converted = converter.convert(
+				Arrays.asList(instance("10.0.0.1", 1), instance("10.0.0.2", 1)),
+				SERVICE_ID);
+
+		assertThat(converted.get(0).getMetadata().get("version"))
+				.isSameAs(converted.get(1).getMetadata().get("version"));
+		assertThat(converted.get(0).getMetadata().get("nacos.cluster"))
+				.isSameAs(converted.get(1).getMetadata().get("nacos.cluster"));
+	}
+
+	@Test
+	public void testDistinctValuesAreNotPooled() {
+		MetadataInterner interner = new MetadataInterner();
+		for (int i = 0; i < MetadataInterner.MAX_VALUES_PER_KEY + 10; i++) {
+			interner.value("address", "fd00::" + i);
+		}
+		String address = new String("fd00::1");
+		assertThat(interner.value("address", address)).isSameAs(address);
+
+		String version = new String("stable");
+		assertThat(interner.value("version", version)).isSameAs(version);
+		assertThat(interner.value("version", new String("stable"))).isSameAs(version);
+	}
+
+	private static Instance instance(String ip, double weight) {
+		Instance instance = new Instance();
+		instance.setInstanceId(ip + "#8080#DEFAULT");
+		instance.setIp(ip);
+		instance.setPort(8080);
+		instance.setClusterName(new String("DEFAULT"));
+		instance.setWeight(weight);
+		instance.setHealthy(true);
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("version", new String("stable"));
+		instance.setMetadata(metadata);
+		return instance;
+	}
+
+}
@@ -20,6 +20,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
@@ -33,8 +35,11 @@ import org.springframework.cloud.client.ServiceInstance;
 
 import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -124,6 +129,91 @@ public class NacosServiceDiscoveryTest {
 		assertThat(services.contains(serviceName + "3"));
 	}
 
+	@Test
+	public void testGetServicesNotPagedByDefault() throws NacosException {
+		NamingService namingService = pagedNamingService(25_000);
+		NacosDiscoveryProperties nacosDiscoveryProperties = new NacosDiscoveryProperties();
+		nacosDiscoveryProperties.setGroup("DEFAULT");
+
+		List<String> services = new NacosServiceDiscovery(nacosDiscoveryProperties,
+				serviceManager(namingService)).getServices();
+
+		assertThat(services).hasSize(25_000);
+		verify(namingService).getServicesOfServer(1, Integer.MAX_VALUE, "DEFAULT");
+		verify(namingService, times(1)).getServicesOfServer(anyInt(), anyInt(),
+				eq("DEFAULT"));
+	}
+
+	@Test
+	public void testGetServicesPaged() throws NacosException {
+		NamingService namingService = pagedNamingService(25_000);
+		NacosDiscoveryProperties nacosDiscoveryProperties = new NacosDiscoveryProperties();
+		nacosDiscoveryProperties.setGroup("DEFAULT");
+		nacosDiscoveryProperties.setServicesPageSize(1000);
+		nacosDiscoveryProperties.setServicesPrefix("order-");
+
+		List<String> services = new NacosServiceDiscovery(nacosDiscoveryProperties,
+				serviceManager(namingService)).getServices();
+
+		assertThat(services).hasSize(5000).allMatch(name -> name.startsWith("order-"));
+		verify(namingService, times(25)).getServicesOfServer(anyInt(), eq(1000),
+				eq("DEFAULT"));
+	}
+
+	@Test
+	public void testGetServicesCached() throws NacosException {
+		NamingService namingService = pagedNamingService(25_000);
+		NacosDiscoveryProperties nacosDiscoveryProperties = new NacosDiscoveryProperties();
+		nacosDiscoveryProperties.setGroup("DEFAULT");
+		nacosDiscoveryProperties.setServicesPageSize(5000);
+		nacosDiscoveryProperties.setServicesCacheTtl(1000);
+		AtomicLong clock = new AtomicLong();
+		NacosServiceDiscovery serviceDiscovery = new NacosServiceDiscovery(
+				nacosDiscoveryProperties, serviceManager(namingService), clock::get);
+
+		List<String> services = serviceDiscovery.getServices();
+		assertThat(services).hasSize(25_000);
+		assertThat(serviceDiscovery.getServices()).isSameAs(services);
+		verify(namingService, times(5)).getServicesOfServer(anyInt(), eq(5000),
+				eq("DEFAULT"));
+
+		// Refreshed once expired, keeping the same list when nothing changed.
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertThat(serviceDiscovery.getServices()).isSameAs(services);
+		verify(namingService, times(10)).getServicesOfServer(anyInt(), eq(5000),
+				eq("DEFAULT"));
+	}
+
+	/**
+	 * A naming service holding the given number of services, one in five of them named
+	 * {@code order-*}.
+	 */
+	private static NamingService pagedNamingService(int count) throws NacosException {
+		List<String> names = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			names.add((i % 5 == 0 ? "order-" : "service-") + i);
+		}
+		NamingService namingService = mock(NamingService.class);
+		when(namingService.getServicesOfServer(anyInt(), anyInt(), eq("DEFAULT")))
+				.thenAnswer(invocation -> {
+					int pageNo = invocation.getArgument(0);
+					int pageSize = invocation.getArgument(1);
+					int from = Math.min((pageNo - 1) * pageSize, count);
+					ListView<String> page = new ListView<>();
+					page.setCount(count);
+					page.setData(new ArrayList<>(
+							names.subList(from, Math.min(from + pageSize, count))));
+					return page;
+				});
+		return namingService;
+	}
+
+	private static NacosServiceManager serviceManager(NamingService namingService) {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		return nacosServiceManager;
+	}
+
 	private String getUri(ServiceInstance instance) {
 
 		if (instance.isSecure()) {
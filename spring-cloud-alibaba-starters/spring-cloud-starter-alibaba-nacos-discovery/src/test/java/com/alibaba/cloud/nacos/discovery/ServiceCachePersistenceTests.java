@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ServiceCachePersistence} and {@link ServiceCacheFile}.
+ */
+public class ServiceCachePersistenceTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	public void testFileRoundTrip() throws IOException {
+		Path path = dir.resolve("cache/service.cache");
+		Map<String, List<ServiceInstance>> instances = new LinkedHashMap<>();
+		instances.put("persist-a", Arrays.asList(instance("persist-a", "10.0.0.1"),
+				instance("persist-a", "10.0.0.2")));
+		new ServiceCacheFile(Arrays.asList("persist-a", "persist-b"), instances, 7)
+				.write(path);
+
+		ServiceCacheFile file = ServiceCacheFile.read(path);
+
+		assertThat(file.getGeneration()).isEqualTo(7);
+		assertThat(file.getServiceIds()).containsExactly("persist-a", "persist-b");
+		List<ServiceInstance> restored = file.getInstances().get("persist-a");
+		assertThat(restored).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.2");
+		assertThat(restored.get(0).getPort()).isEqualTo(8080);
+		assertThat(restored.get(0).getInstanceId()).isNull();
+		assertThat(restored.get(0).isSecure()).isTrue();
+		assertThat(restored.get(0).getMetadata()).containsEntry("nacos.weight", "2.0");
+		assertThat(ServiceCacheFile.read(dir.resolve("missing.cache"))).isNull();
+	}
+
+	@Test
+	public void testCorruptedFileIsRejected() throws IOException {
+		Path path = dir.resolve("service.cache");
+		Map<String, List<ServiceInstance>> instances = new LinkedHashMap<>();
+		instances.put("persist-c", Arrays.asList(instance("persist-c", "10.0.0.1")));
+		new ServiceCacheFile(Arrays.asList("persist-c"), instances, 1).write(path);
+
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(path, bytes);
+
+		assertThatThrownBy(() -> ServiceCacheFile.read(path))
+				.isInstanceOf(IOException.class).hasMessageContaining("checksum");
+	}
+
+	@Test
+	public void testPersistAndRestore() {
+		Path path = dir.resolve("service.cache");
+		ServiceCache.setInstances("persist-d",
+				Arrays.asList(instance("persist-d", "10.0.0.1")));
+		new ServiceCachePersistence(path).writeIfChanged();
+		assertThat(Files.exists(path)).isTrue();
+
+		// Entries fetched from Nacos win over the persisted ones.
+		ServiceCache.setInstances("persist-d",
+				Arrays.asList(instance("persist-d", "10.0.0.9")));
+		new ServiceCachePersistence(path).load();
+		assertThat(ServiceCache.getInstances("persist-d"))
+				.extracting(ServiceInstance::getHost).containsExactly("10.0.0.9");
+	}
+
+	@Test
+	public void testUnchangedInstancesAreNotWrittenAgain() throws IOException {
+		Path path = dir.resolve("service.cache");
+		ServiceCache.setInstances("persist-f",
+				Arrays.asList(instance("persist-f", "10.0.0.1")));
+		ServiceCachePersistence persistence = new ServiceCachePersistence(path);
+		persistence.writeIfChanged();
+		long version = ServiceCache.getVersion();
+		long generation = ServiceCacheFile.read(path).getGeneration();
+
+		// Every lookup sets the instances again.
+		ServiceCache.setInstances("persist-f",
+				Arrays.asList(instance("persist-f", "10.0.0.1")));
+		persistence.writeIfChanged();
+		assertThat(ServiceCache.getVersion()).isEqualTo(version);
+		assertThat(ServiceCacheFile.read(path).getGeneration()).isEqualTo(generation);
+
+		ServiceCache.setInstances("persist-f",
+				Arrays.asList(instance("persist-f", "10.0.0.2")));
+		persistence.writeIfChanged();
+		assertThat(ServiceCacheFile.read(path).getGeneration())
+				.isEqualTo(generation + 1);
+	}
+
+	@Test
+	public void testRestoreBeforeFirstFetch() throws IOException {
+		Path path = dir.resolve("service.cache");
+		Map<String, List<ServiceInstance>> instances = new LinkedHashMap<>();
+		instances.put("persist-e", Arrays.asList(instance("persist-e", "10.0.0.5")));
+		new ServiceCacheFile(Arrays.asList("persist-e"), instances, 1).write(path);
+
+		new ServiceCachePersistence(path).afterPropertiesSet();
+
+		assertThat(ServiceCache.getInstances("persist-e"))
+				.extracting(ServiceInstance::getHost).containsExactly("10.0.0.5");
+	}
+
+	private static ServiceInstance instance(String serviceId, String host) {
+		NacosServiceInstance instance = new NacosServiceInstance();
+		instance.setServiceId(serviceId);
+		instance.setHost(host);
+		instance.setPort(8080);
+		instance.setSecure(true);
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.weight", "2.0");
+		instance.setMetadata(metadata);
+		return instance;
+	}
+
+}
@@ -16,7 +16,9 @@
 
 package com.alibaba.cloud.nacos.discovery.reactive;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
 
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 import com.alibaba.cloud.nacos.discovery.ServiceCache;
@@ -33,6 +35,8 @@ import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -142,4 +146,40 @@ class NacosReactiveDiscoveryClientTests {
 						.expectComplete().verify();
 	}
 
+	@Test
+	public void testConcurrentGetInstancesShareOneLookup() throws NacosException {
+		CountDownLatch release = new CountDownLatch(1);
+		when(serviceDiscovery.getInstances("coalesced")).thenAnswer(invocation -> {
+			release.await();
+			return singletonList(serviceInstance);
+		});
+
+		Flux<ServiceInstance> instances = Flux.merge(
+				this.client.getInstances("coalesced"),
+				this.client.getInstances("coalesced"),
+				this.client.getInstances("coalesced"));
+
+		StepVerifier.create(instances).then(release::countDown).expectNextCount(3)
+				.expectComplete().verify(Duration.ofSeconds(5));
+		verify(serviceDiscovery, times(1)).getInstances("coalesced");
+
+		// Without a coalescing window, a completed lookup is not reused.
+		StepVerifier.create(this.client.getInstances("coalesced")).expectNextCount(1)
+				.expectComplete().verify(Duration.ofSeconds(5));
+		verify(serviceDiscovery, times(2)).getInstances("coalesced");
+	}
+
+	@Test
+	public void testCoalescingWindow() throws NacosException {
+		when(serviceDiscovery.getInstances("windowed"))
+				.thenReturn(singletonList(serviceInstance));
+		ReflectionTestUtils.setField(client, "instancesCoalescingWindow", 60_000L);
+
+		for (int i = 0; i < 3; i++) {
+			StepVerifier.create(this.client.getInstances("windowed"))
+					.expectNext(serviceInstance).expectComplete().verify();
+		}
+		verify(serviceDiscovery, times(1)).getInstances("windowed");
+	}
+
 }
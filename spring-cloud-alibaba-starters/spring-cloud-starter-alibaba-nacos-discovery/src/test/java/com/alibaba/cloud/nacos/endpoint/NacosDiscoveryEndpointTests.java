@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.endpoint;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosDiscoveryEndpoint}.
+ */
+public class NacosDiscoveryEndpointTests {
+
+	private final NamingService namingService = mock(NamingService.class);
+
+	private final NacosServiceManager nacosServiceManager = mock(
+			NacosServiceManager.class);
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		List<ServiceInfo> services = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ServiceInfo serviceInfo = new ServiceInfo();
+			serviceInfo.setName("service-" + i);
+			serviceInfo.setGroupName("DEFAULT_GROUP");
+			serviceInfo.setClusters(i == 0 ? "A,B" : "");
+			services.add(serviceInfo);
+		}
+		when(namingService.getSubscribeServices()).thenReturn(services);
+		when(namingService.getAllInstances(anyString(), anyString(), anyList(),
+				eq(true))).thenReturn(Collections.singletonList(new Instance()));
+	}
+
+	@Test
+	public void testSubscribedServicesAreCached() throws Exception {
+		NacosDiscoveryEndpoint endpoint = new NacosDiscoveryEndpoint(
+				nacosServiceManager, new NacosDiscoveryProperties());
+
+		Map<String, Object> first = endpoint.nacosDiscovery();
+		Map<String, Object> second = endpoint.nacosDiscovery();
+
+		assertThat((List<?>) first.get("subscribe")).hasSize(5);
+		assertThat(second.get("subscribe")).isSameAs(first.get("subscribe"));
+		verify(namingService, times(1)).getSubscribeServices();
+		verify(namingService).getAllInstances("service-0", "DEFAULT_GROUP",
+				List.of("A", "B"), true);
+	}
+
+	@Test
+	public void testSubscribedServicesExpire() throws Exception {
+		NacosDiscoveryEndpoint endpoint = new NacosDiscoveryEndpoint(
+				nacosServiceManager, new NacosDiscoveryProperties(), Duration.ZERO);
+
+		endpoint.nacosDiscovery();
+		endpoint.nacosDiscovery();
+
+		verify(namingService, times(2)).getSubscribeServices();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPagination() {
+		NacosDiscoveryEndpoint endpoint = new NacosDiscoveryEndpoint(
+				nacosServiceManager, new NacosDiscoveryProperties());
+
+		Map<String, Object> page = endpoint.nacosDiscovery(1, 2);
+		assertThat((List<ServiceInfo>) page.get("subscribe"))
+				.extracting(ServiceInfo::getName)
+				.containsExactly("service-2", "service-3");
+		assertThat(page).containsEntry("total", 5).containsEntry("page", 1)
+				.containsEntry("size", 2);
+
+		assertThat((List<?>) endpoint.nacosDiscovery(3, 2).get("subscribe")).isEmpty();
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.instance;
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.warmingUp;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link CandidateSetCache}.
+ */
+public class CandidateSetCacheTests {
+
+	private final List<ServiceInstance> all = Arrays.asList(instance("10.0.0.1", "A", 1),
+			instance("10.0.0.2", "A", 1), instance("10.0.0.3", "B", 1));
+
+	@Test
+	public void testAlternatingSetsAreBuiltOnce() {
+		CandidateSetCache<String> cache = new CandidateSetCache<>(4);
+		List<String> built = new ArrayList<>();
+		List<ServiceInstance> clusterA = all.subList(0, 2);
+		List<ServiceInstance> clusterB = all.subList(2, 3);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(cache.get(new ArrayList<>(clusterA), (candidates, newest) -> {
+				built.add("A");
+				return "A";
+			})).isEqualTo("A");
+			assertThat(cache.get(new ArrayList<>(clusterB), (candidates, newest) -> {
+				built.add("B");
+				return "B";
+			})).isEqualTo("B");
+		}
+
+		assertThat(built).containsExactly("A", "B");
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testOldestSetIsEvicted() {
+		CandidateSetCache<Integer> cache = new CandidateSetCache<>(2);
+		List<Integer> newestSeen = new ArrayList<>();
+
+		for (int size = 1; size <= 3; size++) {
+			int value = size;
+			cache.get(all.subList(0, size), (candidates, newest) -> {
+				newestSeen.add(newest);
+				return value;
+			});
+		}
+		int rebuilt = cache.get(all.subList(0, 1), (candidates, newest) -> 4);
+
+		assertThat(rebuilt).isEqualTo(4);
+		assertThat(newestSeen).containsExactly(null, 1, 2);
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get(all.subList(0, 3), (candidates, newest) -> 5)).isEqualTo(3);
+	}
+
+	@Test
+	public void testDifferentWeightsAreDifferentSets() {
+		CandidateSetCache<Long> cache = new CandidateSetCache<>(4);
+		List<ServiceInstance> instances = new ArrayList<>(all);
+
+		long early = cache.get(warmingUp(instances, 0), (candidates, newest) -> 0L);
+		long late = cache.get(warmingUp(instances, 95_000),
+				(candidates, newest) -> 95_000L);
+
+		assertThat(early).isZero();
+		assertThat(late).isEqualTo(95_000L);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testCapacityMustBePositive() {
+		assertThatThrownBy(() -> new CandidateSetCache<>(0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.instance;
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.warmingUp;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LabelRoutingServiceInstanceFilter}.
+ */
+public class LabelRoutingServiceInstanceFilterTests {
+
+	private final LabelRoutingProperties properties = new LabelRoutingProperties();
+
+	private final LabelRoutingServiceInstanceFilter filter = new LabelRoutingServiceInstanceFilter(
+			properties);
+
+	private final List<ServiceInstance> instances = Arrays.asList(
+			labeled("10.0.0.1", "stable", "a"), labeled("10.0.0.2", "stable", "b"),
+			labeled("10.0.0.3", "canary", "a"), labeled("10.0.0.4", "canary", "b"));
+
+	@Test
+	public void testHeaderRouting() {
+		properties.getHeaders().put("version", "X-Version");
+		properties.getHeaders().put("tenant", "X-Tenant");
+
+		assertThat(filter.filterInstance(request("canary", null), instances))
+				.extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.3", "10.0.0.4");
+		assertThat(filter.filterInstance(request("canary", "b"), instances))
+				.extracting(ServiceInstance::getHost).containsExactly("10.0.0.4");
+		assertThat(filter.filterInstance(request(null, null), instances))
+				.isSameAs(instances);
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.isSameAs(instances);
+	}
+
+	@Test
+	public void testNoMatchFallsBack() {
+		properties.getHeaders().put("version", "X-Version");
+
+		assertThat(filter.filterInstance(request("unknown", null), instances))
+				.isSameAs(instances);
+
+		properties.setFallbackToAll(false);
+		assertThat(filter.filterInstance(request("unknown", null), instances))
+				.isEmpty();
+	}
+
+	@Test
+	public void testPercentageSplit() {
+		LabelRoutingProperties.Split canary = new LabelRoutingProperties.Split();
+		canary.getLabels().put("version", "canary");
+		canary.setPercent(20);
+		properties.getSplits().add(canary);
+
+		int canaryRequests = 0;
+		for (int i = 0; i < 10000; i++) {
+			List<ServiceInstance> selected = filter
+					.filterInstance(new DefaultRequest<>(), instances);
+			// Any instance of the selected ones may be chosen.
+			ServiceInstance chosen = selected
+					.get(ThreadLocalRandom.current().nextInt(selected.size()));
+			if ("canary".equals(chosen.getMetadata().get("version"))) {
+				canaryRequests++;
+			}
+			else {
+				assertThat(selected).extracting(ServiceInstance::getHost)
+						.containsExactly("10.0.0.1", "10.0.0.2");
+			}
+		}
+		assertThat(canaryRequests).isBetween(1700, 2300);
+	}
+
+	@Test
+	public void testGroupWithoutPercentageOnlyTakesRoutedRequests() {
+		properties.getHeaders().put("version", "X-Version");
+		LabelRoutingProperties.Split canary = new LabelRoutingProperties.Split();
+		canary.getLabels().put("version", "canary");
+		properties.getSplits().add(canary);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(filter.filterInstance(request(null, null), instances))
+					.extracting(ServiceInstance::getHost)
+					.containsExactly("10.0.0.1", "10.0.0.2");
+		}
+		assertThat(filter.filterInstance(request("canary", null), instances))
+				.extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.3", "10.0.0.4");
+	}
+
+	@Test
+	public void testWeightsAreKept() {
+		properties.getHeaders().put("version", "X-Version");
+		ServiceInstance[] array = instances.toArray(new ServiceInstance[0]);
+		WeightedServiceInstanceList weighted = WeightedServiceInstanceList.of(array,
+				new double[] { 1, 2, 3, 4 });
+
+		List<ServiceInstance> selected = filter
+				.filterInstance(request("canary", null), weighted);
+
+		assertThat(selected).isInstanceOf(WeightedServiceInstanceList.class);
+		assertThat(((WeightedServiceInstanceList) selected).getTotalWeight())
+				.isEqualTo(7);
+	}
+
+	@Test
+	public void testWarmupStepChangesDistribution() {
+		properties.getHeaders().put("version", "X-Version");
+
+		// Weights 0.1 and 1 on the first step of the ramp, 0.91 and 1 on the last one.
+		assertThat(countFirst(warmingUp(instances, 0))).isBetween(500, 1400);
+		assertThat(countFirst(warmingUp(instances, 95_000))).isBetween(4300, 5200);
+	}
+
+	private int countFirst(List<ServiceInstance> candidates) {
+		WeightedServiceInstanceList selected = WeightedServiceInstanceList
+				.of(filter.filterInstance(request("stable", null), candidates));
+		assertThat(selected).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.2");
+		int count = 0;
+		for (int i = 0; i < 10000; i++) {
+			if (selected.chooseByRandomWeight().getHost().equals("10.0.0.1")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static ServiceInstance labeled(String ip, String version, String tenant) {
+		ServiceInstance instance = instance(ip, "A", 1);
+		instance.getMetadata().put("version", version);
+		instance.getMetadata().put("tenant", tenant);
+		return instance;
+	}
+
+	private static Request<RequestDataContext> request(String version, String tenant) {
+		HttpHeaders headers = new HttpHeaders();
+		if (version != null) {
+			headers.add("X-Version", version);
+		}
+		if (tenant != null) {
+			headers.add("X-Tenant", tenant);
+		}
+		Map<String, Object> attributes = new HashMap<>();
+		return new DefaultRequest<>(new RequestDataContext(new RequestData(
+				HttpMethod.GET, URI.create("http://test-service/"), headers,
+				new LinkedMultiValueMap<>(), attributes)));
+	}
+
+}
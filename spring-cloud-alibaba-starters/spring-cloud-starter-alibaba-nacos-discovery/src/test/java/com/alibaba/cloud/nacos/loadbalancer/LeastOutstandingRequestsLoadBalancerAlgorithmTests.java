@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.instance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LeastOutstandingRequestsLoadBalancerAlgorithm} and
+ * {@link InFlightRequestTracker}.
+ */
+public class LeastOutstandingRequestsLoadBalancerAlgorithmTests {
+
+	private final InFlightRequestTracker tracker = new InFlightRequestTracker();
+
+	private final LeastOutstandingRequestsLoadBalancerAlgorithm algorithm = new LeastOutstandingRequestsLoadBalancerAlgorithm(
+			tracker);
+
+	@Test
+	public void testChoosesLeastLoadedInstance() {
+		ServiceInstance busy = instance("10.0.0.1", "A", 1);
+		ServiceInstance idle = instance("10.0.0.2", "A", 1);
+		List<ServiceInstance> instances = Arrays.asList(busy, idle);
+
+		start(busy);
+		start(busy);
+		start(idle);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+					.isEqualTo(idle);
+		}
+
+		complete(busy, CompletionContext.Status.SUCCESS);
+		complete(busy, CompletionContext.Status.FAILED);
+		assertThat(tracker.getInFlight(busy)).isZero();
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+				.isEqualTo(busy);
+	}
+
+	@Test
+	public void testWeightAndZeroWeight() {
+		ServiceInstance heavy = instance("10.0.0.1", "A", 4);
+		ServiceInstance light = instance("10.0.0.2", "A", 1);
+		ServiceInstance disabled = instance("10.0.0.3", "A", 0);
+		List<ServiceInstance> instances = Arrays.asList(heavy, light, disabled);
+
+		// (2 + 1) / 4 < (0 + 1) / 1
+		start(heavy);
+		start(heavy);
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+				.isEqualTo(heavy);
+
+		start(heavy);
+		start(heavy);
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+				.isEqualTo(light);
+	}
+
+	@Test
+	public void testDiscardedRequestsAreNotCounted() {
+		ServiceInstance server = instance("10.0.0.1", "A", 1);
+		complete(server, CompletionContext.Status.DISCARD);
+		assertThat(tracker.getInFlight(server)).isZero();
+	}
+
+	@Test
+	public void testInFlightGauge() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ServiceInstance first = instance("10.0.0.1", "A", 1);
+		start(first);
+		new InFlightRequestMeterBinder(tracker).bindTo(registry);
+		ServiceInstance second = instance("10.0.0.2", "A", 1);
+		start(second);
+		start(second);
+
+		assertThat(registry.get(InFlightRequestMeterBinder.METRIC_NAME)
+				.tag("instance", "10.0.0.1:8080").gauge().value()).isEqualTo(1);
+		assertThat(registry.get(InFlightRequestMeterBinder.METRIC_NAME)
+				.tag("instance", "10.0.0.2:8080").gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	public void testCountersOfDepartedInstancesAreReleased() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new InFlightRequestMeterBinder(tracker).bindTo(registry);
+		ServiceInstance kept = instance("10.0.0.1", "A", 1);
+		ServiceInstance idle = instance("10.0.0.2", "A", 1);
+		ServiceInstance busy = instance("10.0.0.3", "A", 1);
+		start(kept);
+		start(idle);
+		complete(idle, CompletionContext.Status.SUCCESS);
+		start(busy);
+
+		tracker.onInstanceListChanged(kept.getServiceId(),
+				Collections.singletonList(kept));
+		// Instances of other services are left alone.
+		tracker.onInstanceListChanged("other-service", Collections.emptyList());
+
+		assertThat(registry.find(InFlightRequestMeterBinder.METRIC_NAME).gauges())
+				.extracting(gauge -> gauge.getId().getTag("instance"))
+				.containsExactlyInAnyOrder("10.0.0.1:8080", "10.0.0.3:8080");
+		assertThat(tracker.getInFlight(kept)).isEqualTo(1);
+		assertThat(tracker.getInFlight(busy)).isEqualTo(1);
+
+		// Released once its last request completed.
+		complete(busy, CompletionContext.Status.SUCCESS);
+		tracker.onInstanceListChanged(kept.getServiceId(),
+				Collections.singletonList(kept));
+		complete(busy, CompletionContext.Status.SUCCESS);
+		assertThat(registry.find(InFlightRequestMeterBinder.METRIC_NAME).gauges())
+				.extracting(gauge -> gauge.getId().getTag("instance"))
+				.containsExactly("10.0.0.1:8080");
+	}
+
+	private void start(ServiceInstance server) {
+		tracker.onStartRequest(new DefaultRequest<>(), new DefaultResponse(server));
+	}
+
+	private void complete(ServiceInstance server, CompletionContext.Status status) {
+		Response<ServiceInstance> response = new DefaultResponse(server);
+		tracker.onComplete(new CompletionContext<>(status, new DefaultRequest<>(),
+				response));
+	}
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.instance;
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.warmingUp;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link MaglevLoadBalancerAlgorithm}.
+ */
+public class MaglevLoadBalancerAlgorithmTests {
+
+	private static final int TABLE_SIZE = 1009;
+
+	@Test
+	public void testSameKeySameInstance() {
+		MaglevLoadBalancerAlgorithm algorithm = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id",
+				TABLE_SIZE);
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 1),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "A", 1));
+
+		for (int key = 0; key < 100; key++) {
+			ServiceInstance chosen = algorithm.getInstance(header("user-" + key),
+					instances);
+			for (int i = 0; i < 5; i++) {
+				assertThat(algorithm.getInstance(header("user-" + key), instances))
+						.isEqualTo(chosen);
+			}
+		}
+	}
+
+	@Test
+	public void testInstanceOrderDoesNotMatter() {
+		MaglevLoadBalancerAlgorithm first = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id",
+				TABLE_SIZE);
+		MaglevLoadBalancerAlgorithm second = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id",
+				TABLE_SIZE);
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 1),
+				instance("10.0.0.2", "A", 2), instance("10.0.0.3", "A", 1),
+				instance("10.0.0.4", "A", 1));
+		List<ServiceInstance> reversed = new ArrayList<>(instances);
+		Collections.reverse(reversed);
+
+		for (int key = 0; key < 1000; key++) {
+			assertThat(second.getInstance(header("user-" + key), reversed))
+					.isEqualTo(first.getInstance(header("user-" + key), instances));
+		}
+	}
+
+	@Test
+	public void testMembershipChangeMovesFewKeys() {
+		MaglevLoadBalancerAlgorithm algorithm = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id",
+				TABLE_SIZE);
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 1),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "A", 1),
+				instance("10.0.0.4", "A", 1));
+		Map<Integer, String> before = new HashMap<>();
+		for (int key = 0; key < 1000; key++) {
+			before.put(key, algorithm.getInstance(header("user-" + key), instances)
+					.getHost());
+		}
+
+		List<ServiceInstance> changed = Arrays.asList(instance("10.0.0.1", "A", 1),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "A", 1));
+		int moved = 0;
+		for (int key = 0; key < 1000; key++) {
+			String host = algorithm.getInstance(header("user-" + key), changed).getHost();
+			if (!"10.0.0.4".equals(before.get(key)) && !host.equals(before.get(key))) {
+				moved++;
+			}
+		}
+
+		// Keys of the remaining instances should mostly stay where they were.
+		assertThat(moved).isLessThan(100);
+	}
+
+	@Test
+	public void testWeightAndZeroWeight() {
+		MaglevLoadBalancerAlgorithm algorithm = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id",
+				TABLE_SIZE);
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 3),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "A", 0));
+		Map<String, Integer> counts = new HashMap<>();
+		for (int key = 0; key < 4000; key++) {
+			counts.merge(algorithm.getInstance(header("user-" + key), instances)
+					.getHost(), 1, Integer::sum);
+		}
+
+		assertThat(counts).containsOnlyKeys("10.0.0.1", "10.0.0.2");
+		assertThat(counts.get("10.0.0.1")).isBetween(2700, 3300);
+	}
+
+	@Test
+	public void testWarmupStepChangesDistribution() {
+		MaglevLoadBalancerAlgorithm algorithm = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id",
+				TABLE_SIZE);
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 2),
+				instance("10.0.0.2", "A", 2));
+
+		// Weights 0.2 and 2 on the first step of the ramp, 1.82 and 2 on the last one.
+		assertThat(countFirst(algorithm, warmingUp(instances, 0))).isBetween(200, 700);
+		assertThat(countFirst(algorithm, warmingUp(instances, 95_000)))
+				.isBetween(1600, 2200);
+	}
+
+	private static int countFirst(MaglevLoadBalancerAlgorithm algorithm,
+			List<ServiceInstance> instances) {
+		int count = 0;
+		for (int key = 0; key < 4000; key++) {
+			if (algorithm.getInstance(header("user-" + key), instances).getHost()
+					.equals(instances.get(0).getHost())) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void testAlternatingSubsetsKeepTheirMapping() {
+		MaglevLoadBalancerAlgorithm algorithm = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "X-User-Id",
+				TABLE_SIZE);
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 1),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "B", 1),
+				instance("10.0.0.4", "B", 1));
+		List<ServiceInstance> clusterA = instances.subList(0, 2);
+		List<ServiceInstance> all = new ArrayList<>(instances);
+		Map<Integer, ServiceInstance> inClusterA = new HashMap<>();
+		Map<Integer, ServiceInstance> inAll = new HashMap<>();
+		for (int key = 0; key < 100; key++) {
+			inClusterA.put(key, algorithm.getInstance(header("user-" + key), clusterA));
+			inAll.put(key, algorithm.getInstance(header("user-" + key), all));
+		}
+
+		// A filter handing alternating subsets to consecutive requests.
+		for (int key = 0; key < 100; key++) {
+			assertThat(algorithm.getInstance(header("user-" + key),
+					new ArrayList<>(clusterA))).isEqualTo(inClusterA.get(key));
+			assertThat(algorithm.getInstance(header("user-" + key), all))
+					.isEqualTo(inAll.get(key));
+		}
+	}
+
+	@Test
+	public void testKeySources() {
+		MaglevLoadBalancerAlgorithm header = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.HEADER, "key");
+		MaglevLoadBalancerAlgorithm cookie = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.COOKIE, "key");
+		MaglevLoadBalancerAlgorithm query = new MaglevLoadBalancerAlgorithm(
+				"test-service", MaglevLoadBalancerAlgorithm.KeySource.QUERY_PARAMETER,
+				"key");
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("key", "abc");
+		MultiValueMap<String, String> cookies = new LinkedMultiValueMap<>();
+		cookies.add("key", "abc");
+		long expected = header.hashKey(request(headers, cookies, "/?a=1"));
+
+		assertThat(expected).isNotZero();
+		assertThat(cookie.hashKey(request(headers, cookies, "/"))).isEqualTo(expected);
+		assertThat(query.hashKey(request(headers, cookies, "/?a=1&key=abc&b=2")))
+				.isEqualTo(expected);
+		assertThat(query.hashKey(request(headers, cookies, "/?a=1&keys=abc")))
+				.isZero();
+		assertThat(header.hashKey(new DefaultRequest<>())).isZero();
+	}
+
+	@Test
+	public void testTableSizeMustBePrime() {
+		assertThatThrownBy(() -> new MaglevLoadBalancerAlgorithm("test-service",
+				MaglevLoadBalancerAlgorithm.KeySource.HEADER, "key", 1000))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static Request<RequestDataContext> header(String value) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-User-Id", value);
+		return request(headers, new LinkedMultiValueMap<>(), "/");
+	}
+
+	private static Request<RequestDataContext> request(HttpHeaders headers,
+			MultiValueMap<String, String> cookies, String url) {
+		return new DefaultRequest<>(new RequestDataContext(new RequestData(
+				HttpMethod.GET, URI.create("http://test-service" + url), headers,
+				cookies, new HashMap<>())));
+	}
+
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.cloud.nacos.registry.NacosRegistration;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosLoadBalancer}.
+ */
+public class NacosLoadBalancerTests {
+
+	private static final String SERVICE_ID = "test-service";
+
+	@BeforeEach
+	public void setUp() {
+		NacosLoadBalancer.ipv6 = null;
+	}
+
+	@AfterEach
+	public void tearDown() {
+		NacosLoadBalancer.ipv6 = null;
+	}
+
+	@Test
+	public void testSnapshotPrefersSameCluster() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("10.0.0.1", "A", 1), instance("10.0.0.2", "B", 1),
+				instance("10.0.0.3", "A", 1));
+
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.build(instances, "A",
+				null);
+
+		assertThat(snapshot.isCrossCluster()).isFalse();
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.3");
+
+		snapshot = NacosInstanceSnapshot.build(instances, "C", null);
+
+		assertThat(snapshot.isCrossCluster()).isTrue();
+		assertThat(snapshot.getCandidates()).hasSize(3);
+	}
+
+	@Test
+	public void testSnapshotLocalityTiers() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("10.0.0.1", "A", 1, "z1", "r1"),
+				instance("10.0.0.2", "B", 1, "z1", "r1"),
+				instance("10.0.0.3", "C", 1, "z2", "r1"),
+				instance("10.0.0.4", "D", 1, "z3", "r2"),
+				instance("10.0.0.5", "D", 1, "z3", "r2"));
+
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.build(instances, "A",
+				"z1", "r1", null, new NacosLocality(0, 0, 0), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.CLUSTER);
+		assertThat(snapshot.isSpilled()).isFalse();
+
+		// Without the registered instances, a tier is healthy as long as it is not
+		// empty.
+		snapshot = NacosInstanceSnapshot.build(instances, "A", "z1", "r1", null,
+				new NacosLocality(1, 1, 1), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.CLUSTER);
+
+		snapshot = NacosInstanceSnapshot.build(instances, "E", "z2", "r1", null,
+				new NacosLocality(1, 1, 1), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.ZONE);
+		assertThat(snapshot.isSpilled()).isTrue();
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.3");
+
+		snapshot = NacosInstanceSnapshot.build(instances, null, "z4", "r3", null,
+				new NacosLocality(0, 0, 0), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.ANY);
+		assertThat(snapshot.isSpilled()).isTrue();
+		assertThat(snapshot.getCandidates()).hasSize(5);
+
+		// Without locality, zones are ignored as before.
+		snapshot = NacosInstanceSnapshot.build(instances, "E", "z1", "r1", null, null,
+				null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.ANY);
+		assertThat(snapshot.isCrossCluster()).isTrue();
+	}
+
+	@Test
+	public void testSnapshotLocalityTiersWeighHealthyAgainstRegistered() {
+		List<ServiceInstance> instances = published(
+				registered("10.0.0.1", "A", true, "z1", "r1"),
+				registered("10.0.0.6", "A", false, "z1", "r1"),
+				registered("10.0.0.2", "B", true, "z1", "r1"),
+				registered("10.0.0.3", "C", true, "z2", "r1"),
+				registered("10.0.0.4", "D", true, "z3", "r2"),
+				registered("10.0.0.5", "D", true, "z3", "r2"));
+
+		// Half of cluster A, two thirds of zone z1 and three quarters of region r1
+		// are healthy.
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.build(instances, "A",
+				"z1", "r1", null, new NacosLocality(0.5, 0.5, 0.5), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.CLUSTER);
+
+		snapshot = NacosInstanceSnapshot.build(instances, "A", "z1", "r1", null,
+				new NacosLocality(0.6, 0.6, 0.6), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.ZONE);
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.2");
+
+		snapshot = NacosInstanceSnapshot.build(instances, "A", "z1", "r1", null,
+				new NacosLocality(0.7, 0.7, 0.7), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.REGION);
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.2", "10.0.0.3");
+
+		snapshot = NacosInstanceSnapshot.build(instances, "A", "z1", "r1", null,
+				new NacosLocality(0.8, 0.8, 0.8), null, 0);
+		assertThat(snapshot.getTier()).isEqualTo(NacosLocality.Tier.ANY);
+		assertThat(snapshot.getCandidates()).hasSize(5);
+
+		// The same healthy instances with other registered ones rebuild the snapshot.
+		assertThat(snapshot.isBuiltFrom(instances, "A", "z1", "r1", null)).isTrue();
+		assertThat(snapshot.isBuiltFrom(new NacosServiceInstanceList(instances,
+				Collections.emptyList()), "A", "z1", "r1", null)).isFalse();
+	}
+
+	@Test
+	public void testSnapshotFiltersByIpType() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("10.0.0.1", "A", 1), instance("fe80::1", "A", 1));
+
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.build(instances, null,
+				null);
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1");
+
+		snapshot = NacosInstanceSnapshot.build(instances, null, "fe80::2");
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getHost)
+				.containsExactly("fe80::1");
+	}
+
+	@Test
+	public void testSnapshotIsReusedUntilMembershipChanges() {
+		NacosLoadBalancer loadBalancer = loadBalancer(null);
+		List<ServiceInstance> instances = new ArrayList<>(Arrays.asList(
+				instance("10.0.0.1", "A", 1), instance("10.0.0.2", "A", 1)));
+
+		NacosInstanceSnapshot first = loadBalancer.getSnapshot(instances);
+		assertThat(loadBalancer.getSnapshot(instances)).isSameAs(first);
+		assertThat(loadBalancer.getSnapshot(new ArrayList<>(instances))).isSameAs(first);
+
+		List<ServiceInstance> changed = new ArrayList<>(instances);
+		changed.add(instance("10.0.0.3", "A", 1));
+		assertThat(loadBalancer.getSnapshot(changed)).isNotSameAs(first);
+	}
+
+	@Test
+	public void testInstanceListListenersAreNotifiedOfChanges() {
+		NacosLoadBalancer loadBalancer = loadBalancer(null);
+		List<List<ServiceInstance>> notified = new ArrayList<>();
+		loadBalancer.setInstanceListListeners(Arrays.asList((serviceId,
+				serviceInstances) -> notified.add(serviceInstances)));
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 1));
+		List<ServiceInstance> changed = Arrays.asList(instance("10.0.0.2", "A", 1));
+
+		loadBalancer.getSnapshot(instances);
+		loadBalancer.getSnapshot(new ArrayList<>(instances));
+		loadBalancer.getSnapshot(changed);
+
+		assertThat(notified).containsExactly(instances, changed);
+
+		// Once no instance is left, the listeners are told so, once.
+		loadBalancer.choose(new DefaultRequest<>()).block();
+		loadBalancer.choose(new DefaultRequest<>()).block();
+
+		assertThat(notified).hasSize(3);
+		assertThat(notified.get(2)).isEmpty();
+	}
+
+	@Test
+	public void testSnapshotWarmup() {
+		long registered = 1_000_000L;
+		ServiceInstance warming = instance("10.0.0.1", "A", 2);
+		warming.getMetadata().put(NacosRegistration.REGISTER_TIMESTAMP,
+				String.valueOf(registered));
+		List<ServiceInstance> instances = Arrays.asList(warming,
+				instance("10.0.0.2", "A", 2));
+		NacosWarmup warmup = new NacosWarmup(Duration.ofSeconds(100), 0.1);
+
+		NacosInstanceSnapshot snapshot = NacosInstanceSnapshot.build(instances, null,
+				null, warmup, registered);
+		assertThat(snapshot.getCandidates().getWeight(0)).isCloseTo(0.2, within(1e-9));
+		assertThat(snapshot.getCandidates().getWeight(1)).isEqualTo(2);
+		assertThat(snapshot.isExpired(registered + 9_999)).isFalse();
+		assertThat(snapshot.isExpired(registered + 10_000)).isTrue();
+
+		snapshot = NacosInstanceSnapshot.build(instances, null, null, warmup,
+				registered + 55_000);
+		assertThat(snapshot.getCandidates().getWeight(0)).isCloseTo(1.1, within(1e-9));
+
+		snapshot = NacosInstanceSnapshot.build(instances, null, null, warmup,
+				registered + 100_000);
+		assertThat(snapshot.getCandidates().getWeight(0)).isEqualTo(2);
+		assertThat(snapshot.isExpired(Long.MAX_VALUE - 1)).isFalse();
+	}
+
+	@Test
+	public void testPreferIpv6DoesNotModifyChosenInstance() {
+		ServiceInstance instance = instance("10.0.0.1", "A", 1);
+		instance.getMetadata().put(NacosInstanceSnapshot.IPV6_KEY, "fe80::1");
+		List<ServiceInstance> instances = Arrays.asList(instance);
+		NacosLoadBalancer loadBalancer = loadBalancer(instances);
+		NacosLoadBalancer.ipv6 = "fe80::2";
+
+		ServiceInstance chosen = NacosBalancer
+				.getHostByRandomWeight3(loadBalancer.getSnapshot(instances)
+						.getCandidates());
+
+		assertThat(chosen.getHost()).isEqualTo("fe80::1");
+		assertThat(chosen.getInstanceId()).isEqualTo(instance.getInstanceId());
+		assertThat(instance.getHost()).isEqualTo("10.0.0.1");
+		assertThat(NacosBalancer.preferIPv6(instance).getHost()).isEqualTo("fe80::1");
+		assertThat(instance.getHost()).isEqualTo("10.0.0.1");
+	}
+
+	@Test
+	public void testWarmupSurvivesFilters() {
+		assertWarmupSurvives(ArrayList::new);
+		// Weighed again from the metadata, without the warm-up.
+		assertWarmupSurvives(serviceInstances -> WeightedServiceInstanceList
+				.of(new ArrayList<>(serviceInstances)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void assertWarmupSurvives(
+			Function<List<ServiceInstance>, List<ServiceInstance>> filtering) {
+		ServiceInstance warming = instance("10.0.0.1", "A", 2);
+		warming.getMetadata().put(NacosRegistration.REGISTER_TIMESTAMP,
+				String.valueOf(System.currentTimeMillis()));
+		List<ServiceInstance> instances = Arrays.asList(warming,
+				instance("10.0.0.2", "A", 2));
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get(any())).thenReturn(Flux.just(instances));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		ServiceInstanceFilter copyingFilter = new ServiceInstanceFilter() {
+			@Override
+			public List<ServiceInstance> filterInstance(
+					Request<?> request,
+					List<ServiceInstance> serviceInstances) {
+				return filtering.apply(serviceInstances);
+			}
+
+			@Override
+			public int getOrder() {
+				return 0;
+			}
+		};
+		List<List<ServiceInstance>> chosenFrom = new ArrayList<>();
+		LoadBalancerAlgorithm capturing = new LoadBalancerAlgorithm() {
+			@Override
+			public String getServiceId() {
+				return LoadBalancerAlgorithm.DEFAULT_SERVICE_ID;
+			}
+
+			@Override
+			public ServiceInstance getInstance(
+					Request<?> request,
+					List<ServiceInstance> serviceInstances) {
+				chosenFrom.add(serviceInstances);
+				return serviceInstances.get(0);
+			}
+
+			@Override
+			public int getOrder() {
+				return 0;
+			}
+		};
+		Map<String, LoadBalancerAlgorithm> algorithms = new HashMap<>();
+		algorithms.put(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID, capturing);
+		NacosLoadBalancer loadBalancer = new NacosLoadBalancer(provider, SERVICE_ID,
+				new NacosDiscoveryProperties(), null, Arrays.asList(copyingFilter),
+				algorithms);
+		loadBalancer.setWarmup(Duration.ofSeconds(100), 0.1);
+
+		loadBalancer.choose(new DefaultRequest<>()).block();
+
+		assertThat(chosenFrom).hasSize(1);
+		assertThat(chosenFrom.get(0)).isInstanceOf(WeightedServiceInstanceList.class);
+		WeightedServiceInstanceList weighted = (WeightedServiceInstanceList) chosenFrom
+				.get(0);
+		assertThat(weighted.getWeight(0)).isCloseTo(0.2, within(1e-9));
+		assertThat(weighted.getWeight(1)).isEqualTo(2);
+	}
+
+	@Test
+	public void testWeightedChoiceSkipsZeroWeight() {
+		WeightedServiceInstanceList instances = WeightedServiceInstanceList.of(Arrays.asList(
+				instance("10.0.0.1", "A", 0), instance("10.0.0.2", "A", 3),
+				instance("10.0.0.3", "A", 0), instance("10.0.0.4", "A", 1)));
+
+		assertThat(instances.getTotalWeight()).isEqualTo(4.0D);
+		assertThat(instances.indexOfWeight(0)).isEqualTo(1);
+		assertThat(instances.indexOfWeight(2.9D)).isEqualTo(1);
+		assertThat(instances.indexOfWeight(3.0D)).isEqualTo(3);
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < 4000; i++) {
+			counts.merge(NacosBalancer.getHostByRandomWeight3(instances).getHost(), 1,
+					Integer::sum);
+		}
+		assertThat(counts).containsOnlyKeys("10.0.0.2", "10.0.0.4");
+		assertThat(counts.get("10.0.0.2")).isGreaterThan(counts.get("10.0.0.4"));
+	}
+
+	@Test
+	public void testChoose() {
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 1),
+				instance("10.0.0.2", "B", 1));
+		NacosLoadBalancer loadBalancer = loadBalancer(instances);
+
+		Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>())
+				.block();
+
+		assertThat(response).isNotNull();
+		assertThat(response.hasServer()).isTrue();
+		assertThat(response.getServer().getHost()).isEqualTo("10.0.0.1");
+	}
+
+	@Test
+	public void testMetrics() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		MicrometerNacosLoadBalancerMetrics metrics = new MicrometerNacosLoadBalancerMetrics(
+				1);
+		metrics.bindTo(registry);
+		NacosLoadBalancer loadBalancer = loadBalancer(Arrays
+				.asList(instance("10.0.0.1", "B", 1), instance("10.0.0.2", "B", 1)));
+		loadBalancer.setMetrics(metrics);
+
+		for (int i = 0; i < 20; i++) {
+			loadBalancer.choose(new DefaultRequest<>()).block();
+		}
+
+		assertThat(registry.get(MicrometerNacosLoadBalancerMetrics.CHOICE_METRIC_NAME)
+				.tag("serviceId", SERVICE_ID)
+				.tag("outcome", NacosLoadBalancerMetrics.OUTCOME_SUCCESS).timer()
+				.count()).isEqualTo(20);
+		assertThat(registry.get(MicrometerNacosLoadBalancerMetrics.CANDIDATES_METRIC_NAME)
+				.tag("stage", NacosLoadBalancerMetrics.STAGE_IP_TYPE).summary()
+				.totalAmount()).isEqualTo(40);
+		// No instance in the local cluster A.
+		assertThat(registry.get(MicrometerNacosLoadBalancerMetrics.SPILLS_METRIC_NAME)
+				.tag("tier", "any").counter().count()).isEqualTo(20);
+		// A single instance is tagged, the other one is counted as "other".
+		assertThat(registry.get(MicrometerNacosLoadBalancerMetrics.SELECTIONS_METRIC_NAME)
+				.counters()).hasSize(2);
+		assertThat(registry.get(MicrometerNacosLoadBalancerMetrics.SELECTIONS_METRIC_NAME)
+				.counters().stream().mapToDouble(Counter::count).sum()).isEqualTo(20);
+	}
+
+	@Test
+	public void testMetricsOfDepartedInstancesAreRemoved() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		MicrometerNacosLoadBalancerMetrics metrics = new MicrometerNacosLoadBalancerMetrics(
+				2);
+		metrics.bindTo(registry);
+		ServiceInstance first = instance("10.0.0.1", "A", 1);
+		ServiceInstance second = instance("10.0.0.2", "A", 1);
+		ServiceInstance third = instance("10.0.0.3", "A", 1);
+		metrics.recordSelection(SERVICE_ID, first);
+		metrics.recordSelection(SERVICE_ID, second);
+		metrics.recordSelection(SERVICE_ID, third);
+
+		metrics.onInstanceListChanged(SERVICE_ID, Arrays.asList(second, third));
+
+		assertThat(registry.find(MicrometerNacosLoadBalancerMetrics.SELECTIONS_METRIC_NAME)
+				.counters()).extracting(counter -> counter.getId().getTag("instance"))
+				.containsExactlyInAnyOrder("10.0.0.2:8080",
+						MicrometerNacosLoadBalancerMetrics.OTHER_INSTANCE);
+
+		// The released tag is given to the next instance.
+		metrics.recordSelection(SERVICE_ID, third);
+		assertThat(registry.get(MicrometerNacosLoadBalancerMetrics.SELECTIONS_METRIC_NAME)
+				.tag("instance", "10.0.0.3:8080").counter().count()).isEqualTo(1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private NacosLoadBalancer loadBalancer(List<ServiceInstance> instances) {
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get(any())).thenReturn(Flux.just(instances == null
+				? new ArrayList<>() : instances));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setClusterName("A");
+		Map<String, LoadBalancerAlgorithm> algorithms = new HashMap<>();
+		algorithms.put(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID,
+				new DefaultLoadBalancerAlgorithm());
+		return new NacosLoadBalancer(provider, SERVICE_ID, properties, null,
+				new ArrayList<>(), algorithms);
+	}
+
+	private static ServiceInstance instance(String ip, String cluster, double weight,
+			String zone, String region) {
+		ServiceInstance instance = instance(ip, cluster, weight);
+		instance.getMetadata().put(NacosLocality.ZONE_KEY, zone);
+		instance.getMetadata().put(NacosLocality.REGION_KEY, region);
+		return instance;
+	}
+
+	private static Instance registered(String ip, String cluster, boolean healthy,
+			String zone, String region) {
+		Instance instance = new Instance();
+		instance.setInstanceId(ip + "#8080#" + cluster);
+		instance.setIp(ip);
+		instance.setPort(8080);
+		instance.setClusterName(cluster);
+		instance.setHealthy(healthy);
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put(NacosLocality.ZONE_KEY, zone);
+		metadata.put(NacosLocality.REGION_KEY, region);
+		instance.setMetadata(metadata);
+		return instance;
+	}
+
+	/**
+	 * The healthy instances, as published by the subscription supplier.
+	 */
+	private static List<ServiceInstance> published(Instance... registered) {
+		List<ServiceInstance> healthy = new ArrayList<>();
+		for (Instance instance : registered) {
+			if (instance.isHealthy()) {
+				healthy.add(NacosServiceDiscovery.hostToServiceInstance(instance,
+						SERVICE_ID));
+			}
+		}
+		return new NacosServiceInstanceList(healthy, Arrays.asList(registered));
+	}
+
+	/**
+	 * Candidates of a snapshot in which the first instance registered the given time
+	 * ago, with a warm-up of 100 seconds starting at a tenth of the weight.
+	 */
+	static WeightedServiceInstanceList warmingUp(List<ServiceInstance> instances,
+			long elapsedMillis) {
+		long registered = 1_000_000L;
+		instances.get(0).getMetadata().put(NacosRegistration.REGISTER_TIMESTAMP,
+				String.valueOf(registered));
+		return NacosInstanceSnapshot.build(instances, null, null,
+				new NacosWarmup(Duration.ofSeconds(100), 0.1), registered + elapsedMillis)
+				.getCandidates();
+	}
+
+	static ServiceInstance instance(String ip, String cluster, double weight) {
+		Instance instance = new Instance();
+		instance.setInstanceId(ip + "#8080#" + cluster);
+		instance.setIp(ip);
+		instance.setPort(8080);
+		instance.setClusterName(cluster);
+		instance.setWeight(weight);
+		instance.setHealthy(true);
+		return NacosServiceDiscovery.hostToServiceInstance(instance, SERVICE_ID);
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosServiceInstanceListSupplier}.
+ */
+public class NacosServiceInstanceListSupplierTests {
+
+	private static final String SERVICE_ID = "test-service";
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private NamingService namingService;
+
+	private NacosServiceManager nacosServiceManager;
+
+	private NacosDiscoveryProperties properties;
+
+	@BeforeEach
+	public void setUp() {
+		namingService = mock(NamingService.class);
+		nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		properties = new NacosDiscoveryProperties();
+	}
+
+	@Test
+	public void testInstancesArePushed() throws NacosException {
+		when(namingService.getAllInstances(SERVICE_ID, "DEFAULT_GROUP", true))
+				.thenReturn(Collections.singletonList(instance("10.0.0.1", 1)));
+		NacosServiceInstanceListSupplier supplier = new NacosServiceInstanceListSupplier(
+				SERVICE_ID, nacosServiceManager, properties);
+
+		List<ServiceInstance> first = supplier.get().next().block(TIMEOUT);
+		assertThat(first).extracting(ServiceInstance::getHost).containsExactly("10.0.0.1");
+
+		supplier.onEvent(new NamingEvent(SERVICE_ID, Arrays.asList(
+				instance("10.0.0.1", 2), instance("10.0.0.2", 1), instance("10.0.0.3", 0))));
+
+		List<ServiceInstance> second = supplier.get().next().block(TIMEOUT);
+		assertThat(second).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.2");
+		assertThat(second.get(0).getMetadata().get("nacos.weight")).isEqualTo("2.0");
+
+		// the naming client is only used once, to subscribe and seed the list
+		verify(namingService, times(1)).subscribe(eq(SERVICE_ID), eq("DEFAULT_GROUP"),
+				any(NacosServiceInstanceListSupplier.class));
+		verify(namingService, times(1)).getAllInstances(anyString(), anyString(),
+				anyBoolean());
+
+		supplier.destroy();
+		verify(namingService).unsubscribe(SERVICE_ID, "DEFAULT_GROUP", supplier);
+	}
+
+	@Test
+	public void testUnhealthyAndDisabledInstancesAreNotPublished() {
+		NacosServiceInstanceListSupplier supplier = new NacosServiceInstanceListSupplier(
+				SERVICE_ID, nacosServiceManager, properties);
+		Instance unhealthy = instance("10.0.0.2", 1);
+		unhealthy.setHealthy(false);
+		Instance disabled = instance("10.0.0.3", 1);
+		disabled.setEnabled(false);
+
+		supplier.onEvent(new NamingEvent(SERVICE_ID,
+				Arrays.asList(instance("10.0.0.1", 1), unhealthy, disabled)));
+
+		assertThat(supplier.get().next().block(TIMEOUT))
+				.extracting(ServiceInstance::getHost).containsExactly("10.0.0.1");
+	}
+
+	@Test
+	public void testSeedKeepsUnhealthyInstancesForLocality() throws NacosException {
+		Instance healthy = instance("10.0.0.1", 1);
+		healthy.setClusterName("A");
+		Instance unhealthy = instance("10.0.0.2", 1);
+		unhealthy.setClusterName("A");
+		unhealthy.setHealthy(false);
+		// Already subscribed and unchanged, so nothing is pushed.
+		when(namingService.getAllInstances(SERVICE_ID, "DEFAULT_GROUP", true))
+				.thenReturn(Arrays.asList(healthy, unhealthy));
+		NacosServiceInstanceListSupplier supplier = new NacosServiceInstanceListSupplier(
+				SERVICE_ID, nacosServiceManager, properties);
+
+		List<ServiceInstance> seeded = supplier.get().next().block(TIMEOUT);
+
+		assertThat(seeded).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1");
+		assertThat(((NacosServiceInstanceList) seeded)
+				.countRegistered(NacosInstanceSnapshot.CLUSTER_KEY, "A")).isEqualTo(2);
+	}
+
+	@Test
+	public void testSubscribeFailure() throws NacosException {
+		doThrow(new NacosException()).when(namingService).subscribe(anyString(),
+				anyString(), any(NacosServiceInstanceListSupplier.class));
+		NacosServiceInstanceListSupplier supplier = new NacosServiceInstanceListSupplier(
+				SERVICE_ID, nacosServiceManager, properties);
+
+		assertThat(supplier.get().next().block(TIMEOUT)).isEmpty();
+	}
+
+	private static Instance instance(String ip, double weight) {
+		Instance instance = new Instance();
+		instance.setInstanceId(ip + "#8080");
+		instance.setIp(ip);
+		instance.setPort(8080);
+		instance.setWeight(weight);
+		instance.setHealthy(true);
+		return instance;
+	}
+
+}
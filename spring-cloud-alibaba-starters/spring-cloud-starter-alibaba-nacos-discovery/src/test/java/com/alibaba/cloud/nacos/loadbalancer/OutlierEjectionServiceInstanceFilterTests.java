@@ -0,0 +1,189 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.cloud.nacos.balancer.WeightedServiceInstanceList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.instance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OutlierEjectionServiceInstanceFilter}.
+ */
+public class OutlierEjectionServiceInstanceFilterTests {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AtomicLong clock = new AtomicLong(1);
+
+	private final OutlierDetectionProperties properties = new OutlierDetectionProperties();
+
+	private final OutlierEjectionServiceInstanceFilter filter = new OutlierEjectionServiceInstanceFilter(
+			properties, clock::get);
+
+	private final ServiceInstance first = instance("10.0.0.1", "A", 1);
+
+	private final ServiceInstance second = instance("10.0.0.2", "A", 1);
+
+	private final ServiceInstance third = instance("10.0.0.3", "A", 1);
+
+	private final ServiceInstance fourth = instance("10.0.0.4", "A", 1);
+
+	private final List<ServiceInstance> instances = Arrays.asList(first, second, third,
+			fourth);
+
+	@Test
+	public void testConsecutiveFailuresWithBackOff() {
+		properties.setConsecutiveFailures(3);
+		properties.setBaseEjectionTime(Duration.ofSeconds(10));
+		filter.record(first, true, MILLIS);
+		filter.record(first, true, MILLIS);
+		filter.record(first, false, MILLIS);
+		filter.record(first, true, MILLIS);
+		filter.record(first, true, MILLIS);
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.isSameAs(instances);
+
+		filter.record(first, true, MILLIS);
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.containsExactly(second, third, fourth);
+		assertThat(filter.getEjectedInstances()).isEqualTo(1);
+
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.isSameAs(instances);
+
+		// Second ejection lasts twice as long.
+		for (int i = 0; i < 3; i++) {
+			filter.record(first, true, MILLIS);
+		}
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(15));
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.containsExactly(second, third, fourth);
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.isSameAs(instances);
+		assertThat(filter.getEjections()).isEqualTo(2);
+	}
+
+	@Test
+	public void testMaxEjectionPercent() {
+		properties.setConsecutiveFailures(1);
+		filter.onInstanceListChanged(first.getServiceId(), instances);
+		filter.record(fourth, true, MILLIS);
+		filter.record(second, true, MILLIS);
+		filter.record(first, true, MILLIS);
+		filter.record(third, true, MILLIS);
+
+		// At most half of the four instances are ejected, the first two to fail.
+		assertThat(filter.getEjectedInstances()).isEqualTo(2);
+		assertThat(filter.getEjections()).isEqualTo(2);
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.containsExactly(first, third);
+		// Candidates left by other filters are never all removed.
+		assertThat(filter.filterInstance(new DefaultRequest<>(),
+				Arrays.asList(second, fourth))).containsExactly(second, fourth);
+	}
+
+	@Test
+	public void testStatsOfDepartedInstancesAreDropped() {
+		properties.setConsecutiveFailures(1);
+		filter.onInstanceListChanged(first.getServiceId(), instances);
+		filter.record(first, true, MILLIS);
+		assertThat(filter.getEjectedInstances()).isEqualTo(1);
+
+		filter.onInstanceListChanged(first.getServiceId(),
+				Arrays.asList(second, third, fourth));
+		assertThat(filter.getEjectedInstances()).isZero();
+		filter.record(second, true, MILLIS);
+		assertThat(filter.getEjectedInstances()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFailureRate() {
+		properties.setConsecutiveFailures(0);
+		properties.setMinimumRequests(10);
+		for (int i = 0; i < 10; i++) {
+			filter.record(first, i < 6, MILLIS);
+		}
+		clock.addAndGet(properties.getInterval().toNanos());
+		filter.record(first, false, MILLIS);
+
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.containsExactly(second, third, fourth);
+	}
+
+	@Test
+	public void testLatencyOutlier() {
+		properties.setMinimumRequests(5);
+		for (int i = 0; i < 5; i++) {
+			filter.record(first, false, 500 * MILLIS);
+			filter.record(second, false, 20 * MILLIS);
+			filter.record(third, false, 30 * MILLIS);
+		}
+		clock.addAndGet(properties.getInterval().toNanos());
+		filter.record(second, false, 20 * MILLIS);
+		filter.record(first, false, 500 * MILLIS);
+
+		assertThat(filter.filterInstance(new DefaultRequest<>(), instances))
+				.containsExactly(second, third, fourth);
+	}
+
+	@Test
+	public void testWeightsAreOnlyKeptWhenKnown() {
+		properties.setConsecutiveFailures(1);
+		filter.record(first, true, MILLIS);
+
+		List<ServiceInstance> plain = filter.filterInstance(new DefaultRequest<>(),
+				instances);
+		assertThat(plain).containsExactly(second, third, fourth)
+				.isNotInstanceOf(WeightedServiceInstanceList.class);
+
+		WeightedServiceInstanceList weighted = WeightedServiceInstanceList.of(
+				instances.toArray(new ServiceInstance[0]), new double[] { 1, 2, 3, 4 });
+		List<ServiceInstance> filtered = filter.filterInstance(new DefaultRequest<>(),
+				weighted);
+		assertThat(filtered).containsExactly(second, third, fourth);
+		assertThat(((WeightedServiceInstanceList) filtered).getTotalWeight())
+				.isEqualTo(9);
+	}
+
+	@Test
+	public void testMetrics() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new OutlierEjectionMeterBinder(filter).bindTo(registry);
+		properties.setConsecutiveFailures(1);
+		filter.record(first, true, MILLIS);
+
+		assertThat(registry.get(OutlierEjectionMeterBinder.EJECTIONS_METRIC_NAME)
+				.functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get(OutlierEjectionMeterBinder.EJECTED_METRIC_NAME).gauge()
+				.value()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.instance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for {@link PeakEwmaLoadBalancerAlgorithm} and {@link PeakEwmaLatencyTracker}.
+ */
+public class PeakEwmaLoadBalancerAlgorithmTests {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AtomicLong clock = new AtomicLong(1);
+
+	private final PeakEwmaLatencyTracker latencyTracker = new PeakEwmaLatencyTracker(
+			Duration.ofSeconds(10), clock::get);
+
+	private final InFlightRequestTracker inFlightRequestTracker = new InFlightRequestTracker();
+
+	private final PeakEwmaLoadBalancerAlgorithm algorithm = new PeakEwmaLoadBalancerAlgorithm(
+			latencyTracker, inFlightRequestTracker);
+
+	@Test
+	public void testChoosesFasterInstance() {
+		ServiceInstance slow = instance("10.0.0.1", "A", 1);
+		ServiceInstance fast = instance("10.0.0.2", "A", 1);
+		List<ServiceInstance> instances = Arrays.asList(slow, fast);
+
+		latencyTracker.record(slow, 200 * MILLIS, false);
+		latencyTracker.record(fast, 20 * MILLIS, false);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+					.isEqualTo(fast);
+		}
+
+		// 20ms * (10 + 1) > 200ms * (0 + 1)
+		for (int i = 0; i < 10; i++) {
+			inFlightRequestTracker.onStartRequest(new DefaultRequest<>(),
+					new DefaultResponse(fast));
+		}
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+				.isEqualTo(slow);
+	}
+
+	@Test
+	public void testWeightAndZeroWeight() {
+		ServiceInstance heavy = instance("10.0.0.1", "A", 10);
+		ServiceInstance light = instance("10.0.0.2", "A", 1);
+		latencyTracker.record(heavy, 50 * MILLIS, false);
+		latencyTracker.record(light, 20 * MILLIS, false);
+		assertThat(algorithm.getInstance(new DefaultRequest<>(),
+				Arrays.asList(heavy, light))).isEqualTo(heavy);
+
+		ServiceInstance disabled = instance("10.0.0.3", "A", 0);
+		for (int i = 0; i < 10; i++) {
+			assertThat(algorithm.getInstance(new DefaultRequest<>(),
+					Arrays.asList(light, disabled))).isEqualTo(light);
+		}
+	}
+
+	@Test
+	public void testPeakAndDecay() {
+		ServiceInstance server = instance("10.0.0.1", "A", 1);
+		latencyTracker.record(server, 10 * MILLIS, false);
+		latencyTracker.record(server, 100 * MILLIS, false);
+		assertThat(latencyTracker.getLatency(server)).isEqualTo(100 * MILLIS);
+
+		// A lower sample right after the peak barely moves the average.
+		latencyTracker.record(server, 10 * MILLIS, false);
+		assertThat(latencyTracker.getLatency(server)).isEqualTo(100 * MILLIS);
+
+		// A fast failure does not lower it either.
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		latencyTracker.record(server, MILLIS, true);
+		assertThat(latencyTracker.getLatency(server)).isEqualTo(100 * MILLIS);
+
+		// Without traffic, the average decays by 1/e every decay time.
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		assertThat(latencyTracker.getLatency(server))
+				.isCloseTo(100 * MILLIS / Math.E, within(1d));
+	}
+
+	@Test
+	public void testLifecycleMeasuresLatency() {
+		ServiceInstance server = instance("10.0.0.1", "A", 1);
+		Request<Object> request = new DefaultRequest<>(new TimedContext());
+		Response<ServiceInstance> response = new DefaultResponse(server);
+
+		latencyTracker.onStartRequest(request, response);
+		clock.addAndGet(30 * MILLIS);
+		latencyTracker.onComplete(new CompletionContext<>(
+				CompletionContext.Status.SUCCESS, request, response));
+
+		assertThat(latencyTracker.getLatency(server)).isEqualTo(30 * MILLIS);
+	}
+
+	@Test
+	public void testAveragesOfDepartedInstancesAreReleased() {
+		ServiceInstance kept = instance("10.0.0.1", "A", 1);
+		ServiceInstance departed = instance("10.0.0.2", "A", 1);
+		latencyTracker.record(kept, 10 * MILLIS, false);
+		latencyTracker.record(departed, 10 * MILLIS, false);
+
+		latencyTracker.onInstanceListChanged("other-service", Collections.emptyList());
+		assertThat(latencyTracker.size()).isEqualTo(2);
+
+		latencyTracker.onInstanceListChanged(kept.getServiceId(),
+				Collections.singletonList(kept));
+		assertThat(latencyTracker.size()).isEqualTo(1);
+		assertThat(latencyTracker.getLatency(kept)).isEqualTo(10 * MILLIS);
+		assertThat(latencyTracker.getLatency(departed)).isZero();
+	}
+
+	private static class TimedContext implements TimedRequestContext {
+
+		private long requestStartTime;
+
+		@Override
+		public long getRequestStartTime() {
+			return requestStartTime;
+		}
+
+		@Override
+		public void setRequestStartTime(long requestStartTime) {
+			this.requestStartTime = requestStartTime;
+		}
+
+	}
+
+}
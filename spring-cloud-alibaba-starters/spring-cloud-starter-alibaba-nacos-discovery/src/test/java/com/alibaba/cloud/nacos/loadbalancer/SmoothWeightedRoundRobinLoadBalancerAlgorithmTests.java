@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.instance;
+import static com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancerTests.warmingUp;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SmoothWeightedRoundRobinLoadBalancerAlgorithm}.
+ */
+public class SmoothWeightedRoundRobinLoadBalancerAlgorithmTests {
+
+	@Test
+	public void testSmoothSequence() {
+		SmoothWeightedRoundRobinLoadBalancerAlgorithm algorithm = new SmoothWeightedRoundRobinLoadBalancerAlgorithm();
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 5),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "A", 1));
+
+		List<String> hosts = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			hosts.add(algorithm.getInstance(new DefaultRequest<>(), instances).getHost());
+		}
+
+		assertThat(hosts).containsExactly("10.0.0.1", "10.0.0.1", "10.0.0.2",
+				"10.0.0.1", "10.0.0.3", "10.0.0.1", "10.0.0.1");
+	}
+
+	@Test
+	public void testDistributionAfterMembershipChange() {
+		SmoothWeightedRoundRobinLoadBalancerAlgorithm algorithm = new SmoothWeightedRoundRobinLoadBalancerAlgorithm();
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 2),
+				instance("10.0.0.2", "A", 1));
+		for (int i = 0; i < 5; i++) {
+			algorithm.getInstance(new DefaultRequest<>(), instances);
+		}
+
+		List<ServiceInstance> changed = Arrays.asList(instance("10.0.0.1", "A", 2),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "A", 1),
+				instance("10.0.0.4", "A", 0));
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < 400; i++) {
+			counts.merge(algorithm.getInstance(new DefaultRequest<>(), changed).getHost(),
+					1, Integer::sum);
+		}
+
+		assertThat(counts).containsOnlyKeys("10.0.0.1", "10.0.0.2", "10.0.0.3");
+		assertThat(counts.get("10.0.0.1")).isBetween(199, 201);
+		assertThat(counts.get("10.0.0.2")).isBetween(99, 101);
+		assertThat(counts.get("10.0.0.3")).isBetween(99, 101);
+	}
+
+	@Test
+	public void testAlternatingSubsetsStaySmooth() {
+		SmoothWeightedRoundRobinLoadBalancerAlgorithm algorithm = new SmoothWeightedRoundRobinLoadBalancerAlgorithm();
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 5),
+				instance("10.0.0.2", "A", 1), instance("10.0.0.3", "A", 1),
+				instance("10.0.0.4", "B", 1));
+		List<ServiceInstance> clusterA = instances.subList(0, 3);
+
+		// A filter handing alternating subsets to consecutive requests.
+		List<String> hosts = new ArrayList<>();
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < 7; i++) {
+			hosts.add(algorithm.getInstance(new DefaultRequest<>(),
+					new ArrayList<>(clusterA)).getHost());
+			counts.merge(algorithm.getInstance(new DefaultRequest<>(), instances)
+					.getHost(), 1, Integer::sum);
+		}
+
+		assertThat(hosts).containsExactly("10.0.0.1", "10.0.0.1", "10.0.0.2",
+				"10.0.0.1", "10.0.0.3", "10.0.0.1", "10.0.0.1");
+		assertThat(counts.get("10.0.0.1")).isBetween(4, 5);
+		assertThat(counts).containsKey("10.0.0.4");
+	}
+
+	@Test
+	public void testWarmupStepChangesDistribution() {
+		SmoothWeightedRoundRobinLoadBalancerAlgorithm algorithm = new SmoothWeightedRoundRobinLoadBalancerAlgorithm();
+		List<ServiceInstance> instances = Arrays.asList(instance("10.0.0.1", "A", 2),
+				instance("10.0.0.2", "A", 2));
+
+		// Weights 0.2 and 2 on the first step of the ramp.
+		assertThat(countFirst(algorithm, warmingUp(instances, 0), 2200))
+				.isBetween(190, 210);
+		// Same instances on the last step, weights 1.82 and 2.
+		assertThat(countFirst(algorithm, warmingUp(instances, 95_000), 3820))
+				.isBetween(1800, 1840);
+	}
+
+	private static int countFirst(SmoothWeightedRoundRobinLoadBalancerAlgorithm algorithm,
+			List<ServiceInstance> instances, int requests) {
+		int count = 0;
+		for (int i = 0; i < requests; i++) {
+			if (algorithm.getInstance(new DefaultRequest<>(), instances)
+					.equals(instances.get(0))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
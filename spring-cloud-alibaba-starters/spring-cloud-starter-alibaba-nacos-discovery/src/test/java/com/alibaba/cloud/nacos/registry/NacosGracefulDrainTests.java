@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosGracefulDrain}.
+ */
+public class NacosGracefulDrainTests {
+
+	private final NacosServiceRegistry serviceRegistry = mock(
+			NacosServiceRegistry.class);
+
+	private final NacosAutoServiceRegistration autoServiceRegistration = mock(
+			NacosAutoServiceRegistration.class);
+
+	private final NacosRegistration registration = mock(NacosRegistration.class);
+
+	private final InFlightServerRequestCounter counter = new InFlightServerRequestCounter();
+
+	private final NacosDrainProperties properties = new NacosDrainProperties();
+
+	private NacosGracefulDrain drain;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		ObjectProvider<NacosAutoServiceRegistration> provider = mock(
+				ObjectProvider.class);
+		when(provider.getIfAvailable()).thenReturn(autoServiceRegistration);
+		when(autoServiceRegistration.isRunning()).thenReturn(true);
+		when(autoServiceRegistration.getRegistration()).thenReturn(registration);
+		properties.setPropagationWindow(Duration.ofMillis(50));
+		properties.setInFlightTimeout(Duration.ofSeconds(5));
+		drain = new NacosGracefulDrain(provider, serviceRegistry, counter, properties);
+		drain.start();
+	}
+
+	@Test
+	public void testDisablesBeforeDeregistering() {
+		Map<NacosGracefulDrain.Phase, Duration> phases = new EnumMap<>(
+				NacosGracefulDrain.Phase.class);
+		drain.addPhaseListener(phases::put);
+
+		drain.stop();
+
+		InOrder inOrder = inOrder(serviceRegistry, autoServiceRegistration);
+		inOrder.verify(serviceRegistry).setStatus(registration, "DOWN");
+		inOrder.verify(autoServiceRegistration).stop();
+		assertThat(phases).containsOnlyKeys(NacosGracefulDrain.Phase.values());
+		assertThat(phases.get(NacosGracefulDrain.Phase.PROPAGATION))
+				.isGreaterThanOrEqualTo(Duration.ofMillis(50));
+		assertThat(drain.isRunning()).isFalse();
+	}
+
+	@Test
+	public void testWaitsForRequestsInFlight() throws Exception {
+		counter.increment();
+		counter.increment();
+		CompletableFuture<Void> stopped = CompletableFuture.runAsync(drain::stop);
+
+		Thread.sleep(200);
+		assertThat(stopped).isNotDone();
+		verify(autoServiceRegistration, never()).stop();
+		counter.decrement();
+		counter.decrement();
+
+		stopped.get(5, TimeUnit.SECONDS);
+		verify(autoServiceRegistration).stop();
+	}
+
+	@Test
+	public void testCounterWakesUpTheDrainWhenIdle() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			counter.increment();
+			CompletableFuture<Integer> idle = CompletableFuture.supplyAsync(() -> {
+				try {
+					return counter.awaitIdle(Duration.ofSeconds(10));
+				}
+				catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			CompletableFuture<?>[] requests = new CompletableFuture<?>[4];
+			for (int i = 0; i < requests.length; i++) {
+				requests[i] = CompletableFuture.runAsync(() -> {
+					for (int j = 0; j < 10_000; j++) {
+						counter.increment();
+						counter.decrement();
+					}
+				}, executor);
+			}
+			CompletableFuture.allOf(requests).get(10, TimeUnit.SECONDS);
+			counter.decrement();
+			// An extra completion never takes the count below zero.
+			counter.decrement();
+
+			assertThat(idle.get(5, TimeUnit.SECONDS)).isZero();
+			assertThat(counter.get()).isZero();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testDeregistersAfterInFlightTimeout() {
+		properties.setInFlightTimeout(Duration.ofMillis(50));
+		counter.increment();
+		doThrow(new RuntimeException("unavailable")).when(serviceRegistry)
+				.setStatus(any(), anyString());
+
+		drain.stop();
+
+		verify(serviceRegistry).setStatus(eq(registration), eq("DOWN"));
+		verify(autoServiceRegistration).stop();
+	}
+
+	@Test
+	public void testSkipsWhenNotRegistered() {
+		when(autoServiceRegistration.isRunning()).thenReturn(false);
+
+		drain.stop();
+
+		verify(serviceRegistry, never()).setStatus(any(), anyString());
+		verify(autoServiceRegistration, never()).stop();
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.client.serviceregistry.Registration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosServiceRegistry}.
+ */
+public class NacosServiceRegistryTests {
+
+	private final NamingService namingService = mock(NamingService.class);
+
+	private final NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+
+	private NacosServiceRegistry registry;
+
+	@BeforeEach
+	public void setUp() {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		properties.setRegisterAsync(true);
+		properties.setRegisterRetryInitialInterval(10);
+		properties.setRegisterRetryMaxInterval(20);
+		registry = new NacosServiceRegistry(nacosServiceManager, properties);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		registry.close();
+	}
+
+	@Test
+	public void testAsyncRegistrationRetries() throws Exception {
+		doThrow(new NacosException(NacosException.SERVER_ERROR, "unavailable"))
+				.doThrow(new NacosException(NacosException.SERVER_ERROR, "unavailable"))
+				.doNothing().when(namingService)
+				.registerInstance(eq("test-service"), anyString(), any(Instance.class));
+
+		registry.register(registration());
+
+		verify(namingService, timeout(5000).times(3)).registerInstance(
+				eq("test-service"), anyString(), any(Instance.class));
+		assertThat(awaitState(NacosRegistrationState.Status.REGISTERED).getAttempts())
+				.isEqualTo(3);
+	}
+
+	@Test
+	public void testRegisterDoesNotWaitForNacos() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(namingService)
+				.registerInstance(eq("test-service"), anyString(), any(Instance.class));
+
+		long start = System.nanoTime();
+		registry.register(registration());
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+				.isLessThan(1000);
+		assertThat(registry.getRegistrationState().isRegistered()).isFalse();
+		release.countDown();
+		awaitState(NacosRegistrationState.Status.REGISTERED);
+	}
+
+	@Test
+	public void testDeregisterCancelsRetries() throws Exception {
+		doThrow(new NacosException(NacosException.SERVER_ERROR, "unavailable"))
+				.when(namingService)
+				.registerInstance(eq("test-service"), anyString(), any(Instance.class));
+		doNothing().when(namingService).deregisterInstance(anyString(), anyString(),
+				anyString(), anyInt(), any());
+
+		Registration registration = registration();
+		registry.register(registration);
+		awaitState(NacosRegistrationState.Status.RETRYING);
+		registry.deregister(registration);
+
+		assertThat(registry.getRegistrationState().getStatus())
+				.isEqualTo(NacosRegistrationState.Status.DEREGISTERED);
+		long attempts = registerAttempts();
+		Thread.sleep(100);
+		assertThat(registerAttempts()).isEqualTo(attempts);
+		verify(namingService, times(1)).deregisterInstance(anyString(), anyString(),
+				anyString(), anyInt(), any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBatchRegistration() throws Exception {
+		List<Registration> registrations = List.of(registration("test-service", 8080),
+				registration("test-service", 9090), registration("other-service", 8080));
+
+		registry.registerAll(registrations);
+
+		ArgumentCaptor<List<Instance>> instances = ArgumentCaptor.forClass(List.class);
+		verify(namingService).batchRegisterInstance(eq("test-service"), anyString(),
+				instances.capture());
+		assertThat(instances.getValue()).extracting(Instance::getPort)
+				.containsExactly(8080, 9090);
+		assertThat(instances.getValue().get(0).getMetadata())
+				.containsKey(NacosRegistration.REGISTER_TIMESTAMP);
+		// A single instance of a service is registered on its own.
+		verify(namingService).registerInstance(eq("other-service"), anyString(),
+				any(Instance.class));
+
+		registry.deregisterAll(registrations);
+
+		verify(namingService).batchDeregisterInstance(eq("test-service"), anyString(),
+				any());
+		verify(namingService).deregisterInstance(eq("other-service"), anyString(),
+				eq("10.0.0.1"), eq(8080), any());
+	}
+
+	@Test
+	public void testRegisterAllRegistersEveryServiceWithAsyncRegistration() throws Exception {
+		List<Registration> registrations = List.of(registration("test-service", 8080),
+				registration("other-service", 9090));
+
+		registry.registerAll(registrations);
+
+		// Both are registered before registerAll returns, neither replaces the other.
+		verify(namingService).registerInstance(eq("test-service"), anyString(),
+				any(Instance.class));
+		verify(namingService).registerInstance(eq("other-service"), anyString(),
+				any(Instance.class));
+		assertThat(registry.getRegistrationState().getStatus())
+				.isEqualTo(NacosRegistrationState.Status.NOT_REGISTERED);
+
+		registry.deregisterAll(registrations);
+
+		verify(namingService).deregisterInstance(eq("test-service"), anyString(),
+				eq("10.0.0.1"), eq(8080), any());
+		verify(namingService).deregisterInstance(eq("other-service"), anyString(),
+				eq("10.0.0.1"), eq(9090), any());
+		assertThat(registry.getRegistrationState().getStatus())
+				.isEqualTo(NacosRegistrationState.Status.NOT_REGISTERED);
+	}
+
+	@Test
+	public void testRegisterAllRegistersPersistentInstancesOneByOne() throws Exception {
+		properties.setEphemeral(false);
+		List<Registration> registrations = List.of(registration("test-service", 8080),
+				registration("test-service", 9090));
+
+		registry.registerAll(registrations);
+
+		ArgumentCaptor<Instance> instances = ArgumentCaptor.forClass(Instance.class);
+		verify(namingService, times(2)).registerInstance(eq("test-service"),
+				anyString(), instances.capture());
+		assertThat(instances.getAllValues()).extracting(Instance::getPort)
+				.containsExactly(8080, 9090);
+		verify(namingService, times(0)).batchRegisterInstance(anyString(), anyString(),
+				any());
+	}
+
+	@Test
+	public void testRetryDelay() {
+		for (int i = 0; i < 100; i++) {
+			assertThat(NacosServiceRegistry.getRetryDelay(1, 1000, 60000, 2))
+					.isBetween(500L, 1000L);
+			assertThat(NacosServiceRegistry.getRetryDelay(4, 1000, 60000, 2))
+					.isBetween(4000L, 8000L);
+			assertThat(NacosServiceRegistry.getRetryDelay(30, 1000, 60000, 2))
+					.isBetween(30000L, 60000L);
+		}
+	}
+
+	private long registerAttempts() {
+		return mockingDetails(namingService).getInvocations().stream()
+				.filter(invocation -> invocation.getMethod().getName()
+						.equals("registerInstance"))
+				.count();
+	}
+
+	private NacosRegistrationState awaitState(NacosRegistrationState.Status status)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		NacosRegistrationState state = registry.getRegistrationState();
+		while (state.getStatus() != status && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+			state = registry.getRegistrationState();
+		}
+		assertThat(state.getStatus()).isEqualTo(status);
+		return state;
+	}
+
+	private static Registration registration() {
+		return registration("test-service", 8080);
+	}
+
+	private static Registration registration(String serviceId, int port) {
+		Registration registration = mock(Registration.class);
+		when(registration.getServiceId()).thenReturn(serviceId);
+		when(registration.getHost()).thenReturn("10.0.0.1");
+		when(registration.getPort()).thenReturn(port);
+		when(registration.getMetadata()).thenReturn(new HashMap<>());
+		return registration;
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Synthetic instances of a service, shaped like the ones a Nacos server returns for a
+ * Spring Cloud application: spread over a few clusters and zones, with uneven weights,
+ * a version label, a management port and an IPv6 address advertised by some of them.
+ * The same seed always gives the same instances.
+ *
+ * @since 2023.0.1.3
+ */
+final class BenchmarkInstances {
+
+	static final String SERVICE_ID = "benchmark-service";
+
+	static final String LOCAL_CLUSTER = "cluster-0";
+
+	private static final int CLUSTERS = 4;
+
+	private static final int ZONES = 3;
+
+	private BenchmarkInstances() {
+	}
+
+	/**
+	 * @param size number of instances
+	 * @param seed seed of the weights and labels
+	 * @return instances as returned by the Nacos client
+	 */
+	static List<Instance> nacosInstances(int size, long seed) {
+		Random random = new Random(seed);
+		List<Instance> instances = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			String ip = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "."
+					+ (i & 0xff);
+			String cluster = "cluster-" + i % CLUSTERS;
+			Instance instance = new Instance();
+			instance.setInstanceId(ip + "#8080#" + cluster + "#DEFAULT_GROUP@@"
+					+ SERVICE_ID);
+			instance.setIp(ip);
+			instance.setPort(8080);
+			instance.setClusterName(cluster);
+			instance.setServiceName("DEFAULT_GROUP@@" + SERVICE_ID);
+			// Mostly default weights, with some heavier and some drained instances.
+			int draw = random.nextInt(10);
+			instance.setWeight(draw == 0 ? 0.5 : draw == 1 ? 2 : 1);
+			instance.setHealthy(true);
+			instance.setEnabled(true);
+			instance.setEphemeral(true);
+
+			Map<String, String> metadata = new HashMap<>();
+			metadata.put("preserved.register.source", "SPRING_CLOUD");
+			metadata.put("management.port", "8081");
+			metadata.put("version", random.nextInt(10) == 0 ? "canary" : "stable");
+			metadata.put(NacosLocality.ZONE_KEY, "zone-" + i % ZONES);
+			metadata.put(NacosLocality.REGION_KEY, "region-0");
+			if (i % 2 == 0) {
+				metadata.put(NacosInstanceSnapshot.IPV6_KEY,
+						"fd00::" + Integer.toHexString(i + 1));
+			}
+			instance.setMetadata(metadata);
+			instances.add(instance);
+		}
+		return instances;
+	}
+
+	/**
+	 * @param size number of instances
+	 * @param seed seed of the weights and labels
+	 * @return instances as emitted by the service instance list supplier
+	 */
+	static List<ServiceInstance> serviceInstances(int size, long seed) {
+		return NacosServiceDiscovery.hostToServiceInstanceList(
+				nacosInstances(size, seed), SERVICE_ID);
+	}
+
+}
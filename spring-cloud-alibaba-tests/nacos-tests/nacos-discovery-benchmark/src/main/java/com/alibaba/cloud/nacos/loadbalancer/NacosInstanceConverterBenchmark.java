@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.discovery.NacosInstanceConverter;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Benchmarks of the conversion of the instances returned by the Nacos client, done on
+ * every discovery lookup.
+ * <ul>
+ * <li>{@code hostToServiceInstanceList}: a fresh conversion of every instance, as done
+ * before {@link NacosInstanceConverter}</li>
+ * <li>{@code convertUnchanged}: {@link NacosInstanceConverter#convert(List, String)}
+ * given the instances it converted last, as returned by the Nacos client between two
+ * pushes</li>
+ * <li>{@code convertUnchangedCopies}: the same, given equal copies of these instances,
+ * as after a push that changed nothing</li>
+ * <li>{@code convertOneChanged}: the same, given lists differing by the weight of one
+ * instance on every call, so one instance is converted and the list rebuilt</li>
+ * </ul>
+ * Run with {@code -prof gc}, or {@link #main(String[])} which adds the GC profiler, to
+ * compare the allocation per call.
+ *
+ * @since 2023.0.1.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NacosInstanceConverterBenchmark {
+
+	private static final long SEED = 42;
+
+	@Param({ "10", "100", "1000", "5000" })
+	private int size;
+
+	private List<Instance> instances;
+
+	private List<Instance> reweighted;
+
+	private List<Instance> copies;
+
+	private NacosInstanceConverter unchangedConverter;
+
+	private NacosInstanceConverter changingConverter;
+
+	private boolean flip;
+
+	@Setup
+	public void setUp() {
+		instances = BenchmarkInstances.nacosInstances(size, SEED);
+		copies = BenchmarkInstances.nacosInstances(size, SEED);
+		unchangedConverter = new NacosInstanceConverter();
+		unchangedConverter.convert(instances, BenchmarkInstances.SERVICE_ID);
+
+		reweighted = new ArrayList<>(instances);
+		Instance first = copy(instances.get(0));
+		first.setWeight(first.getWeight() + 1);
+		reweighted.set(0, first);
+		changingConverter = new NacosInstanceConverter();
+		changingConverter.convert(instances, BenchmarkInstances.SERVICE_ID);
+	}
+
+	@Benchmark
+	public List<ServiceInstance> hostToServiceInstanceList() {
+		return NacosServiceDiscovery.hostToServiceInstanceList(instances,
+				BenchmarkInstances.SERVICE_ID);
+	}
+
+	@Benchmark
+	public List<ServiceInstance> convertUnchanged() {
+		return unchangedConverter.convert(instances, BenchmarkInstances.SERVICE_ID);
+	}
+
+	@Benchmark
+	public List<ServiceInstance> convertUnchangedCopies() {
+		return unchangedConverter.convert(copies, BenchmarkInstances.SERVICE_ID);
+	}
+
+	@Benchmark
+	public List<ServiceInstance> convertOneChanged() {
+		flip = !flip;
+		return changingConverter.convert(flip ? reweighted : instances,
+				BenchmarkInstances.SERVICE_ID);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(NacosInstanceConverterBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	private static Instance copy(Instance instance) {
+		Instance copy = new Instance();
+		copy.setInstanceId(instance.getInstanceId());
+		copy.setIp(instance.getIp());
+		copy.setPort(instance.getPort());
+		copy.setClusterName(instance.getClusterName());
+		copy.setServiceName(instance.getServiceName());
+		copy.setWeight(instance.getWeight());
+		copy.setHealthy(instance.isHealthy());
+		copy.setEnabled(instance.isEnabled());
+		copy.setEphemeral(instance.isEphemeral());
+		copy.setMetadata(new HashMap<>(instance.getMetadata()));
+		return copy;
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * Benchmarks of the Nacos load balancing path, from the instances returned by the
+ * Nacos client to the chosen instance, on synthetic services of 10 to 5,000 instances.
+ * No Nacos server is needed.
+ * <ul>
+ * <li>{@code choose}: a full {@link NacosLoadBalancer#choose(Request)} while the
+ * membership is stable, the usual case</li>
+ * <li>{@code chooseAfterMembershipChange}: the same, with a new instance list on every
+ * call, so the snapshot is rebuilt each time</li>
+ * <li>{@code buildSnapshot}: the cluster and IP type filtering done on a membership
+ * change, which replaced {@code filterInstanceByIpType}</li>
+ * <li>{@code getHostByRandomWeight3*}: the weighted random choice, on a plain list
+ * whose weights are parsed on every call and on the weighted candidates of a
+ * snapshot</li>
+ * <li>{@code hostToServiceInstance}: the conversion of every instance of the service,
+ * as done on each discovery lookup</li>
+ * </ul>
+ * The {@code choose} benchmarks run with and without
+ * {@link MicrometerNacosLoadBalancerMetrics}, to measure the overhead of the metrics;
+ * the load balancers live in their own {@link LoadBalancers} state so that the other
+ * benchmarks do not run twice.
+ * Run {@code java -jar target/benchmarks.jar -prof gc} for the allocation rate along
+ * with the throughput, or {@link #main(String[])} which adds the GC profiler.
+ *
+ * @since 2023.0.1.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NacosLoadBalancerBenchmark {
+
+	private static final long SEED = 42;
+
+	@Param({ "10", "100", "1000", "5000" })
+	private int size;
+
+	private List<Instance> nacosInstances;
+
+	private List<ServiceInstance> serviceInstances;
+
+	private List<ServiceInstance> plainCandidates;
+
+	private List<ServiceInstance> snapshotCandidates;
+
+	@Setup
+	public void setUp() {
+		NacosLoadBalancer.ipv6 = null;
+		nacosInstances = BenchmarkInstances.nacosInstances(size, SEED);
+		serviceInstances = Collections.unmodifiableList(
+				BenchmarkInstances.serviceInstances(size, SEED));
+		plainCandidates = new ArrayList<>(serviceInstances);
+		snapshotCandidates = NacosInstanceSnapshot
+				.build(serviceInstances, null, null).getCandidates();
+	}
+
+	@Benchmark
+	public Response<ServiceInstance> choose(LoadBalancers loadBalancers) {
+		return loadBalancers.stable.choose(loadBalancers.request).block();
+	}
+
+	@Benchmark
+	public Response<ServiceInstance> chooseAfterMembershipChange(
+			LoadBalancers loadBalancers) {
+		return loadBalancers.changing.choose(loadBalancers.request).block();
+	}
+
+	@Benchmark
+	public NacosInstanceSnapshot buildSnapshot() {
+		return NacosInstanceSnapshot.build(serviceInstances,
+				BenchmarkInstances.LOCAL_CLUSTER, null);
+	}
+
+	@Benchmark
+	public ServiceInstance getHostByRandomWeight3PlainList() {
+		return NacosBalancer.getHostByRandomWeight3(plainCandidates);
+	}
+
+	@Benchmark
+	public ServiceInstance getHostByRandomWeight3SnapshotCandidates() {
+		return NacosBalancer.getHostByRandomWeight3(snapshotCandidates);
+	}
+
+	@Benchmark
+	public void hostToServiceInstance(Blackhole blackhole) {
+		for (Instance instance : nacosInstances) {
+			blackhole.consume(NacosServiceDiscovery.hostToServiceInstance(instance,
+					BenchmarkInstances.SERVICE_ID));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(NacosLoadBalancerBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	private static NacosLoadBalancer loadBalancer(ServiceInstanceListSupplier supplier) {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		beanFactory.addBean("serviceInstanceListSupplier", supplier);
+		ObjectProvider<ServiceInstanceListSupplier> provider = beanFactory
+				.getBeanProvider(ServiceInstanceListSupplier.class);
+
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setClusterName(BenchmarkInstances.LOCAL_CLUSTER);
+		Map<String, LoadBalancerAlgorithm> algorithms = new HashMap<>();
+		algorithms.put(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID,
+				new DefaultLoadBalancerAlgorithm());
+		return new NacosLoadBalancer(provider, BenchmarkInstances.SERVICE_ID,
+				properties, null, new ArrayList<>(), algorithms);
+	}
+
+	/**
+	 * Load balancers of the {@code choose} benchmarks, built from the instances of the
+	 * enclosing state, with and without metrics.
+	 */
+	@State(Scope.Benchmark)
+	public static class LoadBalancers {
+
+		@Param({ "false", "true" })
+		private boolean metrics;
+
+		private NacosLoadBalancer stable;
+
+		private NacosLoadBalancer changing;
+
+		private final Request<?> request = new DefaultRequest<>();
+
+		@Setup
+		public void setUp(NacosLoadBalancerBenchmark benchmark) {
+			List<ServiceInstance> serviceInstances = benchmark.serviceInstances;
+			stable = loadBalancer(new RotatingSupplier(serviceInstances));
+			// Lists differing by their last instance, as after a deregistration.
+			List<ServiceInstance> shrunk = Collections.unmodifiableList(new ArrayList<>(
+					serviceInstances.subList(0, serviceInstances.size() - 1)));
+			changing = loadBalancer(new RotatingSupplier(serviceInstances, shrunk));
+			if (metrics) {
+				MicrometerNacosLoadBalancerMetrics micrometerMetrics = new MicrometerNacosLoadBalancerMetrics();
+				micrometerMetrics.bindTo(new SimpleMeterRegistry());
+				stable.setMetrics(micrometerMetrics);
+				stable.setInstanceListListeners(List.of(micrometerMetrics));
+				changing.setMetrics(micrometerMetrics);
+				changing.setInstanceListListeners(List.of(micrometerMetrics));
+			}
+		}
+
+	}
+
+	/**
+	 * Emits the given lists in turn, the same list instance each time it comes back,
+	 * like a caching supplier between two refreshes.
+	 */
+	private static final class RotatingSupplier implements ServiceInstanceListSupplier {
+
+		private final List<Flux<List<ServiceInstance>>> lists = new ArrayList<>();
+
+		private int next;
+
+		@SafeVarargs
+		RotatingSupplier(List<ServiceInstance>... lists) {
+			for (List<ServiceInstance> list : lists) {
+				this.lists.add(Flux.just(list));
+			}
+		}
+
+		@Override
+		public String getServiceId() {
+			return BenchmarkInstances.SERVICE_ID;
+		}
+
+		@Override
+		public Flux<List<ServiceInstance>> get() {
+			Flux<List<ServiceInstance>> list = lists.get(next);
+			next = (next + 1) % lists.size();
+			return list;
+		}
+
+	}
+
+}
@@ -0,0 +1,4 @@
+package com.alibaba.cloud.nacos.loadbalancer.jmh_generated;
+public class NacosInstanceConverterBenchmark_jmhType extends NacosInstanceConverterBenchmark_jmhType_B3 {
+}
+
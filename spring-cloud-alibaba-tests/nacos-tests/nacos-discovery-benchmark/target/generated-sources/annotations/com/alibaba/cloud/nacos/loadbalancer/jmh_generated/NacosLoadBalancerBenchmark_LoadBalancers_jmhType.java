@@ -0,0 +1,4 @@
+package com.alibaba.cloud.nacos.loadbalancer.jmh_generated;
+public class NacosLoadBalancerBenchmark_LoadBalancers_jmhType extends NacosLoadBalancerBenchmark_LoadBalancers_jmhType_B3 {
+}
+
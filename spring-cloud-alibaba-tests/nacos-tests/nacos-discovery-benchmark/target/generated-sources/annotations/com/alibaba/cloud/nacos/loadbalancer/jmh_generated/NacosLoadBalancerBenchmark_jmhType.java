@@ -0,0 +1,4 @@
+package com.alibaba.cloud.nacos.loadbalancer.jmh_generated;
+public class NacosLoadBalancerBenchmark_jmhType extends NacosLoadBalancerBenchmark_jmhType_B3 {
+}
+